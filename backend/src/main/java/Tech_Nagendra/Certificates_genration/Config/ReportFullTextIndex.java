@@ -0,0 +1,105 @@
+package Tech_Nagendra.Certificates_genration.Config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * Makes sure the n-gram FULLTEXT index used by report search exists. Hibernate cannot declare FULLTEXT indexes,
+ * so it is created here on startup when the database is MySQL. The n-gram parser indexes every substring of
+ * ngram_token_size characters, but it also drops every n-gram that contains a stopword, and the default InnoDB
+ * list holds single letters such as "a" and "i". The index is therefore created on a session with
+ * innodb_ft_enable_stopword off; only then does a quoted phrase query find the same rows as a case-insensitive
+ * "contains" search. Its name carries the token size it was built with ({@code ft_reports_search_ng2}), so an index
+ * from an older build or another token size is dropped and rebuilt.
+ * On other databases, when disabled, or when the index cannot be set up this way, search falls back to LIKE.
+ */
+@Component
+public class ReportFullTextIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportFullTextIndex.class);
+
+    public static final String INDEX_PREFIX = "ft_reports_search";
+
+    private final DataSource dataSource;
+
+    @Value("${app.reports.fulltext.enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean available;
+    private volatile int minTermLength = 2;
+
+    public ReportFullTextIndex(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        if (!enabled) return;
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (product == null || !product.toLowerCase().contains("mysql")) {
+                logger.info("Report search uses LIKE on {}", product);
+                return;
+            }
+            // one session throughout: the stopword setting only applies to indexes created on it
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            try {
+                ensureIndex(session);
+            } finally {
+                session.execute("SET SESSION innodb_ft_enable_stopword = DEFAULT");
+            }
+        } catch (Exception e) {
+            logger.warn("FULLTEXT index unavailable, report search uses LIKE: {}", e.getMessage());
+        }
+    }
+
+    private void ensureIndex(JdbcTemplate session) {
+        Integer tokenSize = session.queryForObject("SELECT @@ngram_token_size", Integer.class);
+        if (tokenSize == null || tokenSize < 1) {
+            logger.warn("Unexpected ngram_token_size {}, report search uses LIKE", tokenSize);
+            return;
+        }
+        String indexName = INDEX_PREFIX + "_ng" + tokenSize;
+        List<String> existing = session.queryForList(
+                "SELECT DISTINCT index_name FROM information_schema.statistics " +
+                        "WHERE table_schema = DATABASE() AND table_name = 'reports' AND index_type = 'FULLTEXT' " +
+                        "AND index_name LIKE '" + INDEX_PREFIX + "%'",
+                String.class);
+        if (!existing.contains(indexName)) {
+            for (String stale : existing) {
+                logger.info("Dropping FULLTEXT index {} built with stopwords or another token size", stale);
+                session.execute("ALTER TABLE reports DROP INDEX " + stale);
+            }
+            session.execute("SET SESSION innodb_ft_enable_stopword = 0");
+            Integer stopwords = session.queryForObject("SELECT @@SESSION.innodb_ft_enable_stopword", Integer.class);
+            if (stopwords == null || stopwords != 0) {
+                logger.warn("Could not disable InnoDB stopwords, report search uses LIKE");
+                return;
+            }
+            logger.info("Creating FULLTEXT index {} on reports", indexName);
+            session.execute("ALTER TABLE reports ADD FULLTEXT INDEX " + indexName +
+                    " (sid, candidate_name, template_name, batch_id, training_partner) WITH PARSER ngram");
+        }
+        minTermLength = tokenSize;
+        available = true;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /** Terms shorter than the n-gram size cannot use the index. */
+    public int getMinTermLength() {
+        return minTermLength;
+    }
+}
@@ -0,0 +1,23 @@
+package Tech_Nagendra.Certificates_genration.Config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers report_fulltext(sid, candidateName, templateName, batchId, trainingPartner, query) for Criteria and
+ * JPQL. It renders MySQL's MATCH ... AGAINST in boolean mode over the ft_reports_search_ng* index, so it must only
+ * be used when {@link ReportFullTextIndex#isAvailable()}. Registered in META-INF/services.
+ */
+public class ReportSearchFunctions implements FunctionContributor {
+
+    public static final String REPORT_FULLTEXT = "report_fulltext";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerPattern(
+                REPORT_FULLTEXT,
+                "match(?1, ?2, ?3, ?4, ?5) against (?6 in boolean mode)",
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE));
+    }
+}
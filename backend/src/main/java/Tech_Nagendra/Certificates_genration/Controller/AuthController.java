@@ -4,16 +4,23 @@ import Tech_Nagendra.Certificates_genration.Dto.AuthRequest;
 import Tech_Nagendra.Certificates_genration.Dto.AuthResponse;
 import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
 import Tech_Nagendra.Certificates_genration.Repository.ProfileRepository;
-import Tech_Nagendra.Certificates_genration.Service.ProfileService;
+import Tech_Nagendra.Certificates_genration.Security.HashingPasswordEncoder.PasswordHashingBusyException;
+import Tech_Nagendra.Certificates_genration.Security.JwtClaims;
+import Tech_Nagendra.Certificates_genration.Security.LoginRateLimiter;
+import Tech_Nagendra.Certificates_genration.Service.SessionStoreService;
+import Tech_Nagendra.Certificates_genration.Service.UserProfileCacheService;
 import Tech_Nagendra.Certificates_genration.Utility.JwtUtil;
-import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 
 @RestController
@@ -22,13 +29,24 @@ import jakarta.servlet.http.HttpSession;
 @RequiredArgsConstructor
 public class AuthController {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
+
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final ProfileRepository profileRepository;
-    private final ProfileService profileService;
+    private final SessionStoreService sessionStore;
+    private final LoginRateLimiter loginRateLimiter;
+    private final UserProfileCacheService userProfileCache;
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request, HttpSession session) {
+    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request, HttpSession session,
+                                              HttpServletRequest httpRequest) {
+        long retryAfter = loginRateLimiter.tryAcquire(request.getUsername(), httpRequest.getRemoteAddr());
+        if (retryAfter > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                    .body(new AuthResponse(false, 429, "Too many login attempts. Please try again later.", null, null, null));
+        }
         try {
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
@@ -44,13 +62,11 @@ public class AuthController {
                     userProfile.getRole()
             );
 
-            profileService.saveLoginToken(userProfile.getId(), token);
+            JwtClaims claims = jwtUtil.parseClaims(token);
+            sessionStore.open(userProfile, claims, httpRequest.getHeader("User-Agent"));
             session.setAttribute("JWT_TOKEN", token);
 
-            Claims claims = jwtUtil.extractAllClaims(token);
-            System.out.println("Generated JWT Claims -> userId: " + claims.get("userId") +
-                    ", username: " + claims.getSubject() +
-                    ", role: " + claims.get("role"));
+            logger.debug("Login succeeded for user {}", userProfile.getId());
 
             return ResponseEntity.ok(new AuthResponse(
                     true,
@@ -64,6 +80,10 @@ public class AuthController {
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new AuthResponse(false, 401, "Invalid username or password", null, null, null));
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new AuthResponse(false, 503, "Login service busy. Please try again.", null, null, null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new AuthResponse(false, 500, "Internal server error: " + e.getMessage(), null, null, null));
@@ -76,10 +96,11 @@ public class AuthController {
         try {
             if (tokenHeader != null && tokenHeader.startsWith("Bearer ")) {
                 String token = tokenHeader.substring(7).trim();
-                Long userId = jwtUtil.extractUserId(token);
+                JwtClaims claims = jwtUtil.parseClaims(token);
 
-                if (userId != null) {
-                    profileService.saveLoginToken(userId, null);
+                if (claims.getUserId() != null) {
+                    sessionStore.revoke(claims);
+                    userProfileCache.evict(claims.getUserId());
                     session.removeAttribute("JWT_TOKEN");
                 } else {
                     return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
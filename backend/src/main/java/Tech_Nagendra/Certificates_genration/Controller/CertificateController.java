@@ -1,14 +1,23 @@
 
 package Tech_Nagendra.Certificates_genration.Controller;
-import Tech_Nagendra.Certificates_genration.Entity.CandidateDTO;
+import Tech_Nagendra.Certificates_genration.Dto.PreflightReport;
+import Tech_Nagendra.Certificates_genration.Entity.GenerationJob;
 import Tech_Nagendra.Certificates_genration.Entity.Report;
-import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
+import Tech_Nagendra.Certificates_genration.Ingest.CandidateFileReader;
+import Tech_Nagendra.Certificates_genration.Ingest.CandidateRecord;
 import Tech_Nagendra.Certificates_genration.Security.UserPrincipal;
+import Tech_Nagendra.Certificates_genration.Security.UserSnapshot;
 import Tech_Nagendra.Certificates_genration.Service.CertificateService;
+import Tech_Nagendra.Certificates_genration.Service.CertificateStore;
 import Tech_Nagendra.Certificates_genration.Service.DynamicFontService;
+import Tech_Nagendra.Certificates_genration.Service.GenerationAdmission;
+import Tech_Nagendra.Certificates_genration.Service.GenerationJobService;
+import Tech_Nagendra.Certificates_genration.Service.PreflightService;
+import Tech_Nagendra.Certificates_genration.Service.UserProfileCacheService;
 import Tech_Nagendra.Certificates_genration.Service.ReportService;
-import Tech_Nagendra.Certificates_genration.Repository.ProfileRepository;
 import Tech_Nagendra.Certificates_genration.Utility.JwtUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.multipdf.PDFMergerUtility;
 import org.slf4j.Logger;
@@ -16,10 +25,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -32,23 +46,35 @@ public class CertificateController {
 
     private final CertificateService certificateService;
     private final ReportService reportService;
-    private final ProfileRepository profileRepository;
+    private final UserProfileCacheService userProfileCache;
     private final JwtUtil jwtUtil;
     private final DynamicFontService dynamicFontService;
+    private final PreflightService preflightService;
+    private final CertificateStore certificateStore;
+    private final GenerationJobService generationJobService;
+    private final GenerationAdmission admission;
 
     @Value("${certificate.template.path:${user.dir}/templates/}")
     private String tempPath;
 
     public CertificateController(CertificateService certificateService,
                                  ReportService reportService,
-                                 ProfileRepository profileRepository,
+                                 UserProfileCacheService userProfileCache,
                                  JwtUtil jwtUtil,
-                                 DynamicFontService dynamicFontService) {
+                                 DynamicFontService dynamicFontService,
+                                 PreflightService preflightService,
+                                 CertificateStore certificateStore,
+                                 GenerationJobService generationJobService,
+                                 GenerationAdmission admission) {
         this.certificateService = certificateService;
         this.reportService = reportService;
-        this.profileRepository = profileRepository;
+        this.userProfileCache = userProfileCache;
         this.jwtUtil = jwtUtil;
         this.dynamicFontService = dynamicFontService;
+        this.preflightService = preflightService;
+        this.certificateStore = certificateStore;
+        this.generationJobService = generationJobService;
+        this.admission = admission;
     }
 
     @PostMapping(value = "/generate-zip/{templateId}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -58,7 +84,8 @@ public class CertificateController {
             @RequestPart(value = "zipImage", required = false) MultipartFile zipImage,
             @RequestPart(value = "logo", required = false) MultipartFile logo,
             @RequestPart(value = "sign", required = false) MultipartFile sign,
-            @RequestHeader("Authorization") String tokenHeader) {
+            @RequestParam(value = "preflight", defaultValue = "true") boolean preflight,
+            HttpServletRequest request) {
 
         Map<String, File> uploadedFiles = new HashMap<>();
         File tempExcel = null;
@@ -66,16 +93,15 @@ public class CertificateController {
 
         try {
             if (excelFile == null || excelFile.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Excel file is required"));
+                return ResponseEntity.badRequest().body(Map.of("error", "Candidate file (Excel, CSV or NDJSON) is required"));
             }
 
-            String token = tokenHeader.startsWith("Bearer ") ? tokenHeader.substring(7) : tokenHeader;
-            Long userId = jwtUtil.extractUserId(token);
+            Long userId = jwtUtil.resolveClaims(request).getUserId();
 
-            UserProfile userProfile = profileRepository.findById(userId)
+            UserSnapshot user = userProfileCache.find(userId)
                     .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
 
-            UserPrincipal currentUser = new UserPrincipal(userProfile);
+            UserPrincipal currentUser = new UserPrincipal(user);
 
             if (!dir.exists() && !dir.mkdirs()) {
                 throw new RuntimeException("Failed to create directory: " + tempPath);
@@ -87,66 +113,284 @@ public class CertificateController {
                 in.transferTo(fos);
             }
 
-            saveTempFile(uploadedFiles, zipImage, dir, "zipImage");
-            saveTempFile(uploadedFiles, logo, dir, "logo");
-            saveTempFile(uploadedFiles, sign, dir, "sign");
+            saveTempFile(uploadedFiles, zipImage, dir, CertificateService.PHOTO_ARCHIVE);
+            saveTempFile(uploadedFiles, logo, dir, CertificateService.LOGO);
+            saveTempFile(uploadedFiles, sign, dir, CertificateService.SIGN);
+
+            // admitted on the upload before it is parsed, so pre-flight and row counting are bounded as well
+            long uploadBytes = tempExcel.length() + uploadedFiles.values().stream().mapToLong(File::length).sum();
+            try (GenerationAdmission.Permit permit = admission.admit(0, uploadBytes)) {
+                int rows = -1;
+                if (preflight) {
+                    PreflightReport report = preflightService.validate(templateId, tempExcel, uploadedFiles);
+                    if (report.isBlocking()) {
+                        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                                .body(Map.of("error", "Pre-flight validation failed", "report", report));
+                    }
+                    rows = report.getValidRows();
+                }
+                if (rows < 0) rows = countRows(tempExcel);
+                admission.resize(permit, rows, uploadBytes);
+                return generateZip(templateId, tempExcel, uploadedFiles, currentUser);
+            }
+        } catch (GenerationAdmission.RejectedException e) {
+            if (e.isTooLarge()) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body(Map.of("error", e.getMessage(), "hint", "Submit it as a background job: POST /certificates/jobs/" + templateId));
+            }
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("error", e.getMessage(), "retryAfterSeconds", e.getRetryAfterSeconds()));
+        } catch (Exception e) {
+            logger.error("Certificate generation failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Certificate generation failed", "message", e.getMessage()));
+        } finally {
+            cleanupTempFiles(tempExcel, uploadedFiles);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResponseEntity<?> generateZip(Long templateId, File tempExcel, Map<String, File> uploadedFiles,
+                                          UserPrincipal currentUser) throws IOException {
+        Map<String, Object> result = certificateService.generateCertificatesAndReports(
+                templateId,
+                tempExcel,
+                uploadedFiles.isEmpty() ? null : uploadedFiles,
+                tempPath,
+                currentUser
+        );
+
+        if (result.containsKey("error") && (Boolean) result.get("error")) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Certificate generation failed", "message", result.get("message")));
+        }
 
-            Map<String, Object> result = certificateService.generateCertificatesAndReports(
-                    templateId,
-                    tempExcel,
-                    uploadedFiles.isEmpty() ? null : uploadedFiles,
-                    tempPath,
-                    currentUser
-            );
+        List<File> pdfFiles = (List<File>) result.getOrDefault("pdfFiles", new ArrayList<>());
+        List<CandidateRecord> candidates = (List<CandidateRecord>) result.getOrDefault("candidates", new ArrayList<>());
 
-            if (result.containsKey("error") && (Boolean) result.get("error")) {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Map.of("error", "Certificate generation failed", "message", result.get("message")));
+        if (pdfFiles.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "No PDF files generated"));
+        }
+
+        File outputFolder = new File(tempPath);
+        List<File> finalPdfList = performMergeIfNeeded(outputFolder, candidates, pdfFiles);
+
+        byte[] zipBytes = createZipBytesFromCandidates(finalPdfList, candidates);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDisposition(ContentDisposition.builder("attachment")
+                .filename("certificates_" + System.currentTimeMillis() + ".zip")
+                .build());
+        headers.setContentLength(zipBytes.length);
+
+        return new ResponseEntity<>(zipBytes, headers, HttpStatus.OK);
+    }
+
+    /** Valid candidate rows of an upload that skipped pre-flight. */
+    private static int countRows(File candidateFile) throws Exception {
+        int[] rows = {0};
+        CandidateFileReader.read(candidateFile, null, (c, rowNumber) -> {
+            if (c.getSid() != null && !c.getSid().isBlank() && c.getCandidateName() != null && !c.getCandidateName().isBlank()) {
+                rows[0]++;
             }
+        });
+        return rows[0];
+    }
+
+    /**
+     * Runs the pre-flight checks for an upload without generating anything.
+     */
+    @PostMapping(value = "/validate/{templateId}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> validateUpload(
+            @PathVariable Long templateId,
+            @RequestPart("excel") MultipartFile excelFile,
+            @RequestPart(value = "zipImage", required = false) MultipartFile zipImage) {
 
-            List<File> pdfFiles = (List<File>) result.getOrDefault("pdfFiles", new ArrayList<>());
-            List<CandidateDTO> candidates = (List<CandidateDTO>) result.getOrDefault("candidates", new ArrayList<>());
+        Map<String, File> uploadedFiles = new HashMap<>();
+        File tempExcel = null;
+        File dir = new File(tempPath);
 
-            if (pdfFiles.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Map.of("error", "No PDF files generated"));
+        try {
+            if (excelFile == null || excelFile.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Candidate file (Excel, CSV or NDJSON) is required"));
+            }
+            if (!dir.exists() && !dir.mkdirs()) {
+                throw new RuntimeException("Failed to create directory: " + tempPath);
             }
 
-            for (CandidateDTO candidate : candidates) {
-                try {
-                    reportService.saveCandidateReport(candidate, templateId, userId, currentUser);
-                } catch (Exception ignored) { }
+            tempExcel = new File(dir, System.currentTimeMillis() + "_" + excelFile.getOriginalFilename());
+            try (InputStream in = excelFile.getInputStream();
+                 FileOutputStream fos = new FileOutputStream(tempExcel)) {
+                in.transferTo(fos);
             }
+            saveTempFile(uploadedFiles, zipImage, dir, CertificateService.PHOTO_ARCHIVE);
 
-            File outputFolder = new File(tempPath);
-            List<File> finalPdfList = performMergeIfNeeded(outputFolder, candidates, pdfFiles);
+            return ResponseEntity.ok(preflightService.validate(templateId, tempExcel, uploadedFiles));
+        } catch (Exception e) {
+            logger.error("Pre-flight validation failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Pre-flight validation failed", "message", e.getMessage()));
+        } finally {
+            cleanupTempFiles(tempExcel, uploadedFiles);
+        }
+    }
 
-            byte[] zipBytes = createZipBytesFromCandidates(finalPdfList, candidates);
+    /**
+     * Queues a background run of the upload. The job checkpoints as it goes and is resumed after a restart; poll
+     * {@code GET /certificates/jobs/{jobId}} and fetch the ZIP once it is COMPLETED.
+     */
+    @PostMapping(value = "/jobs/{templateId}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> submitGenerationJob(
+            @PathVariable Long templateId,
+            @RequestPart("excel") MultipartFile excelFile,
+            @RequestPart(value = "zipImage", required = false) MultipartFile zipImage,
+            @RequestPart(value = "logo", required = false) MultipartFile logo,
+            @RequestPart(value = "sign", required = false) MultipartFile sign,
+            @RequestParam(value = "preflight", defaultValue = "true") boolean preflight,
+            HttpServletRequest request) {
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDisposition(ContentDisposition.builder("attachment")
-                    .filename("certificates_" + System.currentTimeMillis() + ".zip")
-                    .build());
-            headers.setContentLength(zipBytes.length);
+        Map<String, File> uploadedFiles = new HashMap<>();
+        File tempExcel = null;
+        File dir = new File(tempPath);
 
-            return new ResponseEntity<>(zipBytes, headers, HttpStatus.OK);
+        try {
+            if (excelFile == null || excelFile.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Candidate file (Excel, CSV or NDJSON) is required"));
+            }
+            UserPrincipal currentUser = currentUser(request);
+            if (!dir.exists() && !dir.mkdirs()) {
+                throw new RuntimeException("Failed to create directory: " + tempPath);
+            }
 
+            tempExcel = new File(dir, System.currentTimeMillis() + "_" + excelFile.getOriginalFilename());
+            try (InputStream in = excelFile.getInputStream();
+                 FileOutputStream fos = new FileOutputStream(tempExcel)) {
+                in.transferTo(fos);
+            }
+            saveTempFile(uploadedFiles, zipImage, dir, CertificateService.PHOTO_ARCHIVE);
+            saveTempFile(uploadedFiles, logo, dir, CertificateService.LOGO);
+            saveTempFile(uploadedFiles, sign, dir, CertificateService.SIGN);
+
+            if (preflight) {
+                PreflightReport report = preflightService.validate(templateId, tempExcel, uploadedFiles);
+                if (report.isBlocking()) {
+                    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                            .body(Map.of("error", "Pre-flight validation failed", "report", report));
+                }
+            }
+
+            GenerationJob job = generationJobService.submit(templateId, tempExcel, uploadedFiles, currentUser);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            logger.error("Certificate generation failed", e);
+            logger.error("Could not queue generation job", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Certificate generation failed", "message", e.getMessage()));
+                    .body(Map.of("error", "Could not queue generation job", "message", e.getMessage()));
         } finally {
             cleanupTempFiles(tempExcel, uploadedFiles);
         }
     }
 
-    private List<File> performMergeIfNeeded(File outputFolder, List<CandidateDTO> candidates, List<File> generatedPdfs) {
+    @GetMapping("/jobs")
+    public ResponseEntity<?> listGenerationJobs(HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(generationJobService.list(currentUser(request)));
+        } catch (Exception e) {
+            logger.error("Error listing generation jobs: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /** Scheduler limits, per-user queues and the latest slot decisions. */
+    @GetMapping("/jobs/scheduler")
+    public ResponseEntity<?> getGenerationScheduler(HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(generationJobService.schedulerStats(currentUser(request)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error loading generation scheduler state: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /** Admission limits, current load and rejection counters of synchronous generation. */
+    @GetMapping("/admission")
+    public ResponseEntity<?> getAdmissionStats(HttpServletRequest request) {
+        try {
+            UserPrincipal currentUser = currentUser(request);
+            if (!isAdmin(currentUser)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            return ResponseEntity.ok(admission.stats());
+        } catch (Exception e) {
+            logger.error("Error loading admission state: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getGenerationJob(@PathVariable Long jobId, HttpServletRequest request) {
+        try {
+            return generationJobService.find(jobId, currentUser(request))
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Job not found")));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error loading generation job {}: {}", jobId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /** Streams the certificates of a completed job, the latest one per SID. */
+    @GetMapping("/jobs/{jobId}/zip")
+    public ResponseEntity<?> downloadGenerationJob(@PathVariable Long jobId,
+                                                   HttpServletRequest request,
+                                                   HttpServletResponse response) {
+        try {
+            GenerationJob job = generationJobService.find(jobId, currentUser(request)).orElse(null);
+            if (job == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Job not found"));
+            }
+            if (!GenerationJob.COMPLETED.equals(job.getStatus())) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("error", "Job is not completed", "status", job.getStatus()));
+            }
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename("certificates_job_" + jobId + ".zip").build().toString());
+            generationJobService.writeZip(job, response.getOutputStream());
+            return null;
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error streaming generation job {}: {}", jobId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private boolean isAdmin(UserPrincipal user) {
+        return user.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equalsIgnoreCase("ADMIN") || a.getAuthority().equalsIgnoreCase("ROLE_ADMIN"))
+                || (user.getRollid() != null && user.getRollid() == 1);
+    }
+
+    private UserPrincipal currentUser(HttpServletRequest request) {
+        Long userId = jwtUtil.resolveClaims(request).getUserId();
+        UserSnapshot user = userProfileCache.find(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        return new UserPrincipal(user);
+    }
+
+    private List<File> performMergeIfNeeded(File outputFolder, List<CandidateRecord> candidates, List<File> generatedPdfs) {
         try {
             logger.info("Checking for Type 4 and Type 5 certificates to merge...");
 
-            Map<String, CandidateDTO> sidToCandidate = new HashMap<>();
-            for (CandidateDTO candidate : candidates) {
+            Map<String, CandidateRecord> sidToCandidate = new HashMap<>();
+            for (CandidateRecord candidate : candidates) {
                 if (candidate.getSid() != null && !candidate.getSid().trim().isEmpty()) {
                     sidToCandidate.put(candidate.getSid().trim(), candidate);
                 }
@@ -209,7 +453,7 @@ public class CertificateController {
 
             List<File> finalPdfList = new ArrayList<>();
 
-            for (CandidateDTO candidate : candidates) {
+            for (CandidateRecord candidate : candidates) {
                 String sid = candidate.getSid();
                 if (sid == null || sid.trim().isEmpty()) continue;
 
@@ -232,7 +476,7 @@ public class CertificateController {
         }
     }
 
-    private File mergeType4AndType5Certificates(File type4File, File type5File, String sid, CandidateDTO candidate, File outputFolder) {
+    private File mergeType4AndType5Certificates(File type4File, File type5File, String sid, CandidateRecord candidate, File outputFolder) {
         try {
             String safeName = "Unknown";
             if (candidate != null && candidate.getCandidateName() != null) {
@@ -298,7 +542,7 @@ public class CertificateController {
     }
 
 
-    private File findPdfForCandidate(File folder, CandidateDTO candidate) {
+    private File findPdfForCandidate(File folder, CandidateRecord candidate) {
         if (candidate == null || candidate.getSid() == null) {
             return null;
         }
@@ -331,12 +575,12 @@ public class CertificateController {
         return null;
     }
 
-    private byte[] createZipBytesFromCandidates(List<File> pdfFiles, List<CandidateDTO> candidates) throws IOException {
+    private byte[] createZipBytesFromCandidates(List<File> pdfFiles, List<CandidateRecord> candidates) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try (ZipOutputStream zos = new ZipOutputStream(baos)) {
 
-            Map<String, CandidateDTO> sidToCandidate = new HashMap<>();
-            for (CandidateDTO candidate : candidates) {
+            Map<String, CandidateRecord> sidToCandidate = new HashMap<>();
+            for (CandidateRecord candidate : candidates) {
                 if (candidate.getSid() != null) {
                     sidToCandidate.put(candidate.getSid(), candidate);
                 }
@@ -345,7 +589,7 @@ public class CertificateController {
             for (File pdfFile : pdfFiles) {
                 if (pdfFile != null && pdfFile.exists()) {
                     String sid = extractSidFromFilename(pdfFile.getName());
-                    CandidateDTO candidate = sidToCandidate.get(sid);
+                    CandidateRecord candidate = sidToCandidate.get(sid);
 
                     String candidateName = "Certificate";
                     if (candidate != null && candidate.getCandidateName() != null) {
@@ -408,16 +652,80 @@ public class CertificateController {
         }
     }
 
+    /**
+     * Serves the stored PDF of a report. The ETag is the content hash, so a client revalidating an unchanged
+     * certificate gets 304 without a body. On Tomcat the file is handed to sendfile and never copied through the JVM.
+     */
+    @GetMapping("/{reportId}/pdf")
+    public ResponseEntity<?> downloadCertificate(@PathVariable Long reportId,
+                                                 HttpServletRequest request,
+                                                 HttpServletResponse response) {
+        try {
+            Long userId = jwtUtil.resolveClaims(request).getUserId();
+            UserSnapshot user = userProfileCache.find(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Report report = reportService.getReportForDownload(reportId, new UserPrincipal(user));
+            Path pdf = report == null ? null : certificateStore.find(report.getPdfHash());
+            if (pdf == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No stored certificate for this report"));
+            }
+
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+            if (new ServletWebRequest(request, response).checkNotModified("\"" + report.getPdfHash() + "\"")) {
+                return null;
+            }
+            certificateStore.touch(report.getPdfHash());
+            String fileName = (report.getSid() + "_" + report.getCandidateName()).replaceAll("[^a-zA-Z0-9.\\-_]", "_") + ".pdf";
+            response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().filename(fileName).build().toString());
+            sendFile(pdf, request, response);
+            return null;
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error serving certificate for report {}: {}", reportId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private void sendFile(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        response.setContentLengthLong(length);
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", length);
+            return;
+        }
+        try (FileChannel in = FileChannel.open(file);
+             WritableByteChannel out = Channels.newChannel(response.getOutputStream())) {
+            long position = 0;
+            while (position < length) position += in.transferTo(position, length - position, out);
+        }
+    }
+
     @GetMapping("/reports/all")
-    public ResponseEntity<?> getAllReports(@RequestHeader("Authorization") String tokenHeader) {
+    public ResponseEntity<?> getAllReports(HttpServletRequest request,
+                                           @RequestParam(required = false) Integer page,
+                                           @RequestParam(required = false) Integer size,
+                                           @RequestParam(required = false) String sort,
+                                           @RequestParam(required = false) String cursor) {
         try {
-            String token = tokenHeader.startsWith("Bearer ") ? tokenHeader.substring(7) : tokenHeader;
-            Long userId = jwtUtil.extractUserId(token);
-            UserProfile userProfile = profileRepository.findById(userId)
+            Long userId = jwtUtil.resolveClaims(request).getUserId();
+            UserSnapshot user = userProfileCache.find(userId)
                     .orElseThrow(() -> new RuntimeException("User not found"));
-            UserPrincipal currentUser = new UserPrincipal(userProfile);
-            List<Report> reports = reportService.getAllReports(currentUser);
-            return ResponseEntity.ok(reports);
+            UserPrincipal currentUser = new UserPrincipal(user);
+            if (cursor != null) {
+                return ResponseEntity.ok(reportService.getReportsAfter(null, null, cursor,
+                        size != null ? size : 0, currentUser));
+            }
+            if (page != null || size != null) {
+                return ResponseEntity.ok(reportService.getReportPage(null, null, page != null ? page : 0,
+                        size != null ? size : 0, sort, currentUser));
+            }
+            return ResponseEntity.ok(reportService.getAllReportDTOs(currentUser));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching reports: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
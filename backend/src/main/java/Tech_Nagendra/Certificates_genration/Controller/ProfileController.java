@@ -3,8 +3,10 @@ package Tech_Nagendra.Certificates_genration.Controller;
 import Tech_Nagendra.Certificates_genration.Dto.ProfileDto;
 import Tech_Nagendra.Certificates_genration.Dto.ProfileStatsDto;
 import Tech_Nagendra.Certificates_genration.Dto.UpdatePasswordDto;
+import Tech_Nagendra.Certificates_genration.Security.HashingPasswordEncoder.PasswordHashingBusyException;
 import Tech_Nagendra.Certificates_genration.Service.ProfileService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -105,6 +107,10 @@ public class ProfileController {
                     .body("Current password is incorrect");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Password service busy. Please try again.");
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -3,15 +3,21 @@ package Tech_Nagendra.Certificates_genration.Controller;
 import Tech_Nagendra.Certificates_genration.Dto.ReportDTO;
 import Tech_Nagendra.Certificates_genration.Entity.Report;
 import Tech_Nagendra.Certificates_genration.Security.UserPrincipal;
+import Tech_Nagendra.Certificates_genration.Service.DashboardCacheService;
+import Tech_Nagendra.Certificates_genration.Service.ReportExportService;
 import Tech_Nagendra.Certificates_genration.Service.ReportService;
 import Tech_Nagendra.Certificates_genration.Repository.ProfileRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -30,6 +36,12 @@ public class ReportController {
     @Autowired
     private ProfileRepository userProfileRepository;
 
+    @Autowired
+    private DashboardCacheService dashboardCache;
+
+    @Autowired
+    private ReportExportService reportExportService;
+
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
 
     private UserPrincipal getCurrentUser() {
@@ -64,13 +76,18 @@ public class ReportController {
         return dto;
     }
 
+    /**
+     * Without paging parameters the full list is returned, as before. With "cursor" a keyset page
+     * (newest first) is returned, with "page"/"size"/"sort" an offset page.
+     */
     @GetMapping("/all")
-    public ResponseEntity<List<ReportDTO>> getAllReports() {
+    public ResponseEntity<?> getAllReports(@RequestParam(required = false) Integer page,
+                                           @RequestParam(required = false) Integer size,
+                                           @RequestParam(required = false) String sort,
+                                           @RequestParam(required = false) String cursor) {
         UserPrincipal currentUser = getCurrentUser();
         if (currentUser == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        List<Report> reports = reportService.getAllReports(currentUser);
-        List<ReportDTO> dtos = reports.stream().map(this::convertToDTO).collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+        return listReports(null, null, page, size, sort, cursor, currentUser);
     }
 
     @GetMapping("/{id}")
@@ -85,11 +102,15 @@ public class ReportController {
     }
 
     @GetMapping("/filter")
-    public ResponseEntity<List<ReportDTO>> getReportsByFilter(
+    public ResponseEntity<?> getReportsByFilter(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String searchTerm,
             @RequestParam(required = false) String fromDate,
-            @RequestParam(required = false) String toDate) {
+            @RequestParam(required = false) String toDate,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor) {
 
         UserPrincipal currentUser = getCurrentUser();
         if (currentUser == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -103,15 +124,32 @@ public class ReportController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
 
+        try {
+            if (cursor != null) {
+                return ResponseEntity.ok(reportService.getFilteredReportsAfter(from, to, status, searchTerm, cursor,
+                        size != null ? size : 0, currentUser));
+            }
+            if (page != null || size != null) {
+                return ResponseEntity.ok(reportService.getFilteredReportPage(from, to, status, searchTerm,
+                        page != null ? page : 0, size != null ? size : 0, sort, currentUser));
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+        }
+
         List<ReportDTO> reports = reportService.getReportsByMultipleFilters(from, to, status, searchTerm, currentUser);
         if (reports == null) reports = new ArrayList<>();
         return ResponseEntity.ok(reports);
     }
 
     @GetMapping("/date-range")
-    public ResponseEntity<List<ReportDTO>> getReportsByDateRange(
+    public ResponseEntity<?> getReportsByDateRange(
             @RequestParam String startDate,
-            @RequestParam String endDate) {
+            @RequestParam String endDate,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor) {
 
         UserPrincipal currentUser = getCurrentUser();
         if (currentUser == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -125,10 +163,126 @@ public class ReportController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Collections.emptyList());
         }
 
+        if (cursor != null || page != null || size != null) {
+            return listReports(start, end, page, size, sort, cursor, currentUser);
+        }
         List<ReportDTO> reports = reportService.getReportDTOsByDateRange(start, end, currentUser);
         return ResponseEntity.ok(reports);
     }
 
+    private ResponseEntity<?> listReports(Date start, Date end, Integer page, Integer size, String sort,
+                                          String cursor, UserPrincipal currentUser) {
+        try {
+            if (cursor != null) {
+                return ResponseEntity.ok(reportService.getReportsAfter(start, end, cursor,
+                        size != null ? size : 0, currentUser));
+            }
+            if (page != null || size != null) {
+                return ResponseEntity.ok(reportService.getReportPage(start, end, page != null ? page : 0,
+                        size != null ? size : 0, sort, currentUser));
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(reportService.getAllReportDTOs(currentUser));
+    }
+
+    /**
+     * Every report matching the /reports/filter criteria as a CSV or XLSX download, streamed while it is read.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReports(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate,
+            @RequestParam(defaultValue = "csv") String format) {
+
+        UserPrincipal currentUser = getCurrentUser();
+        if (currentUser == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        Date from = null;
+        Date to = null;
+        ReportExportService.Format exportFormat;
+        try {
+            if (fromDate != null && !fromDate.isEmpty()) from = dateFormat.parse(fromDate);
+            if (toDate != null && !toDate.isEmpty()) to = dateFormat.parse(toDate);
+            exportFormat = ReportExportService.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (ParseException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        Specification<Report> spec = reportService.filterSpec(from, to, status, searchTerm, currentUser);
+        String fileName = "reports_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + "." + exportFormat.getExtension();
+        StreamingResponseBody body = out -> {
+            long rows = reportExportService.export(spec, exportFormat, out);
+            log.info("Exported {} reports as {} for user {}", rows, exportFormat, currentUser.getId());
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .body(body);
+    }
+
+    /**
+     * Full-text search (prefix, fuzzy and field-scoped, e.g. "sid:AB12*" or "name:rahul~") over the local index.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchReports(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "0") int size) {
+
+        UserPrincipal currentUser = getCurrentUser();
+        if (currentUser == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        try {
+            Date from = fromDate != null && !fromDate.isEmpty() ? dateFormat.parse(fromDate) : null;
+            Date to = toDate != null && !toDate.isEmpty() ? dateFormat.parse(toDate) : null;
+            return ResponseEntity.ok(reportService.searchReports(q, status, from, to, page, size, currentUser));
+        } catch (ParseException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<?> rebuildSearchIndex() {
+        UserPrincipal currentUser = getCurrentUser();
+        if (currentUser == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        try {
+            boolean started = reportService.rebuildSearchIndex(currentUser);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(Map.of("started", started, "message", started ? "Rebuild started" : "Rebuild already running or index unavailable"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<?> rebuildStatistics() {
+        UserPrincipal currentUser = getCurrentUser();
+        if (currentUser == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        try {
+            boolean rebuilt = reportService.rebuildRollup(currentUser);
+            return ResponseEntity.ok(Map.of("rebuilt", rebuilt, "message", rebuilt ? "Statistics rebuilt" : "Rebuild already running"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/stats/cache")
+    public ResponseEntity<?> getDashboardCacheStats() {
+        UserPrincipal currentUser = getCurrentUser();
+        if (currentUser == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        if (!isAdmin(currentUser)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return ResponseEntity.ok(dashboardCache.stats());
+    }
+
     @GetMapping("/stats/date-range")
     public ResponseEntity<Map<String, Object>> getCertificateStatsByDateRange(
             @RequestParam String startDate,
@@ -1,5 +1,6 @@
 package Tech_Nagendra.Certificates_genration.Controller;
 import Tech_Nagendra.Certificates_genration.Dto.TemplateDto;
+import Tech_Nagendra.Certificates_genration.Security.JwtClaims;
 import Tech_Nagendra.Certificates_genration.Service.ProfileService;
 import Tech_Nagendra.Certificates_genration.Service.TemplateService;
 import Tech_Nagendra.Certificates_genration.Utility.JwtUtil;
@@ -32,13 +33,6 @@ public class TemplateController {
         this.jwtUtil = jwtUtil;
         this.profileService = profileService;
     }
-    private String extractToken(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new IllegalArgumentException("Missing or invalid Authorization header");
-        }
-        return authHeader.substring(7).trim();
-    }
 
     @PostMapping(consumes = {"multipart/form-data"})
     public ResponseEntity<?> uploadTemplate(
@@ -50,12 +44,8 @@ public class TemplateController {
             HttpServletRequest request
     ) {
         try {
-            String token = extractToken(request);
-            String username = jwtUtil.extractUsername(token);
-            jwtUtil.validateToken(token, username);
-
-            Long uploaderId = jwtUtil.extractUserId(token);
-            String uploaderRole = jwtUtil.extractRole(token);
+            JwtClaims claims = jwtUtil.resolveClaims(request);
+            Long uploaderId = claims.getUserId();
 
             if (uploaderId == null) {
                 return ResponseEntity.status(401).body("Invalid token: user not found");
@@ -75,16 +65,23 @@ public class TemplateController {
         }
     }
 
+    /** All templates as a list, or one page of them when page or size is given. */
     @GetMapping
-    public ResponseEntity<?> getAllTemplates(HttpServletRequest request) {
+    public ResponseEntity<?> getAllTemplates(@RequestParam(required = false) Integer page,
+                                             @RequestParam(required = false) Integer size,
+                                             HttpServletRequest request) {
         try {
-            String token = extractToken(request);
-            Long userId = jwtUtil.extractUserId(token);
-            String role = jwtUtil.extractRole(token);
+            JwtClaims claims = jwtUtil.resolveClaims(request);
+            Long userId = claims.getUserId();
+            String role = claims.getRole();
 
             if (userId == null)
                 return ResponseEntity.status(401).body("Invalid token");
 
+            if (page != null || size != null)
+                return ResponseEntity.ok(templateService.getTemplatePage(userId, role,
+                        page != null ? page : 0, size != null ? size : 0));
+
             List<TemplateDto> templates = templateService.getAllTemplates(userId, role);
             if (templates.isEmpty())
                 return ResponseEntity.noContent().build();
@@ -102,9 +99,9 @@ public class TemplateController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getTemplateById(@PathVariable Long id, HttpServletRequest request) {
         try {
-            String token = extractToken(request);
-            Long userId = jwtUtil.extractUserId(token);
-            String role = jwtUtil.extractRole(token);
+            JwtClaims claims = jwtUtil.resolveClaims(request);
+            Long userId = claims.getUserId();
+            String role = claims.getRole();
 
             if (userId == null)
                 return ResponseEntity.status(401).body("Invalid token: user not found");
@@ -128,9 +125,9 @@ public class TemplateController {
     @GetMapping("/{templateId}/images")
     public ResponseEntity<?> getTemplateImages(@PathVariable Long templateId, HttpServletRequest request) {
         try {
-            String token = extractToken(request);
-            Long userId = jwtUtil.extractUserId(token);
-            String role = jwtUtil.extractRole(token);
+            JwtClaims claims = jwtUtil.resolveClaims(request);
+            Long userId = claims.getUserId();
+            String role = claims.getRole();
 
             if (userId == null)
                 return ResponseEntity.status(401).body("Invalid token");
@@ -169,9 +166,9 @@ public class TemplateController {
     @GetMapping("/count")
     public ResponseEntity<?> getTotalTemplates(HttpServletRequest request) {
         try {
-            String token = extractToken(request);
-            Long userId = jwtUtil.extractUserId(token);
-            String role = jwtUtil.extractRole(token);
+            JwtClaims claims = jwtUtil.resolveClaims(request);
+            Long userId = claims.getUserId();
+            String role = claims.getRole();
 
             if (userId == null)
                 return ResponseEntity.status(401).body("Invalid token: user not found");
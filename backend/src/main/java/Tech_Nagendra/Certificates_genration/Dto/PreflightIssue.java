@@ -0,0 +1,20 @@
+package Tech_Nagendra.Certificates_genration.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PreflightIssue {
+
+    public static final String ERROR = "ERROR";
+    public static final String WARNING = "WARNING";
+
+    private Integer row;      // 1-based row/line in the upload, null for file-level issues
+    private String sid;
+    private String code;
+    private String severity;
+    private String message;
+}
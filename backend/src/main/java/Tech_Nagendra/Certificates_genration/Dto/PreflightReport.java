@@ -0,0 +1,46 @@
+package Tech_Nagendra.Certificates_genration.Dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class PreflightReport {
+
+    /** Only the first issues are kept; the counters always cover the whole file. */
+    public static final int MAX_ISSUES = 1000;
+
+    private Long templateId;
+    private String templateName;
+    private String format;
+    private int rowsScanned;
+    private int validRows;
+    private int uniqueSids;
+    private int photosIndexed;
+    private int errorCount;
+    private int warningCount;
+    private boolean truncated;
+    private long durationMs;
+    private List<PreflightIssue> issues = new ArrayList<>();
+
+    public void error(Integer row, String sid, String code, String message) {
+        errorCount++;
+        add(new PreflightIssue(row, sid, code, PreflightIssue.ERROR, message));
+    }
+
+    public void warning(Integer row, String sid, String code, String message) {
+        warningCount++;
+        add(new PreflightIssue(row, sid, code, PreflightIssue.WARNING, message));
+    }
+
+    private void add(PreflightIssue issue) {
+        if (issues.size() < MAX_ISSUES) issues.add(issue);
+        else truncated = true;
+    }
+
+    /** Generation must not start when this is true. */
+    public boolean isBlocking() {
+        return errorCount > 0;
+    }
+}
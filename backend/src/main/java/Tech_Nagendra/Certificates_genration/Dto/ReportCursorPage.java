@@ -0,0 +1,17 @@
+package Tech_Nagendra.Certificates_genration.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** One keyset page of reports, newest first. Pass nextCursor back as "cursor" for the following page. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportCursorPage {
+    private List<ReportDTO> content;
+    private int size;
+    private String nextCursor;
+}
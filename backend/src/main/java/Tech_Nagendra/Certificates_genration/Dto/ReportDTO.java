@@ -1,13 +1,22 @@
 package Tech_Nagendra.Certificates_genration.Dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ReportDTO {
+
+    private static final DateTimeFormatter GENERATED_ON_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
     private Long id;
     private String sid;
     private String courseName;
@@ -22,5 +31,17 @@ public class ReportDTO {
     private Long templateId;
     private String status;
     private String generatedOn;
-}
 
+    /** Unformatted generatedOn, kept for keyset cursors. */
+    @JsonIgnore
+    private Date generatedAt;
+
+    /** Used by the JPQL constructor expressions in ReportRepository. */
+    public ReportDTO(Long id, String sid, String courseName, String grade, String templateName, String jobrole,
+                     String level, String batchId, String trainingPartner, Long generatedById, Long userProfileId,
+                     Long templateId, String status, Date generatedOn) {
+        this(id, sid, courseName, grade, templateName, jobrole, level, batchId, trainingPartner,
+                generatedById, userProfileId, templateId, status,
+                generatedOn != null ? GENERATED_ON_FORMAT.format(generatedOn.toInstant()) : null, generatedOn);
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -19,4 +20,10 @@ public class TemplateDto {
     private LocalDateTime createdAt;
     private LocalDateTime modifiedAt;
     private List<String> imagePaths;
+
+    /** Used by the JPQL constructor expressions in TemplateRepository; image paths are filled in afterwards. */
+    public TemplateDto(Long id, String templateName, Integer imageType, String jrxmlPath, String templateFolder,
+                       LocalDateTime createdAt, LocalDateTime modifiedAt) {
+        this(id, templateName, imageType, jrxmlPath, templateFolder, createdAt, modifiedAt, new ArrayList<>());
+    }
 }
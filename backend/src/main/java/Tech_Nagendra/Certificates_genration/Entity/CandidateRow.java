@@ -3,19 +3,31 @@ package Tech_Nagendra.Certificates_genration.Entity;
 import jakarta.persistence.*;
 import lombok.Data;
 
+/**
+ * Schema of the candidate store. Rows are written and read in bulk through
+ * {@link Tech_Nagendra.Certificates_genration.Repository.CandidateStore} with plain JDBC; this entity only declares
+ * the table. The template is kept as a bare id; every value column keeps the VARCHAR(255) of the former
+ * candidate table, so any cell the old upload accepted still fits.
+ */
 @Entity
 @Data
-@Table(name = "candidates")
-public class CandidateDTO {
+@Table(name = "candidate_rows",
+        indexes = @Index(name = "idx_candidate_rows_template_sid", columnList = "template_id, sid"))
+public class CandidateRow {
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @Column(name = "template_id", nullable = false)
+    private Long templateId;
+
     private String salutation;
     private String candidateName;
     private String sid;
     private String jobRole;
     private String guardianType;
-    private String fatherORHusbandName;
+    private String fatherOrHusbandName;
     private String sectorSkillCouncil;
     private String dateOfIssuance;
     private String level;
@@ -24,6 +36,7 @@ public class CandidateDTO {
     private String grade;
     private String dateOfStart;
     private String dateOfEnd;
+
     private String marks;
     private String marks1;
     private String marks2;
@@ -35,13 +48,11 @@ public class CandidateDTO {
     private String marks8;
     private String marks9;
     private String marks10;
+
     private String batchId;
     private String state;
-    private String  courseName;
+    private String courseName;
     private String duration;
     private String district;
     private String place;
-    @ManyToOne
-    @JoinColumn(name="template_id")
-    private Template template;
 }
@@ -0,0 +1,34 @@
+package Tech_Nagendra.Certificates_genration.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored certificate PDF, keyed by the SHA-256 of its bytes. Reports point at it through
+ * {@link Report#getPdfHash()}; {@code refCount} is the number of such reports and is corrected nightly.
+ * The file itself lives in the sharded certificate store directory.
+ */
+@Entity
+@Data
+@Table(name = "certificate_blobs",
+        indexes = @Index(name = "idx_certificate_blobs_accessed", columnList = "last_accessed_at"))
+public class CertificateBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private Long refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_accessed_at", nullable = false)
+    private LocalDateTime lastAccessedAt;
+}
@@ -0,0 +1,54 @@
+package Tech_Nagendra.Certificates_genration.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A range of rows of a generation job waiting for, or held by, a worker node (app.generation.mode=distributed).
+ * A node claims it with {@code SELECT ... FOR UPDATE SKIP LOCKED} and keeps its lease alive with heartbeats; a
+ * chunk whose lease has run out is claimed again by any node. Accessed through
+ * {@link Tech_Nagendra.Certificates_genration.Repository.GenerationChunkStore}; this entity only declares the table.
+ */
+@Entity
+@Data
+@Table(name = "generation_chunks", indexes = {
+        @Index(name = "idx_generation_chunks_claim", columnList = "status, lease_until"),
+        @Index(name = "idx_generation_chunks_job", columnList = "job_id, status")
+})
+public class GenerationChunk {
+
+    public static final String PENDING = "PENDING";
+    public static final String CLAIMED = "CLAIMED";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "start_row", nullable = false)
+    private Integer startRow;
+
+    @Column(name = "end_row", nullable = false)
+    private Integer endRow;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Column(length = 128)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(length = 1000)
+    private String error;
+}
@@ -0,0 +1,70 @@
+package Tech_Nagendra.Certificates_genration.Entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A background certificate run. Its uploads and output live in {@code jobDir}; {@code committedRows} is the
+ * checkpoint a restarted run resumes from, and the files produced so far are listed in generation_job_files.
+ */
+@Entity
+@Data
+@Table(name = "generation_jobs", indexes = {
+        @Index(name = "idx_generation_jobs_status", columnList = "status"),
+        @Index(name = "idx_generation_jobs_user", columnList = "user_id, id")
+})
+public class GenerationJob {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "template_id", nullable = false)
+    private Long templateId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @JsonIgnore
+    @Column(name = "job_dir", nullable = false)
+    private String jobDir;
+
+    @JsonIgnore
+    @Column(name = "input_file", nullable = false)
+    private String inputFile;
+
+    @Column(name = "total_rows")
+    private Integer totalRows;
+
+    @Column(name = "committed_rows", nullable = false)
+    private Integer committedRows = 0;
+
+    @Column(name = "files_count", nullable = false)
+    private Integer filesCount = 0;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(length = 1000)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
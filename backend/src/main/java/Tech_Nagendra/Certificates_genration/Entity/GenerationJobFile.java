@@ -0,0 +1,33 @@
+package Tech_Nagendra.Certificates_genration.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * One manifest line of a generation job: the file produced for a SID. A SID repeated later in the upload adds a
+ * line with a higher row index; the latest one wins. Written in batches through
+ * {@link Tech_Nagendra.Certificates_genration.Repository.GenerationJobFileStore}; this entity only declares the table.
+ */
+@Entity
+@Data
+@Table(name = "generation_job_files",
+        indexes = @Index(name = "idx_generation_job_files_job", columnList = "job_id, id"))
+public class GenerationJobFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    /** Row count of the checkpoint or chunk that produced the file; orders the lines of concurrent chunks. */
+    @Column(name = "row_index")
+    private Integer rowIndex;
+
+    @Column(nullable = false, length = 100)
+    private String sid;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+}
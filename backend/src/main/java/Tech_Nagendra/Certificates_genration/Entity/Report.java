@@ -15,7 +15,13 @@ import java.util.Date;
 @Entity
 @Data
 @EntityListeners(AuditingEntityListener.class)
-@Table(name = "reports")
+@Table(name = "reports", indexes = {
+        @Index(name = "idx_reports_generated_on_id", columnList = "generated_on, id"),
+        @Index(name = "idx_reports_generated_by_on_id", columnList = "generated_by, generated_on, id"),
+        @Index(name = "idx_reports_sid", columnList = "sid"),
+        @Index(name = "idx_reports_batch_id", columnList = "batch_id"),
+        @Index(name = "idx_reports_pdf_hash", columnList = "pdf_hash")
+})
 public class Report {
 
     @Id
@@ -81,6 +87,14 @@ public class Report {
 
     private Boolean active;
 
+    /** SHA-256 over the rendered fields, photo and template version of the certificate last delivered for this row. */
+    @Column(length = 64)
+    private String fingerprint;
+
+    /** SHA-256 of the delivered PDF in the certificate store; null when none is stored. */
+    @Column(name = "pdf_hash", length = 64)
+    private String pdfHash;
+
     @PrePersist
     protected void onCreate() {
         if (active == null) active = true;
@@ -0,0 +1,39 @@
+package Tech_Nagendra.Certificates_genration.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Number of reports per (day, generating user, template name, status), maintained alongside the reports table so
+ * the dashboard counts read one row per bucket. A missing user is stored as 0, a missing template name or status
+ * as an empty string, so every key is unique.
+ */
+@Entity
+@Data
+@Table(name = "report_daily_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_report_rollup_key",
+                columnNames = {"report_day", "user_id", "template_name", "status"}),
+        indexes = @Index(name = "idx_report_rollup_user_day", columnList = "user_id, report_day"))
+public class ReportDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "report_day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "template_name", nullable = false)
+    private String templateName;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "report_count", nullable = false)
+    private Long reportCount;
+}
@@ -0,0 +1,20 @@
+package Tech_Nagendra.Certificates_genration.Entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Lock rows for report_daily_rollup. Each rollup writer locks one stripe for the rest of its transaction, a rebuild
+ * locks all of them, so no increment can commit between the rebuild reading the reports table and replacing the
+ * buckets. Rows are created on first use; the table only declares the schema.
+ */
+@Entity
+@Data
+@Table(name = "report_rollup_guard")
+public class ReportRollupGuard {
+
+    @Id
+    private Integer stripe;
+}
@@ -22,6 +22,7 @@ public class UserLoginSession {
     @JoinColumn(name = "user_id")
     private UserProfile user;
 
+    // SHA-256 of the JWT (JwtClaims.getTokenHash()), never the raw token
     @Column(nullable = false, unique = true)
     private String jwtToken;
 
@@ -33,6 +34,8 @@ public class UserLoginSession {
 
     private LocalDateTime logoutTime;
 
+    private LocalDateTime expiresAt;
+
     private boolean active = true;
 }
 
@@ -0,0 +1,165 @@
+package Tech_Nagendra.Certificates_genration.Ingest;
+
+import java.util.*;
+
+/**
+ * Column-to-field table compiled once from the header row of an upload.
+ * Entry i writes the value found in source column {@link #column(int)} into record slot {@link #slot(int)}; a column of -1
+ * means the template uses the field but the upload has no such column, so the field is set to "".
+ * Columns that neither the template nor the report need are not part of the table and are never decoded.
+ */
+public final class CandidateColumnMapping {
+
+    /** Fields copied onto every Report, so they are decoded even when the template does not print them. */
+    public static final Set<String> REQUIRED_FIELDS = Set.of("sid", "candidateName", "jobRole", "level", "grade", "batchId");
+
+    private static final Map<String, String> ALIASES = new HashMap<>();
+
+    /** Column order of the original fixed-layout sheet; used when the header row is not recognisable. */
+    private static final String[] LEGACY_LAYOUT = {
+            "salutation", "candidateName", "sid", "jobRole", "guardianType", "fatherORHusbandName",
+            "sectorSkillCouncil", "dateOfIssuance", "level", "aadhaarNumber", "sector", "grade",
+            "dateOfStart", "dateOfEnd", "marks", "marks1", "marks2", "marks3", "marks4", "marks5",
+            "marks6", "marks7", "marks8", "marks9", "marks10", "batchId", "state", "district", "place"
+    };
+
+    static {
+        for (String field : CandidateRecord.FIELDS) ALIASES.put(normalize(field), field);
+        alias("candidateName", "name", "studentname", "traineename");
+        alias("sid", "studentid", "candidateid", "enrollmentno", "enrolmentno");
+        alias("fatherORHusbandName", "fatherhusbandname", "fathername", "husbandname", "guardianname");
+        alias("sectorSkillCouncil", "ssc");
+        alias("dateOfIssuance", "issuedate", "dateofissue", "issuancedate");
+        alias("aadhaarNumber", "aadhaar", "aadhar", "aadharnumber", "aadhaarno", "aadharno");
+        alias("dateOfStart", "startdate");
+        alias("dateOfEnd", "enddate");
+        alias("batchId", "batch", "batchno");
+        alias("courseName", "course");
+    }
+
+    private final int[] columns;
+    private final int[] slots;
+    private final String[] fields;
+    private final boolean headerDriven;
+    private final Set<String> unknownTemplateFields;
+    private final Set<String> missingTemplateFields;
+
+    private CandidateColumnMapping(int[] columns, int[] slots, String[] fields,
+                                   boolean headerDriven, Set<String> unknownTemplateFields, Set<String> missingTemplateFields) {
+        this.columns = columns;
+        this.slots = slots;
+        this.fields = fields;
+        this.headerDriven = headerDriven;
+        this.unknownTemplateFields = unknownTemplateFields;
+        this.missingTemplateFields = missingTemplateFields;
+    }
+
+    /**
+     * @param headers        header cells in column order (null entries allowed)
+     * @param templateFields field names declared by the template's JRXML, or null when they could not be read
+     */
+    public static CandidateColumnMapping compile(List<String> headers, Set<String> templateFields) {
+        Map<String, Integer> fieldToColumn = new LinkedHashMap<>();
+        if (headers != null) {
+            for (int col = 0; col < headers.size(); col++) {
+                String field = resolveHeader(headers.get(col));
+                if (field != null) fieldToColumn.putIfAbsent(field, col);
+            }
+        }
+
+        boolean headerDriven = fieldToColumn.containsKey("sid") && fieldToColumn.containsKey("candidateName");
+        if (!headerDriven) {
+            fieldToColumn.clear();
+            for (int col = 0; col < LEGACY_LAYOUT.length; col++) fieldToColumn.put(LEGACY_LAYOUT[col], col);
+        }
+
+        Set<String> wanted = new LinkedHashSet<>(REQUIRED_FIELDS);
+        Set<String> unknown = new LinkedHashSet<>();
+        Set<String> missing = new LinkedHashSet<>();
+        if (templateFields == null) {
+            wanted.addAll(fieldToColumn.keySet());
+        } else {
+            for (String field : templateFields) {
+                if (field == null || "template".equals(field)) continue;
+                if (!CandidateRecord.isField(field)) {
+                    unknown.add(field);
+                    continue;
+                }
+                wanted.add(field);
+                if (!fieldToColumn.containsKey(field)) missing.add(field);
+            }
+        }
+
+        int[] columns = new int[wanted.size()];
+        int[] slots = new int[wanted.size()];
+        String[] fields = new String[wanted.size()];
+        int i = 0;
+        for (String field : wanted) {
+            columns[i] = fieldToColumn.getOrDefault(field, -1);
+            slots[i] = CandidateRecord.indexOf(field);
+            fields[i++] = field;
+        }
+        return new CandidateColumnMapping(columns, slots, fields, headerDriven,
+                Collections.unmodifiableSet(unknown), Collections.unmodifiableSet(missing));
+    }
+
+    /** Canonical candidate attribute for a header cell, or null when the header is not recognised. */
+    public static String resolveHeader(String header) {
+        if (header == null) return null;
+        return ALIASES.get(normalize(header));
+    }
+
+    /** Every candidate attribute a column can be mapped to, in {@link CandidateRecord#FIELDS} order. */
+    public static List<String> candidateFields() {
+        return CandidateRecord.FIELDS;
+    }
+
+    public static boolean isCandidateField(String field) {
+        return CandidateRecord.isField(field);
+    }
+
+    public int size() {
+        return columns.length;
+    }
+
+    public int column(int index) {
+        return columns[index];
+    }
+
+    public String field(int index) {
+        return fields[index];
+    }
+
+    /** Position in {@link CandidateRecord#FIELDS} that entry {@code index} fills. */
+    public int slot(int index) {
+        return slots[index];
+    }
+
+    /** True when columns were matched by header name, false when the legacy fixed layout was assumed. */
+    public boolean isHeaderDriven() {
+        return headerDriven;
+    }
+
+    /** Template fields that no candidate attribute can supply; filling the report would fail on them. */
+    public Set<String> getUnknownTemplateFields() {
+        return unknownTemplateFields;
+    }
+
+    /** Template fields that are candidate attributes but the upload has no column for. */
+    public Set<String> getMissingTemplateFields() {
+        return missingTemplateFields;
+    }
+
+    private static void alias(String field, String... names) {
+        for (String name : names) ALIASES.put(name, field);
+    }
+
+    private static String normalize(String header) {
+        StringBuilder sb = new StringBuilder(header.length());
+        for (int i = 0; i < header.length(); i++) {
+            char ch = header.charAt(i);
+            if (Character.isLetterOrDigit(ch)) sb.append(Character.toLowerCase(ch));
+        }
+        return sb.toString();
+    }
+}
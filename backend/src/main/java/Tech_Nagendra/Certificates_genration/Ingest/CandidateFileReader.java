@@ -0,0 +1,181 @@
+package Tech_Nagendra.Certificates_genration.Ingest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.poi.ss.usermodel.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Reads candidate rows from an uploaded file: Excel (.xls/.xlsx), CSV (.csv, .tsv, .txt) or newline-delimited JSON
+ * (.ndjson, .jsonl, .json). A .txt upload is read as delimited text, which covers Excel's "Text (Tab delimited)"
+ * export; the delimiter (comma, semicolon or tab) is taken from the header line whatever the extension. For Excel and CSV the first row is the header; it is compiled into a
+ * {@link CandidateColumnMapping} once and every data row is decoded through that table. NDJSON records are
+ * matched by key name. CSV and NDJSON are streamed and never held in memory as a whole.
+ */
+public final class CandidateFileReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private CandidateFileReader() {
+    }
+
+    public enum Format { EXCEL, CSV, NDJSON }
+
+    /** Format by file extension; .txt counts as CSV and anything unrecognised as Excel. */
+    public static Format formatOf(String fileName) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv") || name.endsWith(".tsv") || name.endsWith(".txt")) return Format.CSV;
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")) return Format.NDJSON;
+        return Format.EXCEL;
+    }
+
+    /**
+     * Decodes every non-empty data row and hands it to {@code handler} together with its 1-based sheet row number.
+     * Rows are passed on unvalidated; callers decide what to do with blank SIDs or names.
+     *
+     * @return the mapping that was compiled from the header row
+     */
+    public static CandidateColumnMapping read(File file, Set<String> templateFields,
+                                              ObjIntConsumer<CandidateRecord> handler) throws Exception {
+        return read(file, templateFields, handler, () -> false);
+    }
+
+    /** Same as above, but stops reading as soon as {@code done} returns true after a row. */
+    public static CandidateColumnMapping read(File file, Set<String> templateFields,
+                                              ObjIntConsumer<CandidateRecord> handler, BooleanSupplier done) throws Exception {
+        if (file == null || !file.exists()) throw new FileNotFoundException("Candidate file missing");
+        switch (formatOf(file.getName())) {
+            case CSV:
+                return readCsv(file, templateFields, handler, done);
+            case NDJSON:
+                return readNdjson(file, templateFields, handler, done);
+            default:
+                return readExcel(file, templateFields, handler, done);
+        }
+    }
+
+    private static CandidateColumnMapping readExcel(File file, Set<String> templateFields,
+                                                    ObjIntConsumer<CandidateRecord> handler, BooleanSupplier done) throws Exception {
+        try (FileInputStream fis = new FileInputStream(file); Workbook workbook = WorkbookFactory.create(fis)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            if (sheet == null) throw new Exception("No sheet");
+            ExcelCellDecoder decoder = new ExcelCellDecoder(workbook);
+            CandidateColumnMapping mapping = CandidateColumnMapping.compile(readHeader(sheet.getRow(0), decoder), templateFields);
+
+            int size = mapping.size();
+            for (int i = 1; i <= sheet.getLastRowNum() && !done.getAsBoolean(); i++) {
+                Row row = sheet.getRow(i);
+                if (row == null || decoder.isRowEmpty(row)) continue;
+                String[] record = new String[CandidateRecord.FIELD_COUNT];
+                for (int f = 0; f < size; f++) {
+                    int col = mapping.column(f);
+                    record[mapping.slot(f)] = col < 0 ? "" : decoder.decode(row.getCell(col));
+                }
+                handler.accept(new CandidateRecord(record), i + 1);
+            }
+            return mapping;
+        }
+    }
+
+    private static CandidateColumnMapping readCsv(File file, Set<String> templateFields,
+                                                  ObjIntConsumer<CandidateRecord> handler, BooleanSupplier done) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            // the header line is read once, for the delimiter and the column names, so it may be of any length;
+            // a header cell cannot contain a line break
+            String headerLine = reader.readLine();
+            if (headerLine == null) throw new IOException("CSV file is empty");
+            char delimiter = CsvRecordReader.detectDelimiter(headerLine);
+            List<String> fields = new ArrayList<>(32);
+            new CsvRecordReader(new StringReader(headerLine), delimiter).next(fields);
+
+            CsvRecordReader csv = new CsvRecordReader(reader, delimiter);
+            CandidateColumnMapping mapping = CandidateColumnMapping.compile(new ArrayList<>(fields), templateFields);
+
+            int size = mapping.size();
+            int rowNumber = 1;
+            while (!done.getAsBoolean() && csv.next(fields)) {
+                rowNumber++;
+                if (isBlank(fields)) continue;
+                String[] record = new String[CandidateRecord.FIELD_COUNT];
+                for (int f = 0; f < size; f++) {
+                    int col = mapping.column(f);
+                    record[mapping.slot(f)] = col < 0 || col >= fields.size() ? "" : fields.get(col);
+                }
+                handler.accept(new CandidateRecord(record), rowNumber);
+            }
+            return mapping;
+        }
+    }
+
+    /**
+     * Each top-level JSON object is one candidate; a single top-level array of objects is accepted as well.
+     * Keys are resolved like CSV headers; nested values are ignored.
+     * The row number passed to the handler is the line the object starts on.
+     */
+    private static CandidateColumnMapping readNdjson(File file, Set<String> templateFields,
+                                                     ObjIntConsumer<CandidateRecord> handler, BooleanSupplier done) throws IOException {
+        List<String> columns = CandidateColumnMapping.candidateFields();
+        CandidateColumnMapping mapping = CandidateColumnMapping.compile(columns, templateFields);
+        Map<String, Integer> keyToColumn = new HashMap<>();
+        String[] values = new String[columns.size()];
+
+        int size = mapping.size();
+        try (JsonParser parser = JSON_FACTORY.createParser(file)) {
+            JsonToken token;
+            while (!done.getAsBoolean() && (token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_ARRAY || token == JsonToken.END_ARRAY) continue;
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                int rowNumber = parser.getTokenLocation().getLineNr();
+                Arrays.fill(values, "");
+                boolean empty = true;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String key = parser.getCurrentName();
+                    Integer col = keyToColumn.computeIfAbsent(key, k -> {
+                        String field = CandidateColumnMapping.resolveHeader(k);
+                        return field == null ? -1 : columns.indexOf(field);
+                    });
+                    JsonToken value = parser.nextToken();
+                    if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                        parser.skipChildren();
+                    } else if (col >= 0 && value != JsonToken.VALUE_NULL) {
+                        String text = parser.getText().trim();
+                        values[col] = text;
+                        if (!text.isEmpty()) empty = false;
+                    }
+                }
+                if (empty) continue;
+                String[] record = new String[CandidateRecord.FIELD_COUNT];
+                for (int f = 0; f < size; f++) {
+                    int col = mapping.column(f);
+                    record[mapping.slot(f)] = col < 0 ? "" : values[col];
+                }
+                handler.accept(new CandidateRecord(record), rowNumber);
+            }
+        }
+        return mapping;
+    }
+
+    private static boolean isBlank(List<String> fields) {
+        for (String field : fields) {
+            if (!field.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    private static List<String> readHeader(Row header, ExcelCellDecoder decoder) {
+        List<String> headers = new ArrayList<>();
+        if (header == null) return headers;
+        for (int c = 0; c < header.getLastCellNum(); c++) headers.add(decoder.decode(header.getCell(c)));
+        return headers;
+    }
+}
@@ -0,0 +1,105 @@
+package Tech_Nagendra.Certificates_genration.Ingest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One candidate row of an upload, held as a single array of values in {@link #FIELDS} order.
+ * Immutable; fields the upload did not supply are null. The render path fills reports from it by field name and
+ * the candidate store writes it in bulk, so no entity is created per row.
+ */
+public final class CandidateRecord {
+
+    /** Every candidate attribute a column can be mapped to; marks and marks1..marks10 are contiguous. */
+    public static final List<String> FIELDS = List.of(
+            "salutation", "candidateName", "sid", "jobRole", "guardianType", "fatherORHusbandName",
+            "sectorSkillCouncil", "dateOfIssuance", "level", "aadhaarNumber", "sector", "grade",
+            "dateOfStart", "dateOfEnd", "marks", "marks1", "marks2", "marks3", "marks4", "marks5",
+            "marks6", "marks7", "marks8", "marks9", "marks10", "batchId", "state", "courseName",
+            "duration", "district", "place");
+
+    public static final int FIELD_COUNT = FIELDS.size();
+
+    /** Number of marks values: marks plus marks1..marks10. */
+    public static final int MARKS_COUNT = 11;
+
+    private static final Map<String, Integer> INDEX = new HashMap<>();
+
+    static {
+        for (int i = 0; i < FIELD_COUNT; i++) INDEX.put(FIELDS.get(i), i);
+    }
+
+    private static final int SID = indexOf("sid");
+    private static final int CANDIDATE_NAME = indexOf("candidateName");
+    private static final int JOB_ROLE = indexOf("jobRole");
+    private static final int LEVEL = indexOf("level");
+    private static final int GRADE = indexOf("grade");
+    private static final int BATCH_ID = indexOf("batchId");
+    private static final int MARKS = indexOf("marks");
+
+    private final String[] values;
+
+    /** Takes ownership of {@code values}; the reader hands over a fresh array per row. */
+    CandidateRecord(String[] values) {
+        this.values = values;
+    }
+
+    /** Copies {@code values}, which must be in {@link #FIELDS} order. */
+    public static CandidateRecord of(String[] values) {
+        if (values.length != FIELD_COUNT) {
+            throw new IllegalArgumentException("Expected " + FIELD_COUNT + " values, got " + values.length);
+        }
+        return new CandidateRecord(values.clone());
+    }
+
+    /** Position of {@code field} in {@link #FIELDS}, or -1 when it is not a candidate attribute. */
+    public static int indexOf(String field) {
+        Integer index = field == null ? null : INDEX.get(field);
+        return index == null ? -1 : index;
+    }
+
+    public static boolean isField(String field) {
+        return INDEX.containsKey(field);
+    }
+
+    public String get(int index) {
+        return values[index];
+    }
+
+    /** Value of a candidate attribute by name; null for unknown names. */
+    public String get(String field) {
+        int index = indexOf(field);
+        return index < 0 ? null : values[index];
+    }
+
+    public String getSid() {
+        return values[SID];
+    }
+
+    public String getCandidateName() {
+        return values[CANDIDATE_NAME];
+    }
+
+    public String getJobRole() {
+        return values[JOB_ROLE];
+    }
+
+    public String getLevel() {
+        return values[LEVEL];
+    }
+
+    public String getGrade() {
+        return values[GRADE];
+    }
+
+    public String getBatchId() {
+        return values[BATCH_ID];
+    }
+
+    /** {@code n} = 0 is the "marks" column, 1..10 are marks1..marks10. */
+    public String getMarks(int n) {
+        if (n < 0 || n >= MARKS_COUNT) throw new IndexOutOfBoundsException("marks" + n);
+        return values[MARKS + n];
+    }
+}
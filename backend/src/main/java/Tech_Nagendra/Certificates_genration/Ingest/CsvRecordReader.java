@@ -0,0 +1,127 @@
+package Tech_Nagendra.Certificates_genration.Ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 record reader: quoted fields, doubled quotes, embedded delimiters and line breaks,
+ * and LF / CRLF / CR record endings. Reads through its own char buffer and reuses one StringBuilder,
+ * so the only per-field allocation is the resulting String.
+ */
+final class CsvRecordReader implements Closeable {
+
+    private static final int EOF = -1;
+
+    private final Reader in;
+    private final char delimiter;
+    private final char[] buf = new char[8192];
+    private final StringBuilder field = new StringBuilder(64);
+    private int pos;
+    private int len;
+    private int pushback = Integer.MIN_VALUE;
+    private boolean started;
+
+    CsvRecordReader(Reader in, char delimiter) {
+        this.in = in;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Reads the next record into {@code fields} (cleared first). Field values are trimmed.
+     *
+     * @return false once the input is exhausted
+     */
+    boolean next(List<String> fields) throws IOException {
+        fields.clear();
+        int ch = read();
+        if (!started) {
+            started = true;
+            if (ch == '\uFEFF') ch = read();
+        }
+        if (ch == EOF) return false;
+
+        field.setLength(0);
+        boolean inQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (ch == EOF) break;
+                if (ch == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        ch = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) ch);
+                }
+            } else if (ch == EOF || ch == '\n') {
+                break;
+            } else if (ch == '\r') {
+                int next = read();
+                if (next != '\n' && next != EOF) pushback = next;
+                break;
+            } else if (ch == delimiter) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else if (ch == '"' && isBlank(field)) {
+                field.setLength(0);
+                inQuotes = true;
+            } else {
+                field.append((char) ch);
+            }
+            ch = read();
+        }
+        fields.add(field.toString().trim());
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (pushback != Integer.MIN_VALUE) {
+            int ch = pushback;
+            pushback = Integer.MIN_VALUE;
+            return ch;
+        }
+        if (pos == len) {
+            len = in.read(buf, 0, buf.length);
+            pos = 0;
+            if (len <= 0) {
+                len = 0;
+                return EOF;
+            }
+        }
+        return buf[pos++];
+    }
+
+    private static boolean isBlank(StringBuilder sb) {
+        for (int i = 0; i < sb.length(); i++) {
+            if (!Character.isWhitespace(sb.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /** Picks ',', ';' or tab, whichever occurs most often in the given header line. */
+    static char detectDelimiter(String headerLine) {
+        int commas = 0, semicolons = 0, tabs = 0;
+        if (headerLine != null) {
+            for (int i = 0; i < headerLine.length(); i++) {
+                char ch = headerLine.charAt(i);
+                if (ch == ',') commas++;
+                else if (ch == ';') semicolons++;
+                else if (ch == '\t') tabs++;
+            }
+        }
+        if (tabs > commas && tabs >= semicolons) return '\t';
+        if (semicolons > commas) return ';';
+        return ',';
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
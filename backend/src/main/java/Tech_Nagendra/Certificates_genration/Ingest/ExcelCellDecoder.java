@@ -0,0 +1,85 @@
+package Tech_Nagendra.Certificates_genration.Ingest;
+
+import org.apache.poi.ss.usermodel.*;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Decodes spreadsheet cells to trimmed strings.
+ * One instance per workbook: the formula evaluator, data formatter and date format are reused for every cell.
+ */
+public class ExcelCellDecoder {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final FormulaEvaluator evaluator;
+    private final DataFormatter dataFormatter = new DataFormatter();
+
+    public ExcelCellDecoder(Workbook workbook) {
+        this.evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+    }
+
+    public String decode(Cell cell) {
+        if (cell == null) return "";
+        try {
+            switch (cell.getCellType()) {
+                case STRING:
+                    return cell.getStringCellValue().trim();
+                case NUMERIC:
+                    if (DateUtil.isCellDateFormatted(cell)) {
+                        return DATE_FORMAT.format(cell.getLocalDateTimeCellValue());
+                    }
+                    return formatNumber(cell.getNumericCellValue());
+                case BOOLEAN:
+                    return String.valueOf(cell.getBooleanCellValue());
+                case FORMULA:
+                    return decodeFormula(cell);
+                case BLANK:
+                    return "";
+                default:
+                    return dataFormatter.formatCellValue(cell).trim();
+            }
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private String decodeFormula(Cell cell) {
+        try {
+            CellValue cv = evaluator.evaluate(cell);
+            switch (cv.getCellType()) {
+                case STRING:
+                    return cv.getStringValue().trim();
+                case NUMERIC:
+                    if (DateUtil.isCellDateFormatted(cell)) {
+                        return DATE_FORMAT.format(cell.getLocalDateTimeCellValue());
+                    }
+                    return formatNumber(cv.getNumberValue());
+                case BOOLEAN:
+                    return String.valueOf(cv.getBooleanValue());
+                default:
+                    return "";
+            }
+        } catch (Exception e) {
+            return dataFormatter.formatCellValue(cell).trim();
+        }
+    }
+
+    public boolean isRowEmpty(Row row) {
+        if (row == null) return true;
+        for (Cell cell : row) {
+            if (cell == null || cell.getCellType() == CellType.BLANK) continue;
+            if (cell.getCellType() == CellType.STRING) {
+                if (!cell.getStringCellValue().isBlank()) return false;
+            } else if (!dataFormatter.formatCellValue(cell).isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String formatNumber(double val) {
+        if (val == Math.floor(val) && !Double.isInfinite(val)) return String.valueOf((long) val);
+        return String.valueOf(val);
+    }
+}
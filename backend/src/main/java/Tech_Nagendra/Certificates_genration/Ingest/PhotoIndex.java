@@ -0,0 +1,88 @@
+package Tech_Nagendra.Certificates_genration.Ingest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Candidate photos keyed by lower-case file stem, built once per batch.
+ * A SID resolves to the photo whose stem equals it; failing that, to the first photo whose name contains it
+ * (the matching rule the generator has always used).
+ */
+public final class PhotoIndex {
+
+    private final File directory;
+    private final Map<String, String> byStem = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    private PhotoIndex(File directory) {
+        this.directory = directory;
+    }
+
+    /** Indexes the image entries of an uploaded zip from its central directory, without extracting anything. */
+    public static PhotoIndex ofZip(File zipFile) throws IOException {
+        PhotoIndex index = new PhotoIndex(null);
+        if (zipFile == null || !zipFile.exists()) return index;
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory()) index.add(new File(entry.getName()).getName());
+            }
+        }
+        return index;
+    }
+
+    public static PhotoIndex ofDirectory(File directory) {
+        PhotoIndex index = new PhotoIndex(directory);
+        if (directory == null) return index;
+        File[] files = directory.listFiles();
+        if (files == null) return index;
+        for (File f : files) {
+            if (f.isFile()) index.add(f.getName());
+        }
+        return index;
+    }
+
+    private void add(String name) {
+        if (!isImageFile(name)) return;
+        String lower = name.toLowerCase(Locale.ROOT);
+        int dot = lower.lastIndexOf('.');
+        byStem.putIfAbsent(dot > 0 ? lower.substring(0, dot) : lower, name);
+        names.add(name);
+    }
+
+    /** File name of the photo for this SID, or null. */
+    public String find(String sid) {
+        if (sid == null || sid.trim().isEmpty()) return null;
+        String key = sid.trim().toLowerCase(Locale.ROOT);
+        String exact = byStem.get(key);
+        if (exact != null) return exact;
+        for (String name : names) {
+            if (name.toLowerCase(Locale.ROOT).contains(key)) return name;
+        }
+        return null;
+    }
+
+    /** The photo for this SID inside the indexed directory, or null (always null for a zip index). */
+    public File resolve(String sid) {
+        if (directory == null) return null;
+        String name = find(sid);
+        return name == null ? null : new File(directory, name);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public boolean isEmpty() {
+        return names.isEmpty();
+    }
+
+    public static boolean isImageFile(String name) {
+        String n = name.toLowerCase(Locale.ROOT);
+        return n.endsWith(".jpg") || n.endsWith(".jpeg") || n.endsWith(".png") || n.endsWith(".gif") || n.endsWith(".bmp");
+    }
+}
@@ -1,6 +1,8 @@
 package Tech_Nagendra.Certificates_genration.JWTfilter;
 
+import Tech_Nagendra.Certificates_genration.Security.JwtClaims;
 import Tech_Nagendra.Certificates_genration.Security.UserPrincipal;
+import Tech_Nagendra.Certificates_genration.Service.SessionStoreService;
 import Tech_Nagendra.Certificates_genration.Utility.JwtUtil;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
@@ -9,6 +11,8 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -18,14 +22,30 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtFilter.class);
+
+    /** With TRACE enabled, roughly one request in this many is logged. */
+    private static final int TRACE_SAMPLE_RATE = 64;
+
+    /** Granted authorities per role claim; there are only a handful of distinct role strings. */
+    private static final Map<String, List<SimpleGrantedAuthority>> AUTHORITIES = new ConcurrentHashMap<>();
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private SessionStoreService sessionStore;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -33,37 +53,34 @@ public class JwtFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        String jwt = null;
-
-        System.out.println(">> Incoming request: " + request.getMethod() + " " + request.getRequestURI());
-        System.out.println("   Authorization header: " + (authHeader == null ? "null" : authHeader));
+        final boolean trace = logger.isTraceEnabled() && ThreadLocalRandom.current().nextInt(TRACE_SAMPLE_RATE) == 0;
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7).trim();
-            jwt = jwt.replaceAll("[<>]", "");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (trace) logger.trace("{} {} without bearer token", request.getMethod(), request.getRequestURI());
+            filterChain.doFilter(request, response);
+            return;
         }
 
-        if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                jwt = jwtUtil.cleanToken(jwt);
-                System.out.println("   Cleaned token (first 40 chars): " +
-                        (jwt.length() > 40 ? jwt.substring(0, 40) + "..." : jwt));
-
-                Long userId = jwtUtil.extractUserId(jwt);
-                String username = jwtUtil.extractUsername(jwt);
-                String role = jwtUtil.extractRole(jwt);
+                JwtClaims claims = jwtUtil.parseClaims(authHeader);
+                if (!sessionStore.isActive(claims)) {
+                    sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Session ended. Please login again.");
+                    return;
+                }
+                Long userId = claims.getUserId();
+                String username = claims.getUsername();
+                String role = claims.getRole();
 
-                System.out.println("   Parsed claims -> userId: " + userId + ", username: " + username + ", role: " + role);
+                if (trace) {
+                    logger.trace("{} {} authenticated userId={} role={}", request.getMethod(), request.getRequestURI(), userId, role);
+                }
 
                 if (userId != null && username != null) {
-                    List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-                    if (role != null && !role.isEmpty()) {
-                        for (String r : role.split(",")) {
-                            authorities.add(new SimpleGrantedAuthority("ROLE_" + r.trim().toUpperCase()));
-                        }
-                    }
-
-                    UserPrincipal principal = new UserPrincipal(userId, username, "", role, authorities);
+                    List<SimpleGrantedAuthority> authorities = authoritiesFor(role);
+
+                    UserPrincipal principal = new UserPrincipal(claims, authorities);
+                    request.setAttribute(JwtClaims.REQUEST_ATTRIBUTE, claims);
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(principal, null, authorities);
 
@@ -87,21 +104,30 @@ public class JwtFilter extends OncePerRequestFilter {
                 sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "JWT token is missing or empty");
                 return;
             } catch (Exception e) {
-                e.printStackTrace();
+                logger.debug("JWT rejected for {} {}: {}", request.getMethod(), request.getRequestURI(), e.toString());
                 sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT token");
                 return;
             }
-        } else if (jwt == null) {
-            System.out.println("   No JWT token provided in Authorization header.");
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private static List<SimpleGrantedAuthority> authoritiesFor(String role) {
+        if (role == null || role.isEmpty()) return Collections.emptyList();
+        return AUTHORITIES.computeIfAbsent(role, r -> {
+            List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+            for (String part : r.split(",")) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + part.trim().toUpperCase(Locale.ROOT)));
+            }
+            return Collections.unmodifiableList(authorities);
+        });
+    }
+
     private void sendError(HttpServletResponse response, int status, String message) throws IOException {
         response.setContentType("application/json");
         response.setStatus(status);
-        response.getWriter().write(String.format("{\"error\":\"%s\"}", message));
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
     }
 
     @Override
@@ -1,10 +0,0 @@
-package Tech_Nagendra.Certificates_genration.Repository;
-
-import Tech_Nagendra.Certificates_genration.Entity.CandidateDTO;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
-@Repository
-public interface CandidateRepository extends JpaRepository<CandidateDTO, Long> {
-
-}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package Tech_Nagendra.Certificates_genration.Repository;
+
+import Tech_Nagendra.Certificates_genration.Ingest.CandidateRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk access to the candidate_rows table (see {@link Tech_Nagendra.Certificates_genration.Entity.CandidateRow}).
+ * Rows go in as JDBC batches straight from {@link CandidateRecord} values and come back out the same way, so no
+ * entity or persistence-context entry is created per candidate.
+ */
+@Repository
+public class CandidateStore {
+
+    /** Column per {@link CandidateRecord#FIELDS} entry, in the same order. */
+    private static final String[] COLUMNS = {
+            "salutation", "candidate_name", "sid", "job_role", "guardian_type", "father_or_husband_name",
+            "sector_skill_council", "date_of_issuance", "level", "aadhaar_number", "sector", "grade",
+            "date_of_start", "date_of_end", "marks", "marks1", "marks2", "marks3", "marks4", "marks5",
+            "marks6", "marks7", "marks8", "marks9", "marks10", "batch_id", "state", "course_name",
+            "duration", "district", "place"
+    };
+
+    private static final String COLUMN_LIST = String.join(", ", COLUMNS);
+
+    private static final String INSERT = "INSERT INTO candidate_rows (template_id, " + COLUMN_LIST + ") VALUES (?"
+            + ", ?".repeat(COLUMNS.length) + ")";
+
+    private static final String SELECT_BY_TEMPLATE = "SELECT " + COLUMN_LIST
+            + " FROM candidate_rows WHERE template_id = ? ORDER BY id";
+
+    private static final RowMapper<CandidateRecord> RECORD_MAPPER = (rs, rowNum) -> {
+        String[] values = new String[COLUMNS.length];
+        for (int i = 0; i < values.length; i++) values[i] = rs.getString(i + 1);
+        return CandidateRecord.of(values);
+    };
+
+    static {
+        if (COLUMNS.length != CandidateRecord.FIELD_COUNT) {
+            throw new IllegalStateException("candidate_rows columns do not match CandidateRecord fields");
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CandidateStore(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /** Inserts {@code candidates} as one JDBC batch. */
+    public void insertAll(Long templateId, Collection<CandidateRecord> candidates) {
+        if (candidates.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT, candidates, candidates.size(), (ps, candidate) -> {
+            ps.setLong(1, templateId);
+            for (int i = 0; i < COLUMNS.length; i++) ps.setString(i + 2, candidate.get(i));
+        });
+    }
+
+    public List<CandidateRecord> findByTemplateId(Long templateId) {
+        return jdbcTemplate.query(SELECT_BY_TEMPLATE, RECORD_MAPPER, templateId);
+    }
+
+    public int deleteByTemplateId(Long templateId) {
+        return jdbcTemplate.update("DELETE FROM candidate_rows WHERE template_id = ?", templateId);
+    }
+}
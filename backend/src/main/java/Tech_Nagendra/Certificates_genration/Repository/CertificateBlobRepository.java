@@ -0,0 +1,56 @@
+package Tech_Nagendra.Certificates_genration.Repository;
+
+import Tech_Nagendra.Certificates_genration.Entity.CertificateBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CertificateBlobRepository extends JpaRepository<CertificateBlob, String> {
+
+    /** Records a stored file with no references yet; storing the same bytes again only refreshes its access time. */
+    @Modifying
+    @Query(value = "INSERT INTO certificate_blobs (hash, size_bytes, ref_count, created_at, last_accessed_at) " +
+            "VALUES (:hash, :size, 0, :now, :now) " +
+            "ON DUPLICATE KEY UPDATE last_accessed_at = :now", nativeQuery = true)
+    int register(@Param("hash") String hash, @Param("size") long size, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE CertificateBlob b SET b.refCount = b.refCount + :delta WHERE b.hash = :hash")
+    int adjustReferences(@Param("hash") String hash, @Param("delta") long delta);
+
+    /** Moves the access time forward at most once per {@code before} window, so downloads rarely write. */
+    @Modifying
+    @Query("UPDATE CertificateBlob b SET b.lastAccessedAt = :now WHERE b.hash = :hash AND b.lastAccessedAt < :before")
+    int touch(@Param("hash") String hash, @Param("now") LocalDateTime now, @Param("before") LocalDateTime before);
+
+    /** Recounts references from the reports table, healing counts missed by cascading deletes. */
+    @Modifying
+    @Query(value = "UPDATE certificate_blobs SET ref_count = " +
+            "(SELECT COUNT(*) FROM reports r WHERE r.pdf_hash = certificate_blobs.hash)", nativeQuery = true)
+    int reconcileReferences();
+
+    @Query("SELECT b.hash FROM CertificateBlob b WHERE b.refCount <= 0 AND b.lastAccessedAt < :cutoff")
+    List<String> findOrphanHashes(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT b.hash FROM CertificateBlob b WHERE b.lastAccessedAt < :cutoff")
+    List<String> findHashesNotAccessedSince(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /** Least recently used first. */
+    @Query("SELECT b.hash, b.sizeBytes FROM CertificateBlob b ORDER BY b.lastAccessedAt, b.hash")
+    List<Object[]> findLeastRecentlyUsed(Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(b.sizeBytes), 0) FROM CertificateBlob b")
+    long totalSize();
+
+    @Modifying
+    @Query("DELETE FROM CertificateBlob b WHERE b.hash IN :hashes")
+    int deleteByHashes(@Param("hashes") Collection<String> hashes);
+}
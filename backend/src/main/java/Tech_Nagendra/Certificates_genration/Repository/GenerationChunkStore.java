@@ -0,0 +1,127 @@
+package Tech_Nagendra.Certificates_genration.Repository;
+
+import Tech_Nagendra.Certificates_genration.Entity.GenerationChunk;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The generation work queue (generation_chunks, see {@link GenerationChunk}). Claims lock their rows with
+ * {@code FOR UPDATE SKIP LOCKED}, so nodes polling at the same time never wait for or take each other's chunks.
+ * Every change after a claim is fenced on the owner and attempt number, so a node that lost its lease cannot
+ * complete or release a chunk that was claimed again. A chunk whose lease ran out on its last allowed attempt is
+ * never claimed again; {@link #failExhausted} fails it instead.
+ */
+@Repository
+public class GenerationChunkStore {
+
+    private static final String SELECT_CLAIMABLE = "SELECT id FROM generation_chunks"
+            + " WHERE status = 'PENDING' OR (status = 'CLAIMED' AND lease_until < ? AND attempts < ?)"
+            + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String EXHAUSTED = "status = 'CLAIMED' AND lease_until < ? AND attempts >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GenerationChunkStore(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /** A chunk held by this node; {@code attempts} is the fencing token of the claim. */
+    public record Claim(Long id, Long jobId, int startRow, int endRow, int attempts) {
+        public int rows() {
+            return endRow - startRow;
+        }
+    }
+
+    /** Splits rows [0, {@code totalRows}) of a job into pending chunks of {@code chunkRows}. */
+    public void createChunks(Long jobId, int totalRows, int chunkRows) {
+        List<int[]> ranges = new ArrayList<>();
+        for (int start = 0; start < totalRows; start += chunkRows) ranges.add(new int[]{start, Math.min(totalRows, start + chunkRows)});
+        if (ranges.isEmpty()) ranges.add(new int[]{0, 0});
+        jdbcTemplate.batchUpdate("INSERT INTO generation_chunks (job_id, start_row, end_row, status, attempts) VALUES (?, ?, ?, 'PENDING', 0)",
+                ranges, ranges.size(), (ps, range) -> {
+                    ps.setLong(1, jobId);
+                    ps.setInt(2, range[0]);
+                    ps.setInt(3, range[1]);
+                });
+    }
+
+    /**
+     * Claims up to {@code limit} pending chunks or expired chunks with attempts left under {@code maxAttempts};
+     * must run inside a transaction.
+     */
+    public List<Claim> claim(String owner, int limit, LocalDateTime now, LocalDateTime leaseUntil, int maxAttempts) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_CLAIMABLE, Long.class, Timestamp.valueOf(now), maxAttempts, limit);
+        List<Claim> claims = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            jdbcTemplate.update("UPDATE generation_chunks SET status = 'CLAIMED', owner = ?, lease_until = ?,"
+                    + " attempts = attempts + 1 WHERE id = ?", owner, Timestamp.valueOf(leaseUntil), id);
+            claims.add(jdbcTemplate.queryForObject("SELECT id, job_id, start_row, end_row, attempts FROM generation_chunks WHERE id = ?",
+                    (rs, rowNum) -> new Claim(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getInt(4), rs.getInt(5)), id));
+        }
+        return claims;
+    }
+
+    /**
+     * Extends the leases of the chunks this node is working on, fenced like {@link #finish}.
+     *
+     * @return the claims that are no longer this node's, so their work can be dropped
+     */
+    public List<Claim> heartbeat(String owner, Collection<Claim> claims, LocalDateTime leaseUntil) {
+        List<Claim> lost = new ArrayList<>();
+        for (Claim claim : claims) {
+            int renewed = jdbcTemplate.update("UPDATE generation_chunks SET lease_until = ?"
+                            + " WHERE id = ? AND status = 'CLAIMED' AND owner = ? AND attempts = ?",
+                    Timestamp.valueOf(leaseUntil), claim.id(), owner, claim.attempts());
+            if (renewed == 0) lost.add(claim);
+        }
+        return lost;
+    }
+
+    /** Jobs with a chunk whose lease ran out on its last allowed attempt. */
+    public List<Long> findExhaustedJobs(LocalDateTime now, int maxAttempts) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT job_id FROM generation_chunks WHERE " + EXHAUSTED,
+                Long.class, Timestamp.valueOf(now), maxAttempts);
+    }
+
+    /** Fails the chunks of a job whose lease ran out on their last allowed attempt; returns how many. */
+    public int failExhausted(Long jobId, LocalDateTime now, int maxAttempts, String error) {
+        return jdbcTemplate.update("UPDATE generation_chunks SET status = 'FAILED', lease_until = NULL, error = ?"
+                + " WHERE job_id = ? AND " + EXHAUSTED, error, jobId, Timestamp.valueOf(now), maxAttempts);
+    }
+
+    /** Moves a claimed chunk to {@code status}; false when the claim is no longer this node's. */
+    public boolean finish(Claim claim, String owner, String status, String error) {
+        String release = GenerationChunk.PENDING.equals(status) ? "owner = NULL, " : "";
+        return jdbcTemplate.update("UPDATE generation_chunks SET status = ?, " + release + "lease_until = NULL, error = ?"
+                        + " WHERE id = ? AND status = 'CLAIMED' AND owner = ? AND attempts = ?",
+                status, error, claim.id(), owner, claim.attempts()) == 1;
+    }
+
+    /** Fails the chunks of a job nobody is working on any more. */
+    public int failOpen(Long jobId, String error) {
+        return jdbcTemplate.update("UPDATE generation_chunks SET status = 'FAILED', error = ? WHERE job_id = ? AND status IN ('PENDING', 'CLAIMED')",
+                error, jobId);
+    }
+
+    public int countOpen(Long jobId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM generation_chunks WHERE job_id = ? AND status IN ('PENDING', 'CLAIMED')", Integer.class, jobId);
+        return count == null ? 0 : count;
+    }
+
+    public boolean exists(Long jobId) {
+        return !jdbcTemplate.queryForList("SELECT id FROM generation_chunks WHERE job_id = ? LIMIT 1", Long.class, jobId).isEmpty();
+    }
+
+    public int deleteByJobId(Long jobId) {
+        return jdbcTemplate.update("DELETE FROM generation_chunks WHERE job_id = ?", jobId);
+    }
+}
@@ -0,0 +1,55 @@
+package Tech_Nagendra.Certificates_genration.Repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Manifest of the files produced by a generation job (generation_job_files), appended in JDBC batches at every
+ * checkpoint.
+ */
+@Repository
+public class GenerationJobFileStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GenerationJobFileStore(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /** Appends one line per SID; {@code files} maps SID to file name. */
+    public void append(Long jobId, int rowIndex, Map<String, String> files) {
+        if (files.isEmpty()) return;
+        jdbcTemplate.batchUpdate("INSERT INTO generation_job_files (job_id, row_index, sid, file_name) VALUES (?, ?, ?, ?)",
+                new ArrayList<>(files.entrySet()), files.size(), (ps, file) -> {
+                    ps.setLong(1, jobId);
+                    ps.setInt(2, rowIndex);
+                    ps.setString(3, file.getKey());
+                    ps.setString(4, file.getValue());
+                });
+    }
+
+    /** Latest file name per SID, in order of first appearance. */
+    public Map<String, String> findByJobId(Long jobId) {
+        Map<String, String> files = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT sid, file_name FROM generation_job_files WHERE job_id = ? ORDER BY row_index, id",
+                rs -> {
+                    files.put(rs.getString(1), rs.getString(2));
+                }, jobId);
+        return files;
+    }
+
+    public int countSids(Long jobId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT sid) FROM generation_job_files WHERE job_id = ?", Integer.class, jobId);
+        return count == null ? 0 : count;
+    }
+
+    public int deleteByJobId(Long jobId) {
+        return jdbcTemplate.update("DELETE FROM generation_job_files WHERE job_id = ?", jobId);
+    }
+}
@@ -0,0 +1,33 @@
+package Tech_Nagendra.Certificates_genration.Repository;
+
+import Tech_Nagendra.Certificates_genration.Entity.GenerationJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GenerationJobRepository extends JpaRepository<GenerationJob, Long> {
+
+    /** Serializes the completion of a job's chunks across nodes. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM GenerationJob j WHERE j.id = :id")
+    Optional<GenerationJob> lockById(@Param("id") Long id);
+
+    List<GenerationJob> findByStatusInOrderByIdAsc(Collection<String> statuses);
+
+    List<GenerationJob> findTop50ByUserIdOrderByIdDesc(Long userId);
+
+    List<GenerationJob> findTop50ByOrderByIdDesc();
+
+    @Query("SELECT j FROM GenerationJob j WHERE j.status IN :statuses AND j.finishedAt < :cutoff")
+    List<GenerationJob> findFinishedBefore(@Param("statuses") Collection<String> statuses,
+                                           @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,83 @@
+package Tech_Nagendra.Certificates_genration.Repository;
+
+import Tech_Nagendra.Certificates_genration.Entity.ReportDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ReportDailyRollupRepository extends JpaRepository<ReportDailyRollup, Long> {
+
+    String MONTH_BUCKETS = "GROUP BY FUNCTION('YEAR', r.day), FUNCTION('MONTH', r.day) " +
+            "ORDER BY FUNCTION('YEAR', r.day), FUNCTION('MONTH', r.day)";
+
+    /** Adds {@code delta} (may be negative) to one bucket, creating it when missing. */
+    @Modifying
+    @Query(value = "INSERT INTO report_daily_rollup (report_day, user_id, template_name, status, report_count) " +
+            "VALUES (:day, :userId, :templateName, :status, :delta) " +
+            "ON DUPLICATE KEY UPDATE report_count = report_count + :delta", nativeQuery = true)
+    int increment(@Param("day") LocalDate day, @Param("userId") Long userId,
+                  @Param("templateName") String templateName, @Param("status") String status,
+                  @Param("delta") long delta);
+
+    /**
+     * Locks one report_rollup_guard row until the end of the transaction, creating it when missing.
+     * The no-op update takes the same exclusive row lock in MySQL and H2.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO report_rollup_guard (stripe) VALUES (:stripe) " +
+            "ON DUPLICATE KEY UPDATE stripe = stripe", nativeQuery = true)
+    int lockGuard(@Param("stripe") int stripe);
+
+    @Modifying
+    @Query(value = "DELETE FROM report_daily_rollup", nativeQuery = true)
+    int deleteAllBuckets();
+
+    @Query("SELECT COALESCE(SUM(r.reportCount), 0) FROM ReportDailyRollup r")
+    long sumAll();
+
+    @Query("SELECT COALESCE(SUM(r.reportCount), 0) FROM ReportDailyRollup r WHERE r.userId = :userId")
+    long sumByUser(@Param("userId") Long userId);
+
+    @Query("SELECT COALESCE(SUM(r.reportCount), 0) FROM ReportDailyRollup r WHERE r.userId = :userId AND r.status = :status")
+    long sumByUserAndStatus(@Param("userId") Long userId, @Param("status") String status);
+
+    @Query("SELECT COALESCE(SUM(r.reportCount), 0) FROM ReportDailyRollup r WHERE r.day BETWEEN :from AND :to")
+    long sumBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT COALESCE(SUM(r.reportCount), 0) FROM ReportDailyRollup r WHERE r.userId = :userId AND r.day BETWEEN :from AND :to")
+    long sumByUserBetween(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT FUNCTION('YEAR', r.day), FUNCTION('MONTH', r.day), SUM(r.reportCount) FROM ReportDailyRollup r " + MONTH_BUCKETS)
+    List<Object[]> monthlyCounts();
+
+    @Query("SELECT FUNCTION('YEAR', r.day), FUNCTION('MONTH', r.day), SUM(r.reportCount) FROM ReportDailyRollup r " +
+            "WHERE r.userId = :userId " + MONTH_BUCKETS)
+    List<Object[]> monthlyCountsByUser(@Param("userId") Long userId);
+
+    @Query("SELECT r.day, SUM(r.reportCount) FROM ReportDailyRollup r WHERE r.day BETWEEN :from AND :to GROUP BY r.day ORDER BY r.day")
+    List<Object[]> dailyCounts(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.day, SUM(r.reportCount) FROM ReportDailyRollup r WHERE r.userId = :userId AND r.day BETWEEN :from AND :to " +
+            "GROUP BY r.day ORDER BY r.day")
+    List<Object[]> dailyCountsByUser(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.templateName, SUM(r.reportCount) FROM ReportDailyRollup r WHERE r.day BETWEEN :from AND :to GROUP BY r.templateName")
+    List<Object[]> templateCounts(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.templateName, SUM(r.reportCount) FROM ReportDailyRollup r WHERE r.userId = :userId AND r.day BETWEEN :from AND :to " +
+            "GROUP BY r.templateName")
+    List<Object[]> templateCountsByUser(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.status, SUM(r.reportCount) FROM ReportDailyRollup r WHERE r.day BETWEEN :from AND :to GROUP BY r.status")
+    List<Object[]> statusCounts(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.status, SUM(r.reportCount) FROM ReportDailyRollup r WHERE r.userId = :userId AND r.day BETWEEN :from AND :to " +
+            "GROUP BY r.status")
+    List<Object[]> statusCountsByUser(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,18 +1,34 @@
 package Tech_Nagendra.Certificates_genration.Repository;
 
+import Tech_Nagendra.Certificates_genration.Dto.ReportDTO;
 import Tech_Nagendra.Certificates_genration.Entity.Report;
 import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ReportRepository extends JpaRepository<Report, Long> {
+public interface ReportRepository extends JpaRepository<Report, Long>, ReportRepositoryCustom {
+
+    /** Report rows projected straight into ReportDTO; no entity or lazy association is loaded. */
+    String DTO_SELECT = "SELECT new Tech_Nagendra.Certificates_genration.Dto.ReportDTO(" +
+            "r.id, r.sid, r.candidateName, r.grade, r.templateName, r.jobrole, r.level, r.batchId, " +
+            "r.trainingPartner, r.generatedBy.id, r.userProfile.id, r.template.id, r.status, r.generatedOn) " +
+            "FROM Report r";
+
+    String NEWEST_FIRST = " ORDER BY r.generatedOn DESC, r.id DESC";
+
+    /** Keyset condition: rows strictly after the cursor (generatedOn, id) in newest-first order. */
+    String BEFORE_CURSOR = " AND (r.generatedOn < :cursorOn OR (r.generatedOn = :cursorOn AND r.id < :cursorId))";
 
     long countByGeneratedBy_Id(Long userId);
     long countByGeneratedBy_IdAndGeneratedOnBetween(Long userId, Date startDate, Date endDate);
@@ -42,6 +58,24 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     @Query("SELECT r FROM Report r WHERE r.sid = :sid AND r.template.id = :templateId")
     List<Report> findAllBySidAndTemplateId(@Param("sid") String sid, @Param("templateId") Long templateId);
 
+    @Query("SELECT r FROM Report r WHERE r.template.id = :templateId AND r.sid IN :sids ORDER BY r.id")
+    List<Report> findAllByTemplateIdAndSidIn(@Param("templateId") Long templateId, @Param("sids") Collection<String> sids);
+
+    /** (sid, fingerprint, pdf hash) of every report of a template with a stored certificate, oldest first. */
+    @Query("SELECT r.sid, r.fingerprint, r.pdfHash FROM Report r WHERE r.template.id = :templateId " +
+            "AND r.fingerprint IS NOT NULL AND r.pdfHash IS NOT NULL ORDER BY r.id")
+    List<Object[]> findStoredCertificatesByTemplateId(@Param("templateId") Long templateId);
+
+    /** Same as above, for the given SIDs only. */
+    @Query("SELECT r.sid, r.fingerprint, r.pdfHash FROM Report r WHERE r.template.id = :templateId AND r.sid IN :sids " +
+            "AND r.fingerprint IS NOT NULL AND r.pdfHash IS NOT NULL ORDER BY r.id")
+    List<Object[]> findStoredCertificatesByTemplateIdAndSidIn(@Param("templateId") Long templateId,
+                                                              @Param("sids") Collection<String> sids);
+
+    @Modifying
+    @Query("UPDATE Report r SET r.pdfHash = NULL WHERE r.pdfHash IN :hashes")
+    int clearPdfHashes(@Param("hashes") Collection<String> hashes);
+
     @Query("SELECT r FROM Report r WHERE r.sid = :sid AND r.template.id = :templateId")
     List<Report> findAllBySidAndTemplateID(@Param("sid") String sid, @Param("templateId") Long templateId);
 
@@ -57,6 +91,10 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     @Query("SELECT FUNCTION('YEAR', r.generatedOn), FUNCTION('MONTH', r.generatedOn), COUNT(r) FROM Report r GROUP BY FUNCTION('YEAR', r.generatedOn), FUNCTION('MONTH', r.generatedOn) ORDER BY FUNCTION('YEAR', r.generatedOn), FUNCTION('MONTH', r.generatedOn)")
     List<Object[]> getMonthlyCertificateStats();
 
+    /** Report count per generating user in a period, with the user loaded once per group. */
+    @Query("SELECT u, COUNT(r) FROM Report r JOIN r.generatedBy u WHERE r.generatedOn BETWEEN :startDate AND :endDate GROUP BY u")
+    List<Object[]> countPerGeneratedBy(@Param("startDate") Date startDate, @Param("endDate") Date endDate);
+
     @Query("SELECT r FROM Report r WHERE r.template.id = :templateId")
     List<Report> findByTemplateId(@Param("templateId") Long templateId);
 
@@ -66,4 +104,49 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     @Query("SELECT r FROM Report r JOIN FETCH r.generatedBy WHERE r.generatedBy.id = :userId")
     List<Report> findByGeneratedBy_IdWithUser(@Param("userId") Long userId);
 
-}
\ No newline at end of file
+    @Query(DTO_SELECT + NEWEST_FIRST)
+    List<ReportDTO> findAllReportDtos();
+
+    @Query(DTO_SELECT + " WHERE r.generatedBy.id = :userId" + NEWEST_FIRST)
+    List<ReportDTO> findReportDtosByGeneratedBy(@Param("userId") Long userId);
+
+    @Query(DTO_SELECT + " WHERE r.generatedOn BETWEEN :startDate AND :endDate" + NEWEST_FIRST)
+    List<ReportDTO> findReportDtosByGeneratedOnBetween(@Param("startDate") Date startDate, @Param("endDate") Date endDate);
+
+    @Query(DTO_SELECT + " WHERE r.generatedBy.id = :userId AND r.generatedOn BETWEEN :startDate AND :endDate" + NEWEST_FIRST)
+    List<ReportDTO> findReportDtosByGeneratedByAndGeneratedOnBetween(@Param("userId") Long userId,
+                                                                     @Param("startDate") Date startDate,
+                                                                     @Param("endDate") Date endDate);
+
+    @Query(value = DTO_SELECT + " WHERE r.generatedOn BETWEEN :startDate AND :endDate",
+            countQuery = "SELECT COUNT(r) FROM Report r WHERE r.generatedOn BETWEEN :startDate AND :endDate")
+    Page<ReportDTO> findReportDtoPage(@Param("startDate") Date startDate, @Param("endDate") Date endDate,
+                                      Pageable pageable);
+
+    @Query(value = DTO_SELECT + " WHERE r.generatedBy.id = :userId AND r.generatedOn BETWEEN :startDate AND :endDate",
+            countQuery = "SELECT COUNT(r) FROM Report r WHERE r.generatedBy.id = :userId AND r.generatedOn BETWEEN :startDate AND :endDate")
+    Page<ReportDTO> findReportDtoPageByGeneratedBy(@Param("userId") Long userId, @Param("startDate") Date startDate,
+                                                   @Param("endDate") Date endDate, Pageable pageable);
+
+    @Query(DTO_SELECT + " WHERE r.generatedOn BETWEEN :startDate AND :endDate" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<ReportDTO> findReportDtosBefore(@Param("startDate") Date startDate, @Param("endDate") Date endDate,
+                                         @Param("cursorOn") Date cursorOn, @Param("cursorId") Long cursorId,
+                                         Pageable limit);
+
+    @Query(DTO_SELECT + " WHERE r.generatedBy.id = :userId AND r.generatedOn BETWEEN :startDate AND :endDate"
+            + BEFORE_CURSOR + NEWEST_FIRST)
+    List<ReportDTO> findReportDtosByGeneratedByBefore(@Param("userId") Long userId, @Param("startDate") Date startDate,
+                                                      @Param("endDate") Date endDate, @Param("cursorOn") Date cursorOn,
+                                                      @Param("cursorId") Long cursorId, Pageable limit);
+
+    @Query(DTO_SELECT + " WHERE r.id IN :ids")
+    List<ReportDTO> findReportDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(DTO_SELECT + " WHERE r.id > :afterId ORDER BY r.id")
+    List<ReportDTO> findReportDtosAfterId(@Param("afterId") Long afterId, Pageable limit);
+
+    /** (id, generatedOn, generating user id, templateName, status) of dated reports after {@code afterId}, in id order. */
+    @Query("SELECT r.id, r.generatedOn, g.id, r.templateName, r.status FROM Report r LEFT JOIN r.generatedBy g " +
+            "WHERE r.id > :afterId AND r.generatedOn IS NOT NULL ORDER BY r.id")
+    List<Object[]> findRollupRowsAfterId(@Param("afterId") Long afterId, Pageable limit);
+}
@@ -0,0 +1,26 @@
+package Tech_Nagendra.Certificates_genration.Repository;
+
+import Tech_Nagendra.Certificates_genration.Dto.ReportDTO;
+import Tech_Nagendra.Certificates_genration.Entity.Report;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/** Filtered report listings projected into ReportDTO. */
+public interface ReportRepositoryCustom {
+
+    Page<ReportDTO> findReportDtos(Specification<Report> spec, Pageable pageable);
+
+    /** Up to {@code limit} rows in {@code sort} order; a limit of 0 or less returns every match. */
+    List<ReportDTO> findReportDtos(Specification<Report> spec, Sort sort, int limit);
+
+    /**
+     * Every match in {@code sort} order, read from an open cursor {@code fetchSize} rows at a time
+     * ({@link Integer#MIN_VALUE} streams row by row on MySQL). Must be consumed and closed inside a transaction.
+     */
+    Stream<ReportDTO> streamReportDtos(Specification<Report> spec, Sort sort, int fetchSize);
+}
@@ -0,0 +1,88 @@
+package Tech_Nagendra.Certificates_genration.Repository;
+
+import Tech_Nagendra.Certificates_genration.Dto.ReportDTO;
+import Tech_Nagendra.Certificates_genration.Entity.Report;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ReportRepositoryCustomImpl implements ReportRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ReportDTO> findReportDtos(Specification<Report> spec, Pageable pageable) {
+        List<ReportDTO> content = query(spec, pageable.getSort(), (int) pageable.getOffset(), pageable.getPageSize());
+
+        long total;
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            total = content.size();
+        } else {
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Long> count = cb.createQuery(Long.class);
+            Root<Report> root = count.from(Report.class);
+            count.select(cb.count(root));
+            Predicate predicate = spec != null ? spec.toPredicate(root, count, cb) : null;
+            if (predicate != null) count.where(predicate);
+            total = entityManager.createQuery(count).getSingleResult();
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public List<ReportDTO> findReportDtos(Specification<Report> spec, Sort sort, int limit) {
+        return query(spec, sort, 0, limit);
+    }
+
+    @Override
+    public Stream<ReportDTO> streamReportDtos(Specification<Report> spec, Sort sort, int fetchSize) {
+        return createQuery(spec, sort)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    private List<ReportDTO> query(Specification<Report> spec, Sort sort, int offset, int limit) {
+        TypedQuery<ReportDTO> query = createQuery(spec, sort);
+        if (offset > 0) query.setFirstResult(offset);
+        if (limit > 0) query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    private TypedQuery<ReportDTO> createQuery(Specification<Report> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ReportDTO> cq = cb.createQuery(ReportDTO.class);
+        Root<Report> root = cq.from(Report.class);
+        cq.select(cb.construct(ReportDTO.class,
+                root.get("id"), root.get("sid"), root.get("candidateName"), root.get("grade"),
+                root.get("templateName"), root.get("jobrole"), root.get("level"), root.get("batchId"),
+                root.get("trainingPartner"), root.get("generatedBy").get("id"), root.get("userProfile").get("id"),
+                root.get("template").get("id"), root.get("status"), root.get("generatedOn")));
+
+        Predicate predicate = spec != null ? spec.toPredicate(root, cq, cb) : null;
+        if (predicate != null) cq.where(predicate);
+
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            orders.add(order.isAscending() ? cb.asc(root.get(order.getProperty())) : cb.desc(root.get(order.getProperty())));
+        }
+        if (!orders.isEmpty()) cq.orderBy(orders);
+
+        return entityManager.createQuery(cq);
+    }
+}
@@ -0,0 +1,72 @@
+package Tech_Nagendra.Certificates_genration.Repository;
+
+import Tech_Nagendra.Certificates_genration.Config.ReportSearchFunctions;
+import Tech_Nagendra.Certificates_genration.Entity.Report;
+import jakarta.persistence.criteria.Expression;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Date;
+import java.util.Locale;
+
+/** Report filters used by the listing endpoints; combine with {@link Specification#where}/and. */
+public final class ReportSpecifications {
+
+    private ReportSpecifications() {
+    }
+
+    public static Specification<Report> generatedBy(Long userId) {
+        return (root, query, cb) -> userId == null ? null : cb.equal(root.get("generatedBy").get("id"), userId);
+    }
+
+    public static Specification<Report> generatedBetween(Date from, Date to) {
+        return (root, query, cb) -> {
+            if (from != null && to != null) return cb.between(root.get("generatedOn"), from, to);
+            if (from != null) return cb.greaterThanOrEqualTo(root.get("generatedOn"), from);
+            if (to != null) return cb.lessThanOrEqualTo(root.get("generatedOn"), to);
+            return null;
+        };
+    }
+
+    /** Statuses are stored upper case (GENERATED, FAILED). */
+    public static Specification<Report> hasStatus(String status) {
+        return (root, query, cb) -> status == null || status.isBlank()
+                ? null
+                : cb.equal(root.get("status"), status.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Case-insensitive "contains" over SID, candidate name, template name, batch id and training partner.
+     * With the n-gram FULLTEXT index the term is matched as a phrase; otherwise each column is LIKE-searched.
+     */
+    public static Specification<Report> matches(String term, boolean fullText) {
+        return (root, query, cb) -> {
+            if (term == null || term.isBlank()) return null;
+            String trimmed = term.trim();
+            if (fullText) {
+                String phrase = "\"" + trimmed.replace("\"", " ") + "\"";
+                Expression<Double> score = cb.function(ReportSearchFunctions.REPORT_FULLTEXT, Double.class,
+                        root.get("sid"), root.get("candidateName"), root.get("templateName"),
+                        root.get("batchId"), root.get("trainingPartner"), cb.literal(phrase));
+                return cb.greaterThan(score, 0d);
+            }
+            String pattern = "%" + escapeLike(trimmed.toLowerCase(Locale.ROOT)) + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("sid")), pattern, '\\'),
+                    cb.like(cb.lower(root.get("candidateName")), pattern, '\\'),
+                    cb.like(cb.lower(root.get("templateName")), pattern, '\\'),
+                    cb.like(cb.lower(root.get("batchId")), pattern, '\\'),
+                    cb.like(cb.lower(root.get("trainingPartner")), pattern, '\\'));
+        };
+    }
+
+    /** Keyset condition: rows after (cursorOn, cursorId) in newest-first order. */
+    public static Specification<Report> before(Date cursorOn, Long cursorId) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("generatedOn"), cursorOn),
+                cb.and(cb.equal(root.get("generatedOn"), cursorOn), cb.lessThan(root.get("id"), cursorId)));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
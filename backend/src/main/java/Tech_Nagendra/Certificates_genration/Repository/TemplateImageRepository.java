@@ -3,11 +3,18 @@ package Tech_Nagendra.Certificates_genration.Repository;
 
 import Tech_Nagendra.Certificates_genration.Entity.TemplateImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface TemplateImageRepository extends JpaRepository<TemplateImage, Long> {
     List<TemplateImage> findByTemplateId(Long templateId);
+
+    /** (template id, image path) pairs for several templates in one query. */
+    @Query("SELECT i.template.id, i.imagePath FROM TemplateImage i WHERE i.template.id IN :templateIds ORDER BY i.id")
+    List<Object[]> findImagePathsByTemplateIds(@Param("templateIds") Collection<Long> templateIds);
 }
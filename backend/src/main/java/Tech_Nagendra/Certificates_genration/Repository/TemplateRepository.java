@@ -1,7 +1,10 @@
 package Tech_Nagendra.Certificates_genration.Repository;
 
 
+import Tech_Nagendra.Certificates_genration.Dto.TemplateDto;
 import Tech_Nagendra.Certificates_genration.Entity.Template;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,7 +16,29 @@ import java.util.Optional;
 @Repository
 
 public interface TemplateRepository extends JpaRepository<Template, Long> {
+
+    /** Template rows projected straight into TemplateDto, without the lazy images or users. */
+    String DTO_SELECT = "SELECT new Tech_Nagendra.Certificates_genration.Dto.TemplateDto(" +
+            "t.id, t.templateName, t.imageType, t.jrxmlPath, t.templateFolder, t.createdAt, t.modifiedAt) " +
+            "FROM Template t";
+
     Optional<Template> findByTemplateName(String templateName);
     List<Template> findByCreatedBy_Id(Long userId);
     Long countByCreatedBy_Id(Long userId);
+
+    @Query(DTO_SELECT + " ORDER BY t.id")
+    List<TemplateDto> findAllTemplateDtos();
+
+    @Query(DTO_SELECT + " WHERE t.createdBy.id = :userId ORDER BY t.id")
+    List<TemplateDto> findTemplateDtosByCreatedBy(@Param("userId") Long userId);
+
+    @Query(value = DTO_SELECT, countQuery = "SELECT COUNT(t) FROM Template t")
+    Page<TemplateDto> findTemplateDtoPage(Pageable pageable);
+
+    @Query(value = DTO_SELECT + " WHERE t.createdBy.id = :userId",
+            countQuery = "SELECT COUNT(t) FROM Template t WHERE t.createdBy.id = :userId")
+    Page<TemplateDto> findTemplateDtoPageByCreatedBy(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT DISTINCT t FROM Template t LEFT JOIN FETCH t.images WHERE t.id = :id")
+    Optional<Template> findWithImagesById(@Param("id") Long id);
 }
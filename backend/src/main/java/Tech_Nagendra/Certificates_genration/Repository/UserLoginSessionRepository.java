@@ -5,6 +5,7 @@ import Tech_Nagendra.Certificates_genration.Entity.UserLoginSession;
 import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,5 +14,9 @@ public interface UserLoginSessionRepository extends JpaRepository<UserLoginSessi
     List<UserLoginSession> findByUserAndActive(UserProfile user, boolean active);
 
     Optional<UserLoginSession> findByJwtToken(String token);
+
+    List<UserLoginSession> findByUser_IdAndActiveTrue(Long userId);
+
+    List<UserLoginSession> findByActiveTrueAndExpiresAtAfter(LocalDateTime now);
 }
 
@@ -1,13 +1,14 @@
 package Tech_Nagendra.Certificates_genration.Security;
 
 import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
-import Tech_Nagendra.Certificates_genration.Repository.ProfileRepository;
+import Tech_Nagendra.Certificates_genration.Service.UserProfileCacheService;
 import Tech_Nagendra.Certificates_genration.Utility.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,7 +21,7 @@ public class AuditorAwareImpl implements AuditorAware<UserProfile> {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private ProfileRepository profileRepository;
+    private UserProfileCacheService userProfileCache;
 
     @Override
     public Optional<UserProfile> getCurrentAuditor() {
@@ -55,8 +56,9 @@ public class AuditorAwareImpl implements AuditorAware<UserProfile> {
                     }
                 }
             }
-            if (userId != null) {
-                return profileRepository.findById(userId);
+            // auditing runs while an entity is flushed; the auditor must belong to that transaction
+            if (userId != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                return Optional.ofNullable(userProfileCache.load(userId));
             }
 
         } catch (Exception e) {
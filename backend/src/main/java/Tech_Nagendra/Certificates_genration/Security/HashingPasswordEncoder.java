@@ -0,0 +1,132 @@
+package Tech_Nagendra.Certificates_genration.Security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password checks of the wrapped encoder on a small bounded pool of its own, so a login storm queues
+ * behind a few threads instead of taking every request thread the certificate generation also needs.
+ * When the pool and its queue are full, or a check does not finish in time, {@link PasswordHashingBusyException}
+ * is thrown and the caller is asked to retry. {@link #encode} is only used when a user registers or changes their
+ * password, so it runs on the caller's thread and never fails for lack of capacity.
+ * With a cache size above 0, successful matches are remembered for a short time under a keyed digest of password
+ * and stored hash, so repeated logins with the same credentials skip the hash. A password change stores a new salted
+ * hash, so entries for the old password can no longer be hit.
+ */
+public class HashingPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    /** Null when the cache is off. */
+    private final Cache<String, Boolean> verified;
+    private final byte[] cacheKey = new byte[32];
+
+    public HashingPasswordEncoder(PasswordEncoder delegate, int threads, int queueSize, long timeoutMillis,
+                                  long cacheSize, long cacheTtlMinutes) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.verified = cacheSize > 0 && cacheTtlMinutes > 0
+                ? Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build()
+                : null;
+        new SecureRandom().nextBytes(cacheKey);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) return false;
+        if (verified == null) return run(() -> delegate.matches(rawPassword, encodedPassword));
+        String key = cacheKey(rawPassword, encodedPassword);
+        if (verified.getIfPresent(key) != null) return true;
+        boolean matches = run(() -> delegate.matches(rawPassword, encodedPassword));
+        if (matches) verified.put(key, Boolean.TRUE);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingBusyException("Too many logins in progress");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PasswordHashingBusyException("Password check timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new PasswordHashingBusyException("Password check interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private String cacheKey(CharSequence rawPassword, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(cacheKey, "HmacSHA256"));
+            mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+            return HEX.formatHex(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    /** The hashing pool is saturated; the login can be retried shortly. */
+    public static class PasswordHashingBusyException extends AuthenticationServiceException {
+        private static final long serialVersionUID = 1L;
+
+        public PasswordHashingBusyException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package Tech_Nagendra.Certificates_genration.Security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Verified claims of one JWT. Built once by {@link Tech_Nagendra.Certificates_genration.Utility.JwtUtil}
+ * and shared through the request attribute {@link #REQUEST_ATTRIBUTE} and the {@link UserPrincipal}.
+ */
+public final class JwtClaims {
+
+    public static final String REQUEST_ATTRIBUTE = JwtClaims.class.getName();
+
+    private final Long userId;
+    private final String username;
+    private final String email;
+    private final String role;
+    private final Date issuedAt;
+    private final Date expiration;
+    private final String tokenHash;
+
+    private JwtClaims(Long userId, String username, String email, String role,
+                      Date issuedAt, Date expiration, String tokenHash) {
+        this.userId = userId;
+        this.username = username;
+        this.email = email;
+        this.role = role;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+        this.tokenHash = tokenHash;
+    }
+
+    public static JwtClaims from(Claims claims, String tokenHash) {
+        Object userIdObj = claims.get("userId");
+        if (userIdObj == null) throw new IllegalArgumentException("JWT token missing 'userId' claim");
+        Long userId = userIdObj instanceof Number ? ((Number) userIdObj).longValue() : Long.parseLong(userIdObj.toString());
+        if (claims.getSubject() == null) throw new IllegalArgumentException("JWT token missing 'username' (subject)");
+        Object email = claims.get("email");
+        Object role = claims.get("role");
+        return new JwtClaims(userId, claims.getSubject(),
+                email != null ? email.toString() : "",
+                role != null ? role.toString() : "",
+                claims.getIssuedAt(), claims.getExpiration(), tokenHash);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiration != null && expiration.getTime() <= nowMillis;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Date getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Date getExpiration() {
+        return expiration;
+    }
+
+    /** Hex SHA-256 of the raw token; lets callers key on the token without keeping it around. */
+    public String getTokenHash() {
+        return tokenHash;
+    }
+}
@@ -0,0 +1,96 @@
+package Tech_Nagendra.Certificates_genration.Security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Token buckets for /api/auth/login, one per username and one per client address.
+ * The address bucket is sized for a whole training centre behind one NAT; the username bucket stops
+ * password guessing against a single account. Idle buckets are dropped once they would be full again.
+ */
+@Component
+public class LoginRateLimiter {
+
+    @Value("${app.login.rate.username-capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${app.login.rate.username-per-minute:5}")
+    private double usernamePerMinute;
+
+    @Value("${app.login.rate.ip-capacity:100}")
+    private int ipCapacity;
+
+    @Value("${app.login.rate.ip-per-minute:300}")
+    private double ipPerMinute;
+
+    @Value("${app.login.rate.max-keys:100000}")
+    private long maxKeys;
+
+    private Cache<String, Bucket> usernames;
+    private Cache<String, Bucket> addresses;
+
+    @PostConstruct
+    public void init() {
+        usernames = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(refillTime(usernameCapacity, usernamePerMinute))
+                .build();
+        addresses = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(refillTime(ipCapacity, ipPerMinute))
+                .build();
+    }
+
+    /**
+     * Takes one token from the address bucket and one from the username bucket.
+     * Returns 0 when the attempt may go ahead, otherwise the number of seconds to wait.
+     */
+    public long tryAcquire(String username, String address) {
+        if (address != null) {
+            Bucket bucket = addresses.get(address, k -> new Bucket(ipCapacity, ipPerMinute));
+            long wait = bucket.tryTake();
+            if (wait > 0) return wait;
+        }
+        if (username != null && !username.isBlank()) {
+            String key = username.trim().toLowerCase(Locale.ROOT);
+            Bucket bucket = usernames.get(key, k -> new Bucket(usernameCapacity, usernamePerMinute));
+            return bucket.tryTake();
+        }
+        return 0;
+    }
+
+    private static Duration refillTime(int capacity, double perMinute) {
+        return Duration.ofMillis((long) Math.ceil(capacity / perMinute * 60_000d) + 1);
+    }
+
+    private static final class Bucket {
+        private final double capacity;
+        private final double perMilli;
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(int capacity, double perMinute) {
+            this.capacity = capacity;
+            this.perMilli = perMinute / 60_000d;
+            this.tokens = capacity;
+            this.updatedAt = System.currentTimeMillis();
+        }
+
+        synchronized long tryTake() {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(capacity, tokens + (now - updatedAt) * perMilli);
+            updatedAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / perMilli / 1000d));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package Tech_Nagendra.Certificates_genration.Security;
 
 import Tech_Nagendra.Certificates_genration.JWTfilter.JwtFilter;
 import Tech_Nagendra.Certificates_genration.Service.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,6 +11,8 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -19,6 +22,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class SecurityConfig {
@@ -26,6 +30,24 @@ public class SecurityConfig {
     private final JwtFilter jwtFilter;
     private final CustomUserDetailsService userDetailsService;
 
+    @Value("${app.security.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.security.hash-threads:2}")
+    private int hashThreads;
+
+    @Value("${app.security.hash-queue-size:64}")
+    private int hashQueueSize;
+
+    @Value("${app.security.hash-timeout-ms:5000}")
+    private long hashTimeoutMs;
+
+    @Value("${app.security.verified-cache-size:0}")
+    private long verifiedCacheSize;
+
+    @Value("${app.security.verified-cache-ttl-minutes:10}")
+    private long verifiedCacheTtlMinutes;
+
     public SecurityConfig(JwtFilter jwtFilter, CustomUserDetailsService userDetailsService) {
         this.jwtFilter = jwtFilter;
         this.userDetailsService = userDetailsService;
@@ -58,12 +80,24 @@ public class SecurityConfig {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
         provider.setPasswordEncoder(passwordEncoder());
+        provider.setUserDetailsPasswordService(userDetailsService);
         return provider;
     }
 
+    /**
+     * New passwords are stored as {bcrypt}. Legacy plain-text passwords (no {id} prefix) still match and are
+     * re-encoded on the user's next successful login, as are bcrypt hashes of a different strength.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return NoOpPasswordEncoder.getInstance();
+    public HashingPasswordEncoder passwordEncoder() {
+        @SuppressWarnings("deprecation")
+        PasswordEncoder legacy = NoOpPasswordEncoder.getInstance();
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of(
+                "bcrypt", new BCryptPasswordEncoder(bcryptStrength),
+                "noop", legacy));
+        delegating.setDefaultPasswordEncoderForMatches(legacy);
+        return new HashingPasswordEncoder(delegating, hashThreads, hashQueueSize, hashTimeoutMs,
+                verifiedCacheSize, verifiedCacheTtlMinutes);
     }
 
     @Bean
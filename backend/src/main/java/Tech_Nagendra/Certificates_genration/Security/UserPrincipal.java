@@ -10,12 +10,16 @@ import java.util.Collections;
 
 public class UserPrincipal implements UserDetails {
 
+    private static final long serialVersionUID = 1L;
+
     private Long id;
     private String username;
     private String password;
     private String role;
+    private Long rollid;
     private Collection<? extends GrantedAuthority> authorities;
     private UserProfile userProfile;
+    private JwtClaims claims;
 
     public UserPrincipal(Long id,
                          String username,
@@ -39,15 +43,28 @@ public class UserPrincipal implements UserDetails {
         this(id, username, password, role, authorities, null);
     }
 
+    public UserPrincipal(JwtClaims claims, Collection<? extends GrantedAuthority> authorities) {
+        this(claims.getUserId(), claims.getUsername(), "", claims.getRole(), authorities, null);
+        this.claims = claims;
+    }
+
     public UserPrincipal(UserProfile userProfile) {
         this.id = userProfile.getId();
         this.username = userProfile.getUsername();
         this.password = userProfile.getPassword();
         this.role = userProfile.getRole();
+        this.rollid = userProfile.getRollid();
         this.userProfile = userProfile;
         this.authorities = Collections.singletonList(new SimpleGrantedAuthority(role));
     }
 
+    /** Principal of a cached user; carries no entity and no password. */
+    public UserPrincipal(UserSnapshot user) {
+        this(user.id(), user.username(), "", user.role(),
+                Collections.singletonList(new SimpleGrantedAuthority(user.role())), null);
+        this.rollid = user.rollid();
+    }
+
 
     public UserProfile getUserProfile() {
         return userProfile;
@@ -57,6 +74,11 @@ public class UserPrincipal implements UserDetails {
         this.userProfile = userProfile;
     }
 
+    /** Claims of the token this principal was authenticated with; null when built from a UserProfile. */
+    public JwtClaims getClaims() {
+        return claims;
+    }
+
     public Long getId() {
         return id;
     }
@@ -65,6 +87,11 @@ public class UserPrincipal implements UserDetails {
         return role;
     }
 
+    /** Roll id of the user; null when the principal was built from token claims. */
+    public Long getRollid() {
+        return rollid;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -0,0 +1,14 @@
+package Tech_Nagendra.Certificates_genration.Security;
+
+import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
+
+/**
+ * Immutable copy of the fields of a UserProfile that authentication and access checks read.
+ * It holds no entity state, so one instance can be shared between requests and threads.
+ */
+public record UserSnapshot(Long id, String username, String role, Long rollid) {
+
+    public static UserSnapshot of(UserProfile profile) {
+        return new UserSnapshot(profile.getId(), profile.getUsername(), profile.getRole(), profile.getRollid());
+    }
+}
@@ -0,0 +1,40 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Entity.Template;
+import Tech_Nagendra.Certificates_genration.Ingest.CandidateRecord;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+/**
+ * Single-row data source that fills a certificate straight from a {@link CandidateRecord}. Fields are looked up by
+ * name in the record's value array, so nothing is copied and no bean introspection happens per candidate.
+ * "template" resolves to the template being filled, as it did for the old bean data source.
+ */
+final class CandidateDataSource implements JRDataSource {
+
+    private final CandidateRecord candidate;
+    private final Template template;
+    private boolean consumed;
+
+    CandidateDataSource(CandidateRecord candidate, Template template) {
+        this.candidate = candidate;
+        this.template = template;
+    }
+
+    @Override
+    public boolean next() {
+        if (consumed) return false;
+        consumed = true;
+        return true;
+    }
+
+    @Override
+    public Object getFieldValue(JRField field) throws JRException {
+        String name = field.getName();
+        int index = CandidateRecord.indexOf(name);
+        if (index >= 0) return candidate.get(index);
+        if ("template".equals(name)) return template;
+        throw new JRException("Unknown candidate field: " + name);
+    }
+}
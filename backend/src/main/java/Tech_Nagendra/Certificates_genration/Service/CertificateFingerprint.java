@@ -0,0 +1,87 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Ingest.CandidateRecord;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * SHA-256 fingerprints of certificate inputs. The template part covers everything shared by a run (image type,
+ * JRXML, static images, logo and signature) and is computed once; each candidate adds its field values and photo.
+ * Two renders with the same fingerprint produce the same certificate.
+ */
+public final class CertificateFingerprint {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private CertificateFingerprint() {
+    }
+
+    /**
+     * Hash of the template version: image type, JRXML and the image file passed to each fill parameter. Only the
+     * parameter and the file content count; uploads are saved under a new name every time.
+     */
+    public static String ofTemplate(int imageType, File jrxml, Map<String, File> images) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, "type" + imageType);
+        updateFile(digest, jrxml);
+        for (Map.Entry<String, File> image : images.entrySet()) {
+            update(digest, image.getKey());
+            updateFile(digest, image.getValue());
+        }
+        return HEX.formatHex(digest.digest());
+    }
+
+    /** Fingerprint of one candidate's certificate; {@code photo} may be null. */
+    public static String of(String templateHash, CandidateRecord candidate, File photo) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, templateHash);
+        for (int i = 0; i < CandidateRecord.FIELD_COUNT; i++) update(digest, candidate.get(i));
+        updateFile(digest, photo);
+        return HEX.formatHex(digest.digest());
+    }
+
+    /** Length-prefixed, so adjacent values can never run into each other; null differs from "". */
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void updateFile(MessageDigest digest, File file) throws IOException {
+        if (file == null || !file.isFile()) {
+            digest.update((byte) 0);
+            return;
+        }
+        digest.update((byte) 1);
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int n;
+            while ((n = in.read(buffer)) > 0) digest.update(buffer, 0, n);
+        }
+        update(digest, Long.toString(file.length()));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,28 +1,29 @@
 
 package Tech_Nagendra.Certificates_genration.Service;
-import Tech_Nagendra.Certificates_genration.Entity.CandidateDTO;
 import Tech_Nagendra.Certificates_genration.Entity.Report;
 import Tech_Nagendra.Certificates_genration.Entity.Template;
+import Tech_Nagendra.Certificates_genration.Ingest.CandidateColumnMapping;
+import Tech_Nagendra.Certificates_genration.Ingest.CandidateFileReader;
+import Tech_Nagendra.Certificates_genration.Ingest.CandidateRecord;
+import Tech_Nagendra.Certificates_genration.Ingest.PhotoIndex;
 import Tech_Nagendra.Certificates_genration.Repository.TemplateImageRepository;
 import Tech_Nagendra.Certificates_genration.Repository.TemplateRepository;
 import Tech_Nagendra.Certificates_genration.Repository.ProfileRepository;
+import Tech_Nagendra.Certificates_genration.Repository.ReportRepository;
 import Tech_Nagendra.Certificates_genration.Security.UserPrincipal;
 import net.sf.jasperreports.engine.*;
-import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
-import net.sf.jasperreports.engine.design.JasperDesign;
-import net.sf.jasperreports.engine.xml.JRXmlLoader;
 import net.sf.jasperreports.engine.export.JRPdfExporter;
 import net.sf.jasperreports.export.SimpleExporterInput;
 import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
 import net.sf.jasperreports.export.SimplePdfExporterConfiguration;
 import net.sf.jasperreports.export.SimplePdfReportConfiguration;
 import net.sf.jasperreports.export.type.PdfaConformanceEnum;
-import org.apache.poi.ss.usermodel.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
 
 import java.awt.*;
 import java.awt.Font;
@@ -30,7 +31,7 @@ import java.io.*;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
-import java.text.SimpleDateFormat;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.List;
 import java.util.jar.JarEntry;
@@ -41,6 +42,14 @@ import java.util.zip.ZipInputStream;
 @Service
 public class CertificateService {
 
+    /** Upload keys, as saved by the controller and the job directories. */
+    public static final String PHOTO_ARCHIVE = "zipImage";
+    public static final String LOGO = "logo";
+    public static final String SIGN = "sign";
+
+    /** Upload key of a photo archive that is already extracted; used instead of {@link #PHOTO_ARCHIVE} when present. */
+    public static final String PHOTO_DIR = "photos";
+
     private static final Logger logger = LoggerFactory.getLogger(CertificateService.class);
 
     @Autowired
@@ -53,7 +62,19 @@ public class CertificateService {
     private ProfileRepository profileRepository;
 
     @Autowired
-    private ReportService reportService;
+    private ReportBatchWriter reportBatchWriter;
+
+    @Autowired
+    private PreflightService preflightService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private CertificateStore certificateStore;
+
+    @Value("${app.certificates.reuse-unchanged:true}")
+    private boolean reuseUnchanged;
 
     @Value("${certificate.template.path:${user.dir}/templates/}")
     private String baseTemplateFolder;
@@ -298,7 +319,7 @@ public class CertificateService {
             error.put("error", true);
             error.put("message", e.getMessage());
             error.put("pdfFiles", new ArrayList<File>());
-            error.put("candidates", new ArrayList<CandidateDTO>());
+            error.put("candidates", new ArrayList<CandidateRecord>());
             error.put("folderPath", "");
             return error;
         }
@@ -310,6 +331,18 @@ public class CertificateService {
             Map<String, File> uploadedFiles,
             File outputFolder,
             UserPrincipal currentUser
+    ) throws Exception {
+        return generateCertificatesByType(template, excelFile, uploadedFiles, outputFolder, currentUser, GenerationCheckpoint.NONE);
+    }
+
+    /** Same as above, skipping the rows {@code checkpoint} already committed and committing as it goes. */
+    public Map<String, Object> generateCertificatesByType(
+            Template template,
+            File excelFile,
+            Map<String, File> uploadedFiles,
+            File outputFolder,
+            UserPrincipal currentUser,
+            GenerationCheckpoint checkpoint
     ) throws Exception {
         // Load and register fonts (only first time)
         loadAllFonts();
@@ -317,106 +350,159 @@ public class CertificateService {
         int imageType = template.getImageType();
         switch (imageType) {
             case 1:
-                return generateType1Certificates(template, excelFile, uploadedFiles, outputFolder, currentUser);
+                return generateType1Certificates(template, excelFile, uploadedFiles, outputFolder, currentUser, checkpoint);
             case 2:
-                return generateType2Certificates(template, excelFile, uploadedFiles, outputFolder, currentUser);
+                return generateType2Certificates(template, excelFile, uploadedFiles, outputFolder, currentUser, checkpoint);
             case 3:
-                return generateType3Certificates(template, excelFile, uploadedFiles, outputFolder, currentUser);
+                return generateType3Certificates(template, excelFile, uploadedFiles, outputFolder, currentUser, checkpoint);
             case 4:
-                return generateType4Certificates(template, excelFile, outputFolder, currentUser);
+                return generateType4Certificates(template, excelFile, outputFolder, currentUser, checkpoint);
             case 5:
-                return generateType5Certificates(template, excelFile, outputFolder, currentUser);
+                return generateType5Certificates(template, excelFile, outputFolder, currentUser, checkpoint);
             default:
-                return generateType0Certificates(template, excelFile, outputFolder, currentUser);
+                return generateType0Certificates(template, excelFile, outputFolder, currentUser, checkpoint);
         }
     }
 
-    private Map<String, Object> generateType0Certificates(Template template, File excelFile, File outputFolder, UserPrincipal currentUser) throws Exception {
-        return generateWithStaticImages(template, excelFile, null, outputFolder, 0, null, currentUser);
+    private Map<String, Object> generateType0Certificates(Template template, File excelFile, File outputFolder, UserPrincipal currentUser, GenerationCheckpoint checkpoint) throws Exception {
+        return generateWithStaticImages(template, excelFile, null, outputFolder, 0, null, currentUser, checkpoint);
     }
 
-    private Map<String, Object> generateType1Certificates(Template template, File excelFile, Map<String, File> uploadedFiles, File outputFolder, UserPrincipal currentUser) throws Exception {
+    private Map<String, Object> generateType1Certificates(Template template, File excelFile, Map<String, File> uploadedFiles, File outputFolder, UserPrincipal currentUser, GenerationCheckpoint checkpoint) throws Exception {
         File extracted = extractZipImages(uploadedFiles, outputFolder);
-        return generateWithStaticImages(template, excelFile, extracted, outputFolder, 1, uploadedFiles, currentUser);
+        return generateWithStaticImages(template, excelFile, extracted, outputFolder, 1, uploadedFiles, currentUser, checkpoint);
     }
 
-    private Map<String, Object> generateType2Certificates(Template template, File excelFile, Map<String, File> uploadedFiles, File outputFolder, UserPrincipal currentUser) throws Exception {
+    private Map<String, Object> generateType2Certificates(Template template, File excelFile, Map<String, File> uploadedFiles, File outputFolder, UserPrincipal currentUser, GenerationCheckpoint checkpoint) throws Exception {
         File extracted = extractZipImages(uploadedFiles, outputFolder);
-        return generateWithStaticImages(template, excelFile, extracted, outputFolder, 2, uploadedFiles, currentUser);
+        return generateWithStaticImages(template, excelFile, extracted, outputFolder, 2, uploadedFiles, currentUser, checkpoint);
     }
 
-    private Map<String, Object> generateType3Certificates(Template template, File excelFile, Map<String, File> uploadedFiles, File outputFolder, UserPrincipal currentUser) throws Exception {
+    private Map<String, Object> generateType3Certificates(Template template, File excelFile, Map<String, File> uploadedFiles, File outputFolder, UserPrincipal currentUser, GenerationCheckpoint checkpoint) throws Exception {
         File extracted = extractZipImages(uploadedFiles, outputFolder);
-        return generateWithStaticImages(template, excelFile, extracted, outputFolder, 3, uploadedFiles, currentUser);
+        return generateWithStaticImages(template, excelFile, extracted, outputFolder, 3, uploadedFiles, currentUser, checkpoint);
     }
 
     private Map<String, Object> generateType4Certificates(
             Template template,
             File excelFile,
             File outputFolder,
-            UserPrincipal currentUser
+            UserPrincipal currentUser,
+            GenerationCheckpoint checkpoint
     ) throws Exception {
         logger.info("📘 Generating Type 4 Certificates (All Static Images)");
-        return generateWithStaticImages(template, excelFile, null, outputFolder, 4, null, currentUser);
+        return generateWithStaticImages(template, excelFile, null, outputFolder, 4, null, currentUser, checkpoint);
     }
 
     private Map<String, Object> generateType5Certificates(
             Template template,
             File excelFile,
             File outputFolder,
-            UserPrincipal currentUser
+            UserPrincipal currentUser,
+            GenerationCheckpoint checkpoint
     ) throws Exception {
         logger.info(" Generating Type 5 Certificates (All Static Images - Alternate Layout)");
-        return generateWithStaticImages(template, excelFile, null, outputFolder, 5, null, currentUser);
+        return generateWithStaticImages(template, excelFile, null, outputFolder, 5, null, currentUser, checkpoint);
     }
 
     private File extractZipImages(Map<String, File> uploadedFiles, File outputFolder) throws IOException {
-        if (uploadedFiles != null && uploadedFiles.containsKey("zipImage")) {
+        if (uploadedFiles != null && uploadedFiles.get(PHOTO_DIR) != null && uploadedFiles.get(PHOTO_DIR).isDirectory()) {
+            return uploadedFiles.get(PHOTO_DIR);
+        }
+        if (uploadedFiles != null && uploadedFiles.containsKey(PHOTO_ARCHIVE)) {
             File extracted = new File(outputFolder, "unzippedImages");
             if (!extracted.exists()) extracted.mkdirs();
-            unzipAndRenameImages(uploadedFiles.get("zipImage"), extracted);
+            unzipAndRenameImages(uploadedFiles.get(PHOTO_ARCHIVE), extracted);
             return extracted;
         }
         return null;
     }
 
-    private Map<String, Object> generateWithStaticImages(Template template, File excelFile, File extractedZipFolder, File outputFolder, int imageType, Map<String, File> uploadedFiles, UserPrincipal currentUser) throws Exception {
+    /**
+     * Unzips a photo archive into {@code destDir} once, so several runs over the same upload can share it through
+     * the {@link #PHOTO_DIR} upload. The archive is extracted next to it first and then moved into place.
+     */
+    public void extractPhotoArchive(File zipFile, File destDir) throws IOException {
+        File temp = new File(destDir.getParentFile(), destDir.getName() + ".tmp");
+        FileSystemUtils.deleteRecursively(temp);
+        if (!temp.mkdirs()) throw new IOException("Failed to create " + temp);
+        unzipAndRenameImages(zipFile, temp);
+        FileSystemUtils.deleteRecursively(destDir);
+        Files.move(temp.toPath(), destDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Map<String, Object> generateWithStaticImages(Template template, File excelFile, File extractedZipFolder, File outputFolder, int imageType, Map<String, File> uploadedFiles, UserPrincipal currentUser, GenerationCheckpoint checkpoint) throws Exception {
         List<File> pdfFiles = new ArrayList<>();
-        Map<String, CandidateDTO> uniqueBySid = new LinkedHashMap<>();
+        Map<String, CandidateRecord> uniqueBySid = new LinkedHashMap<>();
         Map<String, Integer> sidIndexMap = new HashMap<>();
-        List<CandidateDTO> candidates = parseExcel(excelFile, template);
+        int startRow = Math.max(0, checkpoint.startRow());
+        List<CandidateRecord> candidates = parseCandidates(excelFile, template, startRow, checkpoint.endRow());
         if (candidates == null || candidates.isEmpty()) throw new Exception("No candidates found");
+        boolean range = startRow > 0 || checkpoint.endRow() != Integer.MAX_VALUE;
         List<File> templateStaticImages = loadStaticImages(template.getTemplateFolder());
         List<File> baseStaticImages = loadStaticImages(baseTemplateFolder);
+        PhotoIndex photos = extractedZipFolder == null ? null : PhotoIndex.ofDirectory(extractedZipFolder);
+        ReportBatchWriter.Batch reports = reportBatchWriter.open(currentUser);
+        String templateHash = templateFingerprint(template, templateStaticImages, baseStaticImages, imageType, uploadedFiles);
+        Map<String, String[]> previous = !reuseUnchanged || templateHash == null ? Map.of()
+                : previousCertificates(template.getId(), range ? candidates : null);
+        int reused = 0;
+
+        int endRow = startRow + candidates.size();
+        checkpoint.started(endRow);
+        int resumeFrom = Math.min(checkpoint.committedRows(), endRow);
+        for (Map.Entry<String, File> done : checkpoint.committedFiles().entrySet()) {
+            sidIndexMap.put(done.getKey(), pdfFiles.size());
+            pdfFiles.add(done.getValue());
+        }
+        if (resumeFrom > 0) logger.info("Resuming template {} after {} committed rows", template.getId(), resumeFrom);
+        Map<String, File> produced = new LinkedHashMap<>();
+        int interval = Math.max(1, checkpoint.interval());
 
-        for (CandidateDTO candidate : candidates) {
+        for (int row = startRow; row < endRow; row++) {
+            CandidateRecord candidate = candidates.get(row - startRow);
             String sid = candidate.getSid();
             if (sid == null || sid.trim().isEmpty()) continue;
-            if (!uniqueBySid.containsKey(sid)) {
-                uniqueBySid.put(sid, candidate);
-                Report report = createReport(candidate, currentUser);
-                reportService.saveOrUpdateBySid(report, currentUser);
-                File pdfFile = generateCertificateForCandidate(template, candidate, templateStaticImages, baseStaticImages, extractedZipFolder, imageType, uploadedFiles, outputFolder);
+            uniqueBySid.put(sid, candidate);
+            if (row < resumeFrom) continue;
+            String fingerprint = candidateFingerprint(templateHash, candidate, photos, imageType);
+            Report report = createReport(candidate, template, currentUser);
+            report.setFingerprint(fingerprint);
+
+            Integer idx = sidIndexMap.get(sid);
+            if (idx != null) {
+                File old = pdfFiles.get(idx);
+                if (old.exists()) old.delete();
+            }
+            String[] stored = previous.get(sid);
+            File pdfFile = reuseStored(fingerprint, stored, candidate, outputFolder, imageType);
+            if (pdfFile != null) {
+                report.setPdfHash(stored[1]);
+                reused++;
+            } else {
+                pdfFile = generateCertificateForCandidate(template, candidate, templateStaticImages, baseStaticImages, photos, imageType, uploadedFiles, outputFolder);
+                report.setPdfHash(certificateStore.store(pdfFile));
+            }
+            reports.add(report);
+            if (idx != null) {
+                pdfFiles.set(idx, pdfFile);
+            } else {
                 sidIndexMap.put(sid, pdfFiles.size());
                 pdfFiles.add(pdfFile);
-            } else {
-                uniqueBySid.put(sid, candidate);
-                Report report = createReport(candidate, currentUser);
-                reportService.saveOrUpdateBySid(report, currentUser);
-                Integer idx = sidIndexMap.get(sid);
-                if (idx != null) {
-                    File old = pdfFiles.get(idx);
-                    if (old.exists()) old.delete();
-                    File pdfFile = generateCertificateForCandidate(template, candidate, templateStaticImages, baseStaticImages, extractedZipFolder, imageType, uploadedFiles, outputFolder);
-                    pdfFiles.set(idx, pdfFile);
-                } else {
-                    File pdfFile = generateCertificateForCandidate(template, candidate, templateStaticImages, baseStaticImages, extractedZipFolder, imageType, uploadedFiles, outputFolder);
-                    sidIndexMap.put(sid, pdfFiles.size());
-                    pdfFiles.add(pdfFile);
-                }
+            }
+            produced.put(sid, pdfFile);
+
+            if ((row + 1) % interval == 0) {
+                reports.flush();
+                checkpoint.commit(row + 1, produced);
+                produced.clear();
             }
         }
 
+        reports.flush();
+        checkpoint.commit(endRow, produced);
+        if (reused > 0) logger.info("Reused {} unchanged certificates for template {}", reused, template.getId());
+
         // Special handling for Type 4 and Type 5 - merge them into single PDFs
         if (imageType == 4 || imageType == 5) {
             mergeType4AndType5Certificates(outputFolder, pdfFiles, uniqueBySid);
@@ -425,20 +511,74 @@ public class CertificateService {
         return createResultMap(pdfFiles, uniqueBySid, outputFolder);
     }
 
-    private Report createReport(CandidateDTO candidate, UserPrincipal currentUser) {
+    /**
+     * Hash of everything the run shares: image type, JRXML and the image files handed to the fill in
+     * {@link #setupImageParameters}, by parameter. Null when a file cannot be read; the run then renders every row.
+     */
+    private String templateFingerprint(Template template, List<File> templateStaticImages, List<File> baseStaticImages, int imageType, Map<String, File> uploadedFiles) {
+        Map<String, File> images = staticImageParameters(templateStaticImages, baseStaticImages);
+        if (imageType >= 2 && uploadedFiles != null) images.put("imgParam5", uploadedFiles.get(LOGO));
+        if (imageType >= 3 && uploadedFiles != null) images.put("imgParam6", uploadedFiles.get(SIGN));
+        try {
+            return CertificateFingerprint.ofTemplate(imageType, new File(template.getJrxmlPath()), images);
+        } catch (Exception e) {
+            logger.warn("Could not fingerprint template {}; rendering every row: {}", template.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private String candidateFingerprint(String templateHash, CandidateRecord candidate, PhotoIndex photos, int imageType) {
+        if (templateHash == null) return null;
+        File photo = imageType >= 1 && photos != null ? photos.resolve(candidate.getSid()) : null;
+        try {
+            return CertificateFingerprint.of(templateHash, candidate, photo);
+        } catch (IOException e) {
+            logger.warn("Could not fingerprint SID {}: {}", candidate.getSid(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * {fingerprint, pdf hash} of the certificate last delivered per SID of this template; only for the SIDs of
+     * {@code candidates} when given, so a chunk of a large job does not load the whole template's history.
+     */
+    private Map<String, String[]> previousCertificates(Long templateId, List<CandidateRecord> candidates) {
+        List<Object[]> rows;
+        if (candidates == null) {
+            rows = reportRepository.findStoredCertificatesByTemplateId(templateId);
+        } else {
+            Set<String> sids = new HashSet<>();
+            for (CandidateRecord candidate : candidates) sids.add(candidate.getSid());
+            rows = reportRepository.findStoredCertificatesByTemplateIdAndSidIn(templateId, sids);
+        }
+        Map<String, String[]> bySid = new HashMap<>();
+        for (Object[] row : rows) {
+            bySid.putIfAbsent((String) row[0], new String[]{(String) row[1], (String) row[2]});
+        }
+        return bySid;
+    }
+
+    /** The stored PDF when the row renders exactly as last time, otherwise null. */
+    private File reuseStored(String fingerprint, String[] previous, CandidateRecord candidate, File outputFolder, int imageType) {
+        if (!reuseUnchanged || fingerprint == null || previous == null || !fingerprint.equals(previous[0])) return null;
+        File out = new File(outputFolder, pdfFileName(candidate, imageType));
+        return certificateStore.copyTo(previous[1], out) ? out : null;
+    }
+
+    private Report createReport(CandidateRecord candidate, Template template, UserPrincipal currentUser) {
         Report report = new Report();
         report.setSid(candidate.getSid());
         report.setCandidateName(candidate.getCandidateName());
         report.setGrade(candidate.getGrade());
         report.setBatchId(candidate.getBatchId());
-        report.setTemplateName(candidate.getTemplate() != null ? candidate.getTemplate().getTemplateName() : null);
+        report.setTemplateName(template != null ? template.getTemplateName() : null);
         report.setJobrole(candidate.getJobRole());
         report.setLevel(candidate.getLevel());
-        report.setTemplate(candidate.getTemplate());
+        report.setTemplate(template);
         return report;
     }
 
-    private File generateCertificateForCandidate(Template template, CandidateDTO candidate, List<File> templateStaticImages, List<File> baseStaticImages, File extractedZipFolder, int imageType, Map<String, File> uploadedFiles, File outputFolder) throws Exception {
+    private File generateCertificateForCandidate(Template template, CandidateRecord candidate, List<File> templateStaticImages, List<File> baseStaticImages, PhotoIndex photos, int imageType, Map<String, File> uploadedFiles, File outputFolder) throws Exception {
         if (template.getJrxmlPath() == null || template.getJrxmlPath().trim().isEmpty())
             throw new IllegalArgumentException("JRXML path missing");
         JasperReport jasperReport;
@@ -447,79 +587,18 @@ public class CertificateService {
         }
 
         Map<String, Object> parameters = createJasperParameters();
-        setupImageParameters(parameters, templateStaticImages, baseStaticImages, extractedZipFolder, imageType, uploadedFiles, candidate);
-
-        CandidateDTO dataCandidate = createModifiedCandidateForHtml(candidate);
-
-        try {
-            JasperDesign design = JRXmlLoader.load(new File(template.getJrxmlPath()));
-            if (design.getFieldsList() != null) {
-                Set<String> fields = new HashSet<>();
-                design.getFieldsList().forEach(f -> fields.add(f.getName()));
-                fields.removeIf(Objects::isNull);
-                logger.debug("JRXML Fields: {}", fields);
-            }
-            if (design.getParametersList() != null) {
-                Set<String> params = new HashSet<>();
-                design.getParametersList().forEach(p -> {
-                    if (!p.isSystemDefined()) params.add(p.getName());
-                });
-                logger.debug("JRXML Parameters: {}", params);
-            }
-        } catch (Exception e) {
-            logger.debug("Could not load JasperDesign for debugging: {}", e.getMessage());
-        }
+        setupImageParameters(parameters, templateStaticImages, baseStaticImages, photos, imageType, uploadedFiles, candidate);
 
         JasperReportsContext ctx = DefaultJasperReportsContext.getInstance();
         JRPropertiesUtil.getInstance(ctx).setProperty("net.sf.jasperreports.markup.html", "styled");
         JRPropertiesUtil.getInstance(ctx).setProperty("net.sf.jasperreports.text.markup.html", "styled");
         JRPropertiesUtil.getInstance(ctx).setProperty("net.sf.jasperreports.export.pdf.styled.text", "true");
 
-        JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, new JRBeanCollectionDataSource(Collections.singletonList(dataCandidate)));
+        JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, new CandidateDataSource(candidate, template));
 
         return exportToPdf(jasperPrint, candidate, outputFolder, imageType);
     }
 
-    /**
-     * Create a shallow copy of CandidateDTO used for JR filling (keeps original safe).
-     */
-    private CandidateDTO createModifiedCandidateForHtml(CandidateDTO original) {
-        CandidateDTO m = new CandidateDTO();
-        m.setSalutation(original.getSalutation());
-        m.setCandidateName(original.getCandidateName());
-        m.setJobRole(original.getJobRole());
-        m.setGuardianType(original.getGuardianType());
-        m.setFatherORHusbandName(original.getFatherORHusbandName());
-        m.setSectorSkillCouncil(original.getSectorSkillCouncil());
-        m.setDateOfIssuance(original.getDateOfIssuance());
-        m.setLevel(original.getLevel());
-        m.setAadhaarNumber(original.getAadhaarNumber());
-        m.setSector(original.getSector());
-        m.setGrade(original.getGrade());
-        m.setDateOfStart(original.getDateOfStart());
-        m.setDateOfEnd(original.getDateOfEnd());
-        m.setMarks(original.getMarks());
-        m.setMarks1(original.getMarks1());
-        m.setMarks2(original.getMarks2());
-        m.setMarks3(original.getMarks3());
-        m.setMarks4(original.getMarks4());
-        m.setMarks5(original.getMarks5());
-        m.setMarks6(original.getMarks6());
-        m.setMarks7(original.getMarks7());
-        m.setMarks8(original.getMarks8());
-        m.setMarks9(original.getMarks9());
-        m.setMarks10(original.getMarks10());
-        m.setBatchId(original.getBatchId());
-        m.setState(original.getState());
-        m.setDistrict(original.getDistrict());
-        m.setCourseName(original.getCourseName());
-        m.setDuration(original.getDuration());
-        m.setPlace(original.getPlace());
-        m.setTemplate(original.getTemplate());
-        m.setSid(original.getSid());
-        return m;
-    }
-
     private Map<String, Object> createJasperParameters() {
         Map<String, Object> parameters = new HashMap<>();
         parameters.put(JRParameter.REPORT_LOCALE, Locale.ENGLISH);
@@ -537,35 +616,47 @@ public class CertificateService {
         return parameters;
     }
 
-    private void setupImageParameters(Map<String, Object> parameters, List<File> templateStaticImages, List<File> baseStaticImages, File extractedZipFolder, int imageType, Map<String, File> uploadedFiles, CandidateDTO candidate) {
+    private void setupImageParameters(Map<String, Object> parameters, List<File> templateStaticImages, List<File> baseStaticImages, PhotoIndex photos, int imageType, Map<String, File> uploadedFiles, CandidateRecord candidate) {
+        staticImageParameters(templateStaticImages, baseStaticImages).forEach((name, f) -> parameters.put(name, f.getAbsolutePath()));
+        if (imageType >= 1 && photos != null) {
+            File candidateImg = photos.resolve(candidate.getSid());
+            if (candidateImg != null) parameters.put("imgParam3", candidateImg.getAbsolutePath());
+        }
+        if (imageType >= 2 && uploadedFiles != null && uploadedFiles.containsKey(LOGO))
+            parameters.put("imgParam5", uploadedFiles.get(LOGO).getAbsolutePath());
+        if (imageType >= 3 && uploadedFiles != null && uploadedFiles.containsKey(SIGN))
+            parameters.put("imgParam6", uploadedFiles.get(SIGN).getAbsolutePath());
+    }
+
+    /** Static images by fill parameter: the first one named like "bg" is the background, the rest imgParam1..14. */
+    private Map<String, File> staticImageParameters(List<File> templateStaticImages, List<File> baseStaticImages) {
         List<File> all = new ArrayList<>();
         if (templateStaticImages != null) all.addAll(templateStaticImages);
         if (baseStaticImages != null) all.addAll(baseStaticImages);
+        Map<String, File> parameters = new LinkedHashMap<>();
         File bg = all.stream().filter(f -> f.getName().toLowerCase().contains("bg")).findFirst().orElse(null);
-        if (bg != null) parameters.put("imgParamBG", bg.getAbsolutePath());
+        if (bg != null) parameters.put("imgParamBG", bg);
         int idx = 1;
         for (File f : all) {
             if (bg != null && f.equals(bg)) continue;
-            parameters.put("imgParam" + idx++, f.getAbsolutePath());
+            parameters.put("imgParam" + idx++, f);
             if (idx > 15) break;
         }
-        if (imageType >= 1 && extractedZipFolder != null) {
-            File candidateImg = findCandidateImage(extractedZipFolder, candidate.getSid());
-            if (candidateImg != null) parameters.put("imgParam3", candidateImg.getAbsolutePath());
-        }
-        if (imageType >= 2 && uploadedFiles != null && uploadedFiles.containsKey("logo"))
-            parameters.put("imgParam5", uploadedFiles.get("logo").getAbsolutePath());
-        if (imageType >= 3 && uploadedFiles != null && uploadedFiles.containsKey("signature"))
-            parameters.put("imgParam6", uploadedFiles.get("signature").getAbsolutePath());
+        return parameters;
     }
 
-    private File exportToPdf(JasperPrint jasperPrint, CandidateDTO candidate, File outputFolder, int imageType) throws JRException {
+    private String pdfFileName(CandidateRecord candidate, int imageType) {
         String safeName = candidate.getCandidateName() == null ? "unknown" : candidate.getCandidateName().replaceAll("[^a-zA-Z0-9\\-_]", "_");
         String sid = candidate.getSid() == null ? String.valueOf(System.currentTimeMillis()) : candidate.getSid().replaceAll("[^a-zA-Z0-9\\-_]", "_");
 
         // Add image type to filename for identification
-        String pdfName = sid + "_" + safeName + "_type" + imageType + ".pdf";
-        File out = new File(outputFolder, pdfName);
+        return sid + "_" + safeName + "_type" + imageType + ".pdf";
+    }
+
+    private File exportToPdf(JasperPrint jasperPrint, CandidateRecord candidate, File outputFolder, int imageType) throws JRException {
+        File out = new File(outputFolder, pdfFileName(candidate, imageType));
+        // may be a hard link into the certificate store; never write through it
+        if (out.exists()) out.delete();
 
         JRPdfExporter exporter = new JRPdfExporter();
         exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
@@ -588,7 +679,7 @@ public class CertificateService {
         return out;
     }
 
-    private Map<String, Object> createResultMap(List<File> pdfFiles, Map<String, CandidateDTO> uniqueBySid, File outputFolder) {
+    private Map<String, Object> createResultMap(List<File> pdfFiles, Map<String, CandidateRecord> uniqueBySid, File outputFolder) {
         Map<String, Object> result = new HashMap<>();
         result.put("error", false);
         result.put("message", "Certificates generated");
@@ -630,133 +721,46 @@ public class CertificateService {
         }
     }
 
-    private File findCandidateImage(File folder, String sid) {
-        if (folder == null || sid == null) return null;
-        File[] files = folder.listFiles();
-        if (files == null) return null;
-        for (File f : files) {
-            if (f.getName().toLowerCase().contains(sid.toLowerCase()) && isImageFile(f.getName())) return f;
-        }
-        return null;
-    }
-
     private boolean isImageFile(String name) {
-        String n = name.toLowerCase();
-        return n.endsWith(".jpg") || n.endsWith(".jpeg") || n.endsWith(".png") || n.endsWith(".gif") || n.endsWith(".bmp");
-    }
-
-    private List<CandidateDTO> parseExcel(File excelFile, Template template) throws Exception {
-        List<CandidateDTO> candidates = new ArrayList<>();
-        if (excelFile == null || !excelFile.exists()) throw new FileNotFoundException("Excel file missing");
-        try (FileInputStream fis = new FileInputStream(excelFile); Workbook workbook = WorkbookFactory.create(fis)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null) throw new Exception("No sheet");
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null || isRowEmpty(row)) continue;
-                CandidateDTO c = createCandidateFromRow(row, template);
-                if (isValidCandidate(c)) candidates.add(c);
-            }
+        return PhotoIndex.isImageFile(name);
+    }
+
+    /** Number of rows {@link #generateCertificatesByType} would work through for this file. */
+    public int countCandidates(File excelFile, Template template) throws Exception {
+        int[] rows = {0};
+        CandidateFileReader.read(excelFile, preflightService.templateFields(template), (c, rowNumber) -> {
+            if (isValidCandidate(c)) rows[0]++;
+        });
+        return rows[0];
+    }
+
+    /** Valid rows [startRow, endRow) of the upload; reading stops at {@code endRow}. */
+    private List<CandidateRecord> parseCandidates(File excelFile, Template template, int startRow, int endRow) throws Exception {
+        List<CandidateRecord> candidates = new ArrayList<>();
+        int[] row = {0};
+        CandidateColumnMapping mapping = CandidateFileReader.read(excelFile, preflightService.templateFields(template),
+                (c, rowNumber) -> {
+                    if (!isValidCandidate(c)) return;
+                    if (row[0] >= startRow) candidates.add(c);
+                    row[0]++;
+                }, () -> row[0] >= endRow);
+        if (!mapping.isHeaderDriven()) {
+            logger.info("Header row not recognised for template {}; using the fixed column layout", template.getId());
         }
-        return candidates;
-    }
-    private CandidateDTO createCandidateFromRow(Row row, Template template) {
-        CandidateDTO candidate = new CandidateDTO();
-        candidate.setSalutation(getSafeCellValue(row.getCell(0)));
-        candidate.setCandidateName(getSafeCellValue(row.getCell(1)));
-        candidate.setSid(getSafeCellValue(row.getCell(2)));
-        candidate.setJobRole(getSafeCellValue(row.getCell(3)));
-        candidate.setGuardianType(getSafeCellValue(row.getCell(4)));
-        candidate.setFatherORHusbandName(getSafeCellValue(row.getCell(5)));
-        candidate.setSectorSkillCouncil(getSafeCellValue(row.getCell(6)));
-        candidate.setDateOfIssuance(getSafeCellValue(row.getCell(7)));
-        candidate.setLevel(getSafeCellValue(row.getCell(8)));
-        candidate.setAadhaarNumber(getSafeCellValue(row.getCell(9)));
-        candidate.setSector(getSafeCellValue(row.getCell(10)));
-        candidate.setGrade(getSafeCellValue(row.getCell(11)));
-        candidate.setDateOfStart(getSafeCellValue(row.getCell(12)));
-        candidate.setDateOfEnd(getSafeCellValue(row.getCell(13)));
-        candidate.setMarks(getSafeCellValue(row.getCell(14)));
-        candidate.setMarks1(getSafeCellValue(row.getCell(15)));
-        candidate.setMarks2(getSafeCellValue(row.getCell(16)));
-        candidate.setMarks3(getSafeCellValue(row.getCell(17)));
-        candidate.setMarks4(getSafeCellValue(row.getCell(18)));
-        candidate.setMarks5(getSafeCellValue(row.getCell(19)));
-        candidate.setMarks6(getSafeCellValue(row.getCell(20)));
-        candidate.setMarks7(getSafeCellValue(row.getCell(21)));
-        candidate.setMarks8(getSafeCellValue(row.getCell(22)));
-        candidate.setMarks9(getSafeCellValue(row.getCell(23)));
-        candidate.setMarks10(getSafeCellValue(row.getCell(24)));
-        candidate.setBatchId(getSafeCellValue(row.getCell(25)));
-        candidate.setState(getSafeCellValue(row.getCell(26)));
-        candidate.setDistrict(getSafeCellValue(row.getCell(27)));
-        candidate.setPlace(getSafeCellValue(row.getCell(28)));
-        candidate.setTemplate(template);
-        return candidate;
-    }
-
-    private String getSafeCellValue(Cell cell) {
-        if (cell == null) return "";
-        try {
-            switch (cell.getCellType()) {
-                case STRING:
-                    return cell.getStringCellValue().trim();
-                case NUMERIC:
-                    if (DateUtil.isCellDateFormatted(cell)) {
-                        return new SimpleDateFormat("dd-MM-yyyy").format(cell.getDateCellValue());
-                    }
-                    double val = cell.getNumericCellValue();
-                    if (val == Math.floor(val)) return String.valueOf((long) val);
-                    return String.valueOf(val);
-                case BOOLEAN:
-                    return String.valueOf(cell.getBooleanCellValue());
-                case FORMULA:
-                    try {
-                        FormulaEvaluator evaluator = cell.getSheet().getWorkbook()
-                                .getCreationHelper().createFormulaEvaluator();
-                        CellValue cv = evaluator.evaluate(cell);
-                        switch (cv.getCellType()) {
-                            case STRING:
-                                return cv.getStringValue().trim();
-                            case NUMERIC:
-                                if (DateUtil.isCellDateFormatted(cell)) {
-                                    return new SimpleDateFormat("dd-MM-yyyy")
-                                            .format(cell.getDateCellValue());
-                                }
-                                double fv = cv.getNumberValue();
-                                if (fv == Math.floor(fv)) return String.valueOf((long) fv);
-                                return String.valueOf(fv);
-                            case BOOLEAN:
-                                return String.valueOf(cv.getBooleanValue());
-                            default:
-                                return "";
-                        }
-                    } catch (Exception e) {
-                        return cell.toString().trim();
-                    }
-                default:
-                    return cell.toString().trim();
-            }
-        } catch (Exception e) {
-            return "";
+        if (!mapping.getUnknownTemplateFields().isEmpty()) {
+            logger.warn("Template {} declares fields with no candidate column: {}", template.getId(), mapping.getUnknownTemplateFields());
         }
-    }
-
-    private boolean isRowEmpty(Row row) {
-        if (row == null) return true;
-        for (Cell cell : row) {
-            if (cell != null && cell.getCellType() != CellType.BLANK &&
-                    cell.toString().trim().length() > 0) {
-                return false;
-            }
+        if (!mapping.getMissingTemplateFields().isEmpty()) {
+            logger.warn("Upload has no column for template fields {}; they will be blank", mapping.getMissingTemplateFields());
         }
-        return true;
+        return candidates;
     }
-    private boolean isValidCandidate(CandidateDTO c) {
+
+    private boolean isValidCandidate(CandidateRecord c) {
         return c.getSid() != null && !c.getSid().trim().isEmpty()
                 && c.getCandidateName() != null && !c.getCandidateName().trim().isEmpty();
     }
-    private void mergeType4AndType5Certificates(File outputFolder, List<File> pdfFiles, Map<String, CandidateDTO> uniqueBySid) {
+    private void mergeType4AndType5Certificates(File outputFolder, List<File> pdfFiles, Map<String, CandidateRecord> uniqueBySid) {
         try {
             logger.info("Starting Type 4 and Type 5 certificate merging...");
 
@@ -817,7 +821,7 @@ public class CertificateService {
     private File mergeTwoPdfs(File pdf1, File pdf2, String sid, File outputFolder) {
         try {
             // Create merged filename
-            CandidateDTO candidate = findCandidateBySid(sid);
+            CandidateRecord candidate = findCandidateBySid(sid);
             String safeName = candidate != null && candidate.getCandidateName() != null ?
                     candidate.getCandidateName().replaceAll("[^a-zA-Z0-9\\-_]", "_") : "unknown";
             String mergedFileName = sid + "_" + safeName + "_merged.pdf";
@@ -837,7 +841,7 @@ public class CertificateService {
         }
     }
 
-    private CandidateDTO findCandidateBySid(String sid) {
+    private CandidateRecord findCandidateBySid(String sid) {
         // This method would need access to the candidates data
         // You might need to pass the candidates map or use a different approach
         return null; // Implement based on your data structure
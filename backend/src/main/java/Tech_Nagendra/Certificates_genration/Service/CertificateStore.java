@@ -0,0 +1,251 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Repository.CertificateBlobRepository;
+import Tech_Nagendra.Certificates_genration.Repository.ReportRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store of delivered certificates. A PDF is kept once under the SHA-256 of its bytes at
+ * {@code <store-dir>/ab/cd/<hash>.pdf}, however many reports point at it, and is tracked in certificate_blobs with
+ * its size, reference count and last access. Writes go through a temp file and an atomic rename, so a reader never
+ * sees a partial PDF.
+ * Eviction runs nightly: unreferenced blobs after a grace period, blobs not used for {@code max-age-days}, and then
+ * least recently used blobs while the store is above {@code max-size-mb}. Reports pointing at an evicted blob lose
+ * the reference and are rendered again next time.
+ */
+@Service
+public class CertificateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CertificateStore.class);
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final int EVICT_BATCH = 500;
+
+    @Autowired
+    private CertificateBlobRepository blobRepository;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    /** Self reference so the bookkeeping below runs through the transactional proxy. */
+    @Autowired
+    @Lazy
+    private CertificateStore self;
+
+    @Value("${app.certificates.store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.certificates.store-dir:C:/certificate_storage/certificates}")
+    private String storeDir;
+
+    @Value("${app.certificates.store.orphan-grace-hours:24}")
+    private long orphanGraceHours;
+
+    @Value("${app.certificates.store.max-age-days:365}")
+    private long maxAgeDays;
+
+    @Value("${app.certificates.store.max-size-mb:51200}")
+    private long maxSizeMb;
+
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * Adds {@code pdf} to the store. The blob starts with no references; the report that delivers it takes one
+     * when it is written.
+     *
+     * @return the content hash, or null when the store is disabled or the file could not be stored
+     */
+    public String store(File pdf) {
+        if (!enabled || pdf == null || !pdf.isFile()) return null;
+        Path temp = null;
+        try {
+            Path incoming = Paths.get(storeDir, "incoming");
+            Files.createDirectories(incoming);
+            temp = Files.createTempFile(incoming, "certificate", ".tmp");
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(pdf.toPath()), digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HEX.formatHex(digest.digest());
+            Path target = pathOf(hash);
+            if (!Files.isRegularFile(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            self.register(hash, Files.size(target));
+            return hash;
+        } catch (Exception e) {
+            logger.warn("Could not store certificate {}: {}", pdf.getName(), e.getMessage());
+            return null;
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /** Stored file for {@code hash}, or null. */
+    public Path find(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) return null;
+        Path path = pathOf(hash);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    /**
+     * Places the stored certificate at {@code target}, as a hard link when the file system allows it.
+     *
+     * @return false when nothing is stored under {@code hash} or it could not be placed
+     */
+    public boolean copyTo(String hash, File target) {
+        Path source = find(hash);
+        if (source == null) return false;
+        try {
+            Files.deleteIfExists(target.toPath());
+            try {
+                Files.createLink(target.toPath(), source);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(source, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            self.touch(hash);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not reuse stored certificate {}: {}", hash, e.getMessage());
+            return false;
+        }
+    }
+
+    /** Adds the change of one report's blob, from {@code before} to {@code after}, to {@code deltas}. */
+    public static void collect(Map<String, Long> deltas, String before, String after) {
+        if (Objects.equals(before, after)) return;
+        if (before != null) deltas.merge(before, -1L, Long::sum);
+        if (after != null) deltas.merge(after, 1L, Long::sum);
+    }
+
+    @Transactional
+    public void register(String hash, long size) {
+        blobRepository.register(hash, size, LocalDateTime.now());
+    }
+
+    @Transactional
+    public void applyReferences(Map<String, Long> deltas) {
+        deltas.forEach((hash, delta) -> {
+            if (delta != 0) blobRepository.adjustReferences(hash, delta);
+        });
+    }
+
+    /** Marks a blob as used; written at most once an hour per blob. */
+    @Transactional
+    public void touch(String hash) {
+        LocalDateTime now = LocalDateTime.now();
+        blobRepository.touch(hash, now, now.minusHours(1));
+    }
+
+    @Scheduled(cron = "${app.certificates.store.evict-cron:0 0 3 * * *}")
+    public void nightlyEvict() {
+        evict();
+    }
+
+    /** Applies the retention policy; returns the number of blobs removed, or 0 when eviction is already running. */
+    public int evict() {
+        if (!enabled || !evicting.compareAndSet(false, true)) return 0;
+        try {
+            self.reconcileReferences();
+            LocalDateTime now = LocalDateTime.now();
+            int evicted = evictAll(page -> blobRepository.findOrphanHashes(now.minusHours(orphanGraceHours), page));
+            if (maxAgeDays > 0) {
+                evicted += evictAll(page -> blobRepository.findHashesNotAccessedSince(now.minusDays(maxAgeDays), page));
+            }
+            if (maxSizeMb > 0) evicted += evictToSize(maxSizeMb * 1024 * 1024);
+            if (evicted > 0) logger.info("Evicted {} certificates from the store", evicted);
+            return evicted;
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    @Transactional
+    public void reconcileReferences() {
+        blobRepository.reconcileReferences();
+    }
+
+    /** Drops the blobs and every report reference to them; the files are deleted after commit by the caller. */
+    @Transactional
+    public void forget(Collection<String> hashes) {
+        reportRepository.clearPdfHashes(hashes);
+        blobRepository.deleteByHashes(hashes);
+    }
+
+    private int evictAll(Function<Pageable, List<String>> query) {
+        int evicted = 0;
+        List<String> hashes;
+        while (!(hashes = query.apply(PageRequest.of(0, EVICT_BATCH))).isEmpty()) {
+            remove(hashes);
+            evicted += hashes.size();
+        }
+        return evicted;
+    }
+
+    private int evictToSize(long limitBytes) {
+        long excess = blobRepository.totalSize() - limitBytes;
+        int evicted = 0;
+        while (excess > 0) {
+            List<Object[]> rows = blobRepository.findLeastRecentlyUsed(PageRequest.of(0, EVICT_BATCH));
+            if (rows.isEmpty()) break;
+            List<String> hashes = new ArrayList<>();
+            for (Object[] row : rows) {
+                if (excess <= 0) break;
+                hashes.add((String) row[0]);
+                excess -= ((Number) row[1]).longValue();
+            }
+            remove(hashes);
+            evicted += hashes.size();
+        }
+        return evicted;
+    }
+
+    private void remove(List<String> hashes) {
+        self.forget(hashes);
+        for (String hash : hashes) deleteQuietly(pathOf(hash));
+    }
+
+    private Path pathOf(String hash) {
+        return Paths.get(storeDir, hash.substring(0, 2), hash.substring(2, 4), hash + ".pdf");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -3,18 +3,23 @@ package Tech_Nagendra.Certificates_genration.Service;
 import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
 import Tech_Nagendra.Certificates_genration.Repository.ProfileRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import java.util.List;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private ProfileRepository profileRepository;
 
+    @Autowired
+    private UserProfileCacheService userProfileCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         UserProfile user = profileRepository.findByUsername(username)
@@ -24,10 +29,21 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("Password not set for user: " + username);
         }
 
-        return new org.springframework.security.core.userdetails.User(
+        return new User(
                 user.getUsername(),
                 user.getPassword(),
                 List.of()
         );
     }
+
+    /** Called after a successful login whose stored password uses an outdated encoding. */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserProfile profile = profileRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + user.getUsername()));
+        profile.setPassword(newPassword);
+        profileRepository.save(profile);
+        userProfileCache.evict(profile.getId());
+        return User.withUserDetails(user).password(newPassword).build();
+    }
 }
@@ -0,0 +1,104 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the dashboard counts and statistics.
+ * Entries are keyed by aggregate name and scope ("all" or "user:{id}") and dropped once a transaction that wrote
+ * reports ({@link ReportsWrittenEvent}) or templates ({@link TemplatesChangedEvent}) commits. The TTL only bounds
+ * staleness for writes that bypass those events. Those events only reach this node, so with
+ * {@code app.generation.mode=distributed} writes on other nodes are seen once an entry expires, and entries live
+ * for {@code distributed-ttl-seconds} at most. Cached values are shared between requests and must not be modified.
+ */
+@Service
+public class DashboardCacheService {
+
+    public static final String REPORTS = "reports.";
+    public static final String TEMPLATES = "templates.";
+
+    private static final String ALL = "all";
+
+    @Value("${app.dashboard-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${app.dashboard-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${app.dashboard-cache.distributed-ttl-seconds:15}")
+    private long distributedTtlSeconds;
+
+    @Value("${app.generation.mode:local}")
+    private String mode;
+
+    private Cache<Key, Object> entries;
+
+    /** Bumped on every invalidation; a value loaded across one is returned but not kept. */
+    private final AtomicLong generation = new AtomicLong();
+
+    private record Key(String name, String scope) {
+    }
+
+    @PostConstruct
+    public void init() {
+        long ttl = "distributed".equalsIgnoreCase(mode) ? Math.min(ttlSeconds, distributedTtlSeconds) : ttlSeconds;
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .recordStats()
+                .build();
+    }
+
+    /** Scope of a caller who sees everything ({@code all}) or only their own rows. */
+    public static String scope(boolean all, Long userId) {
+        return all ? ALL : "user:" + userId;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name, String scope, Supplier<T> loader) {
+        Key key = new Key(name, scope);
+        long started = generation.get();
+        T value = (T) entries.get(key, k -> loader.get());
+        if (generation.get() != started) entries.invalidate(key);
+        return value;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportsWritten(ReportsWrittenEvent event) {
+        invalidate(REPORTS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplatesChanged(TemplatesChangedEvent event) {
+        invalidate(TEMPLATES);
+    }
+
+    /** Drops every entry whose name starts with {@code prefix}. */
+    public void invalidate(String prefix) {
+        generation.incrementAndGet();
+        entries.asMap().keySet().removeIf(key -> key.name().startsWith(prefix));
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = entries.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", entries.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000d);
+        return result;
+    }
+}
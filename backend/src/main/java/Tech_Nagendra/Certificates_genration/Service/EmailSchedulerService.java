@@ -1,6 +1,5 @@
 package Tech_Nagendra.Certificates_genration.Service;
 
-import Tech_Nagendra.Certificates_genration.Entity.Report;
 import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
 import Tech_Nagendra.Certificates_genration.Repository.ReportRepository;
 import com.lowagie.text.Document;
@@ -24,8 +23,6 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class EmailSchedulerService {
@@ -63,14 +60,7 @@ public class EmailSchedulerService {
             Date start = Date.from(startDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
             Date end = Date.from(endDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
 
-            List<Report> allReports = reportRepository.findAll();
-
-            Map<UserProfile, List<Report>> grouped = allReports.stream()
-                    .filter(r -> r.getGeneratedOn() != null
-                            && !r.getGeneratedOn().before(start)
-                            && !r.getGeneratedOn().after(end)
-                            && r.getGeneratedBy() != null)
-                    .collect(Collectors.groupingBy(Report::getGeneratedBy));
+            List<Object[]> grouped = reportRepository.countPerGeneratedBy(start, end);
 
             if (grouped.isEmpty()) {
                 lastRunStatus = "NO_DATA";
@@ -78,10 +68,9 @@ public class EmailSchedulerService {
                 return;
             }
 
-            for (Map.Entry<UserProfile, List<Report>> entry : grouped.entrySet()) {
-                UserProfile user = entry.getKey();
-                List<Report> reports = entry.getValue();
-                int count = reports.size();
+            for (Object[] row : grouped) {
+                UserProfile user = (UserProfile) row[0];
+                int count = ((Number) row[1]).intValue();
 
                 try {
                     Long userId = user.getId();
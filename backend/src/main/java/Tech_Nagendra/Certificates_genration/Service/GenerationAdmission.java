@@ -0,0 +1,264 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admission control for synchronous generation (/certificates/generate-zip). Each request is costed before it
+ * starts: a fixed overhead, {@code row-kb} per row (the parsed row and its PDF in the ZIP buffer) and
+ * {@code upload-factor} times the size of its images. A request runs only while the running ones leave room in the
+ * heap budget, the row budget and {@code max-concurrent}; otherwise it waits in a FIFO queue of {@code max-queue} for
+ * up to {@code queue-timeout-ms}. When the queue is full or the wait runs out the request is rejected as busy with a
+ * retry estimate from the observed time per row; a request that could never fit is rejected as too large.
+ * A request whose row count is only known after parsing its upload is admitted on the upload first, so the parse
+ * runs under the permit too, and {@link #resize resized} once the rows are counted.
+ */
+@Service
+public class GenerationAdmission {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationAdmission.class);
+
+    @Value("${app.generation.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.generation.admission.max-concurrent:4}")
+    private int maxConcurrent;
+
+    @Value("${app.generation.admission.max-rows:20000}")
+    private long maxRows;
+
+    /** 0 uses half of the maximum heap. */
+    @Value("${app.generation.admission.memory-budget-mb:0}")
+    private long memoryBudgetMb;
+
+    @Value("${app.generation.admission.base-kb:8192}")
+    private long baseKb;
+
+    @Value("${app.generation.admission.row-kb:64}")
+    private long rowKb;
+
+    @Value("${app.generation.admission.upload-factor:3}")
+    private double uploadFactor;
+
+    @Value("${app.generation.admission.max-queue:16}")
+    private int maxQueue;
+
+    @Value("${app.generation.admission.queue-timeout-ms:30000}")
+    private long queueTimeoutMs;
+
+    private long budgetBytes;
+    private final Deque<Permit> queue = new ArrayDeque<>();
+    private int running;
+    private long runningRows;
+    private long runningBytes;
+    private long queuedRows;
+    private long admitted;
+    private long queuedTotal;
+    private long rejectedBusy;
+    private long rejectedTooLarge;
+    private long timedOut;
+    private double millisPerRow;
+
+    @PostConstruct
+    void init() {
+        budgetBytes = memoryBudgetMb > 0 ? memoryBudgetMb * 1024 * 1024 : Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    /** Estimated heap held by a run of {@code rows} rows with {@code uploadBytes} of uploaded images. */
+    public long estimateBytes(int rows, long uploadBytes) {
+        return baseKb * 1024 + rows * rowKb * 1024 + (long) (uploadBytes * uploadFactor);
+    }
+
+    /**
+     * Waits for capacity for a run of {@code rows} rows; close the permit when the run and its response are done.
+     *
+     * @throws RejectedException when the run can never fit, the queue is full or the wait timed out
+     */
+    public Permit admit(int rows, long uploadBytes) {
+        Permit permit = new Permit(rows, estimateBytes(rows, uploadBytes));
+        if (!enabled) return permit;
+        synchronized (this) {
+            checkSize(permit);
+            enter(permit);
+            permit.startedAt = System.nanoTime();
+            admitted++;
+            return permit;
+        }
+    }
+
+    /**
+     * Re-costs an admitted run for {@code rows} rows. The run keeps its place when the new cost fits next to the
+     * others; otherwise it gives its capacity back and waits at the end of the queue like {@link #admit}.
+     *
+     * @throws RejectedException as {@link #admit}; the permit then holds nothing
+     */
+    public void resize(Permit permit, int rows, long uploadBytes) {
+        long bytes = estimateBytes(rows, uploadBytes);
+        if (!enabled) {
+            permit.rows = rows;
+            permit.bytes = bytes;
+            return;
+        }
+        synchronized (this) {
+            if (permit.counted) {
+                permit.counted = false;
+                running--;
+                runningRows -= permit.rows;
+                runningBytes -= permit.bytes;
+                notifyAll();
+            }
+            permit.rows = rows;
+            permit.bytes = bytes;
+            checkSize(permit);
+            if (fits(permit)) take(permit);
+            else enter(permit);
+        }
+    }
+
+    private void checkSize(Permit permit) {
+        if (permit.bytes > budgetBytes || permit.rows > maxRows) {
+            rejectedTooLarge++;
+            throw new RejectedException(true, 0, String.format(
+                    "%d rows need about %d MB; synchronous generation allows %d rows and %d MB",
+                    permit.rows, permit.bytes >> 20, maxRows, budgetBytes >> 20));
+        }
+    }
+
+    /** Takes capacity for {@code permit} now or after waiting its turn in the queue. Caller holds the monitor. */
+    private void enter(Permit permit) {
+        if (queue.isEmpty() && fits(permit)) {
+            take(permit);
+            return;
+        }
+        if (queue.size() >= maxQueue) {
+            rejectedBusy++;
+            throw busy();
+        }
+        queue.addLast(permit);
+        queuedRows += permit.rows;
+        queuedTotal++;
+        long deadline = System.currentTimeMillis() + queueTimeoutMs;
+        try {
+            while (queue.peekFirst() != permit || !fits(permit)) {
+                long left = deadline - System.currentTimeMillis();
+                if (left <= 0) {
+                    timedOut++;
+                    throw busy();
+                }
+                wait(left);
+            }
+            take(permit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy();
+        } finally {
+            if (queue.remove(permit)) queuedRows -= permit.rows;
+            notifyAll();
+        }
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("maxConcurrent", maxConcurrent);
+        result.put("maxRows", maxRows);
+        result.put("memoryBudgetMb", budgetBytes >> 20);
+        result.put("maxQueue", maxQueue);
+        result.put("queueTimeoutMs", queueTimeoutMs);
+        result.put("running", running);
+        result.put("runningRows", runningRows);
+        result.put("runningMb", runningBytes >> 20);
+        result.put("queued", queue.size());
+        result.put("queuedRows", queuedRows);
+        result.put("admitted", admitted);
+        result.put("queuedTotal", queuedTotal);
+        result.put("rejectedBusy", rejectedBusy);
+        result.put("rejectedTooLarge", rejectedTooLarge);
+        result.put("timedOut", timedOut);
+        result.put("millisPerRow", millisPerRow);
+        return result;
+    }
+
+    private boolean fits(Permit permit) {
+        return running < maxConcurrent
+                && runningRows + permit.rows <= maxRows
+                && runningBytes + permit.bytes <= budgetBytes;
+    }
+
+    private void take(Permit permit) {
+        permit.counted = true;
+        running++;
+        runningRows += permit.rows;
+        runningBytes += permit.bytes;
+    }
+
+    private synchronized void release(Permit permit) {
+        running--;
+        runningRows -= permit.rows;
+        runningBytes -= permit.bytes;
+        if (permit.rows > 0) {
+            double perRow = (System.nanoTime() - permit.startedAt) / 1_000_000d / permit.rows;
+            millisPerRow = millisPerRow == 0 ? perRow : millisPerRow * 0.8 + perRow * 0.2;
+        }
+        notifyAll();
+    }
+
+    /** Seconds until the work ahead is likely done, from the observed time per row; 5 before anything has run. */
+    private RejectedException busy() {
+        long seconds = millisPerRow == 0 ? 5
+                : (long) Math.ceil((runningRows + queuedRows) * millisPerRow / Math.max(1, maxConcurrent) / 1000d);
+        seconds = Math.max(1, Math.min(600, seconds));
+        logger.info("Generation busy: {} running ({} rows), {} queued; retry after {}s", running, runningRows, queue.size(), seconds);
+        return new RejectedException(false, seconds, "Certificate generation is at capacity");
+    }
+
+    /** Capacity held by one admitted run. */
+    public final class Permit implements AutoCloseable {
+        private int rows;
+        private long bytes;
+        private long startedAt;
+        private boolean counted;
+
+        private Permit(int rows, long bytes) {
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (!counted) return;
+            counted = false;
+            release(this);
+        }
+    }
+
+    public static class RejectedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean tooLarge;
+        private final long retryAfterSeconds;
+
+        public RejectedException(boolean tooLarge, long retryAfterSeconds, String message) {
+            super(message);
+            this.tooLarge = tooLarge;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        /** The run exceeds the limits on its own; retrying cannot help. */
+        public boolean isTooLarge() {
+            return tooLarge;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+}
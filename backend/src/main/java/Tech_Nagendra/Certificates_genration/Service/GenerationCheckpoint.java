@@ -0,0 +1,67 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Progress hook of a resumable generation run. Rows are the valid candidate rows of the upload, in file order.
+ * After the reports of every {@link #interval()} rows are written, {@link #commit} receives the files produced since
+ * the previous call; a later attempt skips the committed rows and starts from the files they produced.
+ */
+public interface GenerationCheckpoint {
+
+    /** Plain synchronous run: nothing to resume, nothing recorded. */
+    GenerationCheckpoint NONE = new GenerationCheckpoint() {
+        @Override
+        public int committedRows() {
+            return 0;
+        }
+
+        @Override
+        public Map<String, File> committedFiles() {
+            return Map.of();
+        }
+
+        @Override
+        public int interval() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void commit(int rows, Map<String, File> files) {
+        }
+    };
+
+    /** Called once the upload is parsed, with its number of valid rows up to {@link #endRow()}. */
+    default void started(int totalRows) {
+    }
+
+    /** Rows already committed by an earlier attempt; they are not rendered again. */
+    int committedRows();
+
+    /** Latest file per SID of the committed rows, in order of first appearance. */
+    Map<String, File> committedFiles();
+
+    /** Rows between two commits. */
+    int interval();
+
+    /**
+     * First row the run reads. The rows before it belong to another chunk of the same job and are neither parsed nor
+     * rendered; a resumed run starts at 0 so its committed rows still count for the result.
+     */
+    default int startRow() {
+        return 0;
+    }
+
+    /** Row to stop before; the rows after it belong to another chunk of the same job. */
+    default int endRow() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Records that rows [0, {@code rows}) are done and their reports written.
+     *
+     * @param files latest file per SID produced since the previous commit, in order of first appearance
+     */
+    void commit(int rows, Map<String, File> files);
+}
@@ -0,0 +1,558 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Entity.GenerationChunk;
+import Tech_Nagendra.Certificates_genration.Entity.GenerationJob;
+import Tech_Nagendra.Certificates_genration.Entity.Template;
+import Tech_Nagendra.Certificates_genration.Repository.GenerationChunkStore;
+import Tech_Nagendra.Certificates_genration.Repository.GenerationJobFileStore;
+import Tech_Nagendra.Certificates_genration.Repository.GenerationJobRepository;
+import Tech_Nagendra.Certificates_genration.Repository.TemplateRepository;
+import Tech_Nagendra.Certificates_genration.Security.UserPrincipal;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Background certificate runs that survive a restart, run by the {@link GenerationScheduler}. Each job gets its own directory under
+ * {@code app.generation.jobs-dir} holding its uploads ({@code input/}) and certificates ({@code output/}). Every
+ * {@code app.generation.checkpoint-rows} rows the reports are written, then the manifest of produced files and the
+ * committed row count in one transaction; on startup queued and interrupted jobs are run again from their checkpoint.
+ * Rows after the last checkpoint are rendered again, which is safe because reports are updated by SID.
+ * With {@code app.generation.mode=distributed} a job is split into chunks of {@code app.generation.queue.chunk-rows}
+ * instead, which any node claims through the {@link GenerationWorkQueue}; jobs-dir and the certificate store must
+ * then be on storage shared by all nodes.
+ */
+@Service
+public class GenerationJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationJobService.class);
+
+    private static final List<String> UNFINISHED = List.of(GenerationJob.QUEUED, GenerationJob.RUNNING);
+    private static final List<String> FINISHED = List.of(GenerationJob.COMPLETED, GenerationJob.FAILED);
+    private static final String CANDIDATES = "candidates";
+
+    @Autowired
+    private GenerationJobRepository jobRepository;
+
+    @Autowired
+    private GenerationJobFileStore fileStore;
+
+    @Autowired
+    private TemplateRepository templateRepository;
+
+    @Autowired
+    private CertificateService certificateService;
+
+    @Autowired
+    private UserProfileCacheService userProfileCache;
+
+    @Autowired
+    private GenerationScheduler scheduler;
+
+    @Autowired
+    private GenerationChunkStore chunkStore;
+
+    /** Self reference so the bookkeeping below runs through the transactional proxy. */
+    @Autowired
+    @Lazy
+    private GenerationJobService self;
+
+    @Value("${app.generation.jobs-dir:C:/certificate_storage/jobs}")
+    private String jobsDir;
+
+    @Value("${app.generation.checkpoint-rows:500}")
+    private int checkpointRows;
+
+    @Value("${app.generation.retention-days:7}")
+    private long retentionDays;
+
+    @Value("${app.generation.mode:local}")
+    private String mode;
+
+    @Value("${app.generation.queue.chunk-rows:500}")
+    private int chunkRows;
+
+    /**
+     * Moves the uploads into a new job directory and queues the job.
+     *
+     * @param uploads extra uploads by form key (zipImage, logo, sign)
+     */
+    public GenerationJob submit(Long templateId, File candidateFile, Map<String, File> uploads, UserPrincipal user)
+            throws IOException {
+        if (!templateRepository.existsById(templateId)) {
+            throw new IllegalArgumentException("Template not found with id: " + templateId);
+        }
+        GenerationJob job = new GenerationJob();
+        job.setTemplateId(templateId);
+        job.setUserId(user.getId());
+        job.setStatus(GenerationJob.QUEUED);
+        job.setJobDir("");
+        job.setInputFile("");
+        job.setCreatedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        Path dir = Paths.get(jobsDir, String.valueOf(job.getId())).toAbsolutePath();
+        Path input = Files.createDirectories(dir.resolve("input"));
+        String inputFile = CANDIDATES + extension(candidateFile.getName());
+        Files.move(candidateFile.toPath(), input.resolve(inputFile), StandardCopyOption.REPLACE_EXISTING);
+        for (Map.Entry<String, File> upload : uploads.entrySet()) {
+            Files.move(upload.getValue().toPath(), input.resolve(upload.getKey() + extension(upload.getValue().getName())),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        job.setJobDir(dir.toString());
+        job.setInputFile(inputFile);
+        job = jobRepository.save(job);
+
+        if (isDistributed()) {
+            split(job);
+        } else {
+            enqueue(job);
+        }
+        logger.info("Queued generation job {} for template {}", job.getId(), templateId);
+        return job;
+    }
+
+    public boolean isDistributed() {
+        return "distributed".equalsIgnoreCase(mode);
+    }
+
+    /** Picks up the jobs a previous run of the application queued or left half done. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (GenerationJob job : jobRepository.findByStatusInOrderByIdAsc(UNFINISHED)) {
+            if (isDistributed()) {
+                // chunks with an expired lease are claimed again by the work queue; only unsplit jobs need help
+                if (!chunkStore.exists(job.getId())) split(job);
+                continue;
+            }
+            logger.info("Resuming generation job {} ({} after {} rows)", job.getId(), job.getStatus(), job.getCommittedRows());
+            enqueue(job);
+        }
+    }
+
+    /** The job, if {@code user} may see it: its owner or an admin. */
+    public Optional<GenerationJob> find(Long jobId, UserPrincipal user) {
+        Optional<GenerationJob> job = jobRepository.findById(jobId);
+        if (job.isPresent() && !canSee(job.get(), user)) {
+            throw new IllegalStateException("Not allowed to access generation job " + jobId);
+        }
+        return job;
+    }
+
+    /** Latest jobs of {@code user}, or of everyone for admins. */
+    public List<GenerationJob> list(UserPrincipal user) {
+        return isAdmin(user) || hasRollId1(user)
+                ? jobRepository.findTop50ByOrderByIdDesc()
+                : jobRepository.findTop50ByUserIdOrderByIdDesc(user.getId());
+    }
+
+    /** State of the {@link GenerationScheduler}; admins only. */
+    public Map<String, Object> schedulerStats(UserPrincipal user) {
+        if (!isAdmin(user) && !hasRollId1(user)) {
+            throw new IllegalStateException("Only admins can view the generation scheduler");
+        }
+        return scheduler.stats();
+    }
+
+    /** Writes the latest certificate of every SID of the job as a ZIP. */
+    public void writeZip(GenerationJob job, OutputStream out) throws IOException {
+        Path output = Paths.get(job.getJobDir(), "output");
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            Set<String> names = new HashSet<>();
+            for (String fileName : fileStore.findByJobId(job.getId()).values()) {
+                Path file = output.resolve(fileName);
+                String name = file.getFileName().toString();
+                if (!Files.isRegularFile(file) || !names.add(name)) continue;
+                zip.putNextEntry(new ZipEntry(name));
+                Files.copy(file, zip);
+                zip.closeEntry();
+            }
+        }
+    }
+
+    @Transactional
+    public void markRunning(Long jobId) {
+        jobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(GenerationJob.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            if (job.getStartedAt() == null) job.setStartedAt(LocalDateTime.now());
+            job.setMessage(null);
+        });
+    }
+
+    @Transactional
+    public void recordTotal(Long jobId, int totalRows) {
+        jobRepository.findById(jobId).ifPresent(job -> job.setTotalRows(totalRows));
+    }
+
+    /** Appends the manifest lines and moves the checkpoint, together. */
+    @Transactional
+    public void checkpoint(Long jobId, int committedRows, Map<String, String> files, int filesCount) {
+        fileStore.append(jobId, committedRows, files);
+        jobRepository.findById(jobId).ifPresent(job -> {
+            job.setCommittedRows(committedRows);
+            job.setFilesCount(filesCount);
+        });
+    }
+
+    @Transactional
+    public void finish(Long jobId, String status, String message) {
+        jobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(status);
+            job.setMessage(truncate(message));
+            job.setFinishedAt(LocalDateTime.now());
+        });
+    }
+
+    /** Removes finished jobs, their manifest and their directory after {@code app.generation.retention-days}. */
+    @Scheduled(cron = "${app.generation.cleanup-cron:0 15 3 * * *}")
+    public void purgeFinished() {
+        if (retentionDays <= 0) return;
+        for (GenerationJob job : jobRepository.findFinishedBefore(FINISHED, LocalDateTime.now().minusDays(retentionDays))) {
+            try {
+                if (!job.getJobDir().isEmpty()) FileSystemUtils.deleteRecursively(Paths.get(job.getJobDir()));
+                fileStore.deleteByJobId(job.getId());
+                chunkStore.deleteByJobId(job.getId());
+                jobRepository.delete(job);
+            } catch (Exception e) {
+                logger.warn("Could not remove generation job {}: {}", job.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void enqueue(GenerationJob job) {
+        Long jobId = job.getId();
+        scheduler.submit(jobId, job.getUserId(), () -> run(jobId));
+    }
+
+    private void run(Long jobId) {
+        GenerationJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || !UNFINISHED.contains(job.getStatus())) return;
+        JobCheckpoint checkpoint = null;
+        try {
+            Template template = templateOf(job);
+            UserPrincipal user = authenticate(job);
+            self.markRunning(jobId);
+
+            Path dir = Paths.get(job.getJobDir());
+            Path output = Files.createDirectories(dir.resolve("output"));
+            Map<String, File> uploads = uploads(dir.resolve("input"), job.getInputFile());
+            checkpoint = new JobCheckpoint(job, output.toFile());
+            certificateService.generateCertificatesByType(template, dir.resolve("input").resolve(job.getInputFile()).toFile(),
+                    uploads.isEmpty() ? null : uploads, output.toFile(), user, checkpoint);
+            self.finish(jobId, GenerationJob.COMPLETED, null);
+            logger.info("Generation job {} completed", jobId);
+        } catch (Exception e) {
+            if (scheduler.isShutdown()) {
+                logger.info("Generation job {} interrupted by shutdown; it resumes on the next start", jobId);
+                return;
+            }
+            logger.error("Generation job {} failed", jobId, e);
+            self.finish(jobId, GenerationJob.FAILED, e.getMessage());
+        } finally {
+            if (checkpoint != null) checkpoint.releaseTurn();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * Counts the rows of a job's upload and queues them as chunks, once per job even when several nodes try. The photo
+     * archive is extracted into {@code input/photos} first, so chunks share it instead of each unzipping it again.
+     */
+    private void split(GenerationJob job) {
+        try {
+            Path input = Paths.get(job.getJobDir(), "input");
+            Map<String, File> uploads = uploads(input, job.getInputFile());
+            File zip = uploads.get(CertificateService.PHOTO_ARCHIVE);
+            if (zip != null && !uploads.containsKey(CertificateService.PHOTO_DIR)) {
+                certificateService.extractPhotoArchive(zip, input.resolve(CertificateService.PHOTO_DIR).toFile());
+            }
+            int totalRows = certificateService.countCandidates(input.resolve(job.getInputFile()).toFile(), templateOf(job));
+            self.createChunks(job.getId(), totalRows);
+        } catch (Exception e) {
+            logger.error("Could not split generation job {}", job.getId(), e);
+            self.finish(job.getId(), GenerationJob.FAILED, e.getMessage());
+        }
+    }
+
+    @Transactional
+    public void createChunks(Long jobId, int totalRows) {
+        GenerationJob job = jobRepository.lockById(jobId).orElse(null);
+        if (job == null || chunkStore.exists(jobId)) return;
+        chunkStore.createChunks(jobId, totalRows, Math.max(1, chunkRows));
+        job.setTotalRows(totalRows);
+    }
+
+    /**
+     * Fails the jobs of chunks abandoned on their last allowed attempt, then claims chunks for this node and marks
+     * their jobs as running.
+     */
+    @Transactional
+    public List<GenerationChunkStore.Claim> claimChunks(String node, int limit, long leaseSeconds, int maxAttempts) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Long jobId : chunkStore.findExhaustedJobs(now, maxAttempts)) {
+            // job row first, as in completeChunk and failChunk
+            GenerationJob job = jobRepository.lockById(jobId).orElse(null);
+            String message = "Chunk abandoned " + maxAttempts + " times";
+            if (chunkStore.failExhausted(jobId, now, maxAttempts, message) == 0 || job == null) continue;
+            chunkStore.failOpen(jobId, "Job failed");
+            if (!GenerationJob.FAILED.equals(job.getStatus())) {
+                job.setStatus(GenerationJob.FAILED);
+                job.setMessage(message);
+                job.setFinishedAt(now);
+                logger.warn("Generation job {} failed: {}", jobId, message);
+            }
+        }
+        List<GenerationChunkStore.Claim> claims = chunkStore.claim(node, limit, now, now.plusSeconds(leaseSeconds), maxAttempts);
+        for (GenerationChunkStore.Claim claim : claims) {
+            jobRepository.findById(claim.jobId()).ifPresent(job -> {
+                if (GenerationJob.QUEUED.equals(job.getStatus())) {
+                    job.setStatus(GenerationJob.RUNNING);
+                    job.setStartedAt(now);
+                }
+                job.setAttempts(Math.max(job.getAttempts(), claim.attempts()));
+            });
+        }
+        return claims;
+    }
+
+    /**
+     * Renders rows [start, end) of a distributed job into its own folder under the job output, so chunks running on
+     * different nodes never write the same file. Only the chunk's rows are read from the upload.
+     *
+     * @return latest file per SID, relative to the job output folder
+     */
+    public Map<String, String> renderChunk(GenerationChunkStore.Claim claim) throws Exception {
+        GenerationJob job = jobRepository.findById(claim.jobId())
+                .orElseThrow(() -> new IllegalStateException("Generation job not found: " + claim.jobId()));
+        try {
+            Template template = templateOf(job);
+            UserPrincipal user = authenticate(job);
+            Path dir = Paths.get(job.getJobDir());
+            String folder = "chunk-" + claim.startRow();
+            Path output = Files.createDirectories(dir.resolve("output").resolve(folder));
+            Map<String, File> uploads = uploads(dir.resolve("input"), job.getInputFile());
+            RangeCheckpoint checkpoint = new RangeCheckpoint(claim.startRow(), claim.endRow());
+            if (claim.rows() > 0) {
+                certificateService.generateCertificatesByType(template, dir.resolve("input").resolve(job.getInputFile()).toFile(),
+                        uploads.isEmpty() ? null : uploads, output.toFile(), user, checkpoint);
+            }
+            Map<String, String> files = new LinkedHashMap<>();
+            checkpoint.files.forEach((sid, file) -> files.put(sid, folder + "/" + file.getName()));
+            return files;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /** Records a rendered chunk and completes the job with its last chunk; ignored when the claim was lost. */
+    @Transactional
+    public void completeChunk(GenerationChunkStore.Claim claim, String node, Map<String, String> files) {
+        GenerationJob job = jobRepository.lockById(claim.jobId()).orElse(null);
+        if (job == null) return;
+        if (!chunkStore.finish(claim, node, GenerationChunk.DONE, null)) {
+            logger.warn("Chunk {} of generation job {} was claimed by another node; dropping its result", claim.id(), claim.jobId());
+            return;
+        }
+        fileStore.append(claim.jobId(), claim.endRow(), files);
+        job.setCommittedRows(job.getCommittedRows() + claim.rows());
+        if (chunkStore.countOpen(claim.jobId()) == 0 && GenerationJob.RUNNING.equals(job.getStatus())) {
+            job.setStatus(GenerationJob.COMPLETED);
+            job.setFilesCount(fileStore.countSids(claim.jobId()));
+            job.setFinishedAt(LocalDateTime.now());
+            logger.info("Generation job {} completed", job.getId());
+        }
+    }
+
+    /** Puts a failed chunk back for another attempt, or fails it and its job after {@code maxAttempts}. */
+    @Transactional
+    public void failChunk(GenerationChunkStore.Claim claim, String node, String message, int maxAttempts) {
+        GenerationJob job = jobRepository.lockById(claim.jobId()).orElse(null);
+        boolean last = claim.attempts() >= maxAttempts;
+        if (!chunkStore.finish(claim, node, last ? GenerationChunk.FAILED : GenerationChunk.PENDING, truncate(message))) return;
+        if (last && job != null) {
+            chunkStore.failOpen(claim.jobId(), "Job failed");
+            job.setStatus(GenerationJob.FAILED);
+            job.setMessage(truncate(message));
+            job.setFinishedAt(LocalDateTime.now());
+        }
+    }
+
+    private Template templateOf(GenerationJob job) {
+        return templateRepository.findById(job.getTemplateId())
+                .orElseThrow(() -> new IllegalStateException("Template not found with id: " + job.getTemplateId()));
+    }
+
+    /** Runs the rest of the thread as the job's owner, so reports are audited to them. */
+    private UserPrincipal authenticate(GenerationJob job) {
+        UserPrincipal user = userProfileCache.find(job.getUserId()).map(UserPrincipal::new)
+                .orElseThrow(() -> new IllegalStateException("User not found with id: " + job.getUserId()));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        return user;
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    /** Uploads saved by {@link #submit}, by form key, and the extracted photo folder of a split job. */
+    private static Map<String, File> uploads(Path input, String candidateFile) throws IOException {
+        Map<String, File> uploads = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(input)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.equals(candidateFile)) continue;
+                if (Files.isDirectory(file) && !name.equals(CertificateService.PHOTO_DIR)) continue;
+                int dot = name.lastIndexOf('.');
+                uploads.put(dot > 0 ? name.substring(0, dot) : name, file.toFile());
+            }
+        }
+        return uploads;
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private boolean canSee(GenerationJob job, UserPrincipal user) {
+        return isAdmin(user) || hasRollId1(user) || (user != null && Objects.equals(job.getUserId(), user.getId()));
+    }
+
+    private boolean isAdmin(UserPrincipal user) {
+        return user != null && user.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equalsIgnoreCase("ADMIN") || a.getAuthority().equalsIgnoreCase("ROLE_ADMIN"));
+    }
+
+    private boolean hasRollId1(UserPrincipal user) {
+        return user != null && user.getRollid() != null && user.getRollid() == 1;
+    }
+
+    /**
+     * Checkpoint backed by the job row and its manifest; files are recorded by name inside the output folder.
+     * Each checkpoint interval is rendered under a turn from the {@link GenerationScheduler}.
+     */
+    private class JobCheckpoint implements GenerationCheckpoint {
+
+        private final Long jobId;
+        private final Long userId;
+        private final int committedRows;
+        private final Map<String, File> committedFiles = new LinkedHashMap<>();
+        private final Set<String> sids = new HashSet<>();
+        private int totalRows;
+        private GenerationScheduler.Turn turn;
+
+        JobCheckpoint(GenerationJob job, File output) {
+            this.jobId = job.getId();
+            this.userId = job.getUserId();
+            this.committedRows = job.getCommittedRows();
+            fileStore.findByJobId(jobId).forEach((sid, fileName) -> committedFiles.put(sid, new File(output, fileName)));
+            sids.addAll(committedFiles.keySet());
+        }
+
+        @Override
+        public void started(int totalRows) {
+            this.totalRows = totalRows;
+            self.recordTotal(jobId, totalRows);
+            nextTurn(Math.min(committedRows, totalRows));
+        }
+
+        @Override
+        public int committedRows() {
+            return committedRows;
+        }
+
+        @Override
+        public Map<String, File> committedFiles() {
+            return committedFiles;
+        }
+
+        @Override
+        public int interval() {
+            return Math.max(1, checkpointRows);
+        }
+
+        @Override
+        public void commit(int rows, Map<String, File> files) {
+            Map<String, String> names = new LinkedHashMap<>();
+            files.forEach((sid, file) -> names.put(sid, file.getName()));
+            sids.addAll(names.keySet());
+            self.checkpoint(jobId, rows, names, sids.size());
+            releaseTurn();
+            if (rows < totalRows) nextTurn(rows);
+        }
+
+        private void nextTurn(int doneRows) {
+            int remaining = totalRows - doneRows;
+            turn = scheduler.acquire(jobId, userId, Math.min(interval(), remaining), remaining);
+        }
+
+        void releaseTurn() {
+            scheduler.release(turn);
+            turn = null;
+        }
+    }
+
+    /** One chunk of a distributed job: rows [start, end), committed once at the end. */
+    private static class RangeCheckpoint implements GenerationCheckpoint {
+
+        private final int startRow;
+        private final int endRow;
+        private final Map<String, File> files = new LinkedHashMap<>();
+
+        RangeCheckpoint(int startRow, int endRow) {
+            this.startRow = startRow;
+            this.endRow = endRow;
+        }
+
+        @Override
+        public int startRow() {
+            return startRow;
+        }
+
+        @Override
+        public int committedRows() {
+            return startRow;
+        }
+
+        @Override
+        public Map<String, File> committedFiles() {
+            return Map.of();
+        }
+
+        @Override
+        public int interval() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public int endRow() {
+            return endRow;
+        }
+
+        @Override
+        public void commit(int rows, Map<String, File> produced) {
+            files.putAll(produced);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shares the generation engine between users. Scheduling happens on two levels:
+ * <ul>
+ *   <li>jobs: at most {@code max-active-jobs} run at once and at most {@code per-user-jobs} per user; waiting jobs
+ *   start round-robin across users, in submission order per user;</li>
+ *   <li>chunks: a running job renders one checkpoint interval at a time and needs one of {@code slots} render slots
+ *   for it, at most {@code per-user-slots} per user when set. Free slots go first to jobs with no more than
+ *   {@code small-job-rows} rows left, then by deficit round-robin over the users with waiting chunks: each visit
+ *   credits the user {@code quantum-rows} times their weight, and a chunk is granted once the credit covers its rows.
+ *   With {@code policy=fifo} chunks are granted in request order instead.</li>
+ * </ul>
+ * A 50k-row upload therefore holds a slot for one chunk at a time, and another user's 20-row batch gets the next free
+ * slot. Recent decisions and per-user counters are available from {@link #stats()}.
+ */
+@Service
+public class GenerationScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationScheduler.class);
+
+    private static final int RECENT_DECISIONS = 50;
+
+    @Value("${app.generation.scheduler.policy:drr}")
+    private String policy;
+
+    @Value("${app.generation.scheduler.slots:2}")
+    private int slots;
+
+    @Value("${app.generation.scheduler.max-active-jobs:8}")
+    private int maxActiveJobs;
+
+    @Value("${app.generation.scheduler.per-user-jobs:2}")
+    private int perUserJobs;
+
+    /** 0 lets a user alone on the server use every slot. */
+    @Value("${app.generation.scheduler.per-user-slots:0}")
+    private int perUserSlots;
+
+    @Value("${app.generation.scheduler.quantum-rows:${app.generation.checkpoint-rows:500}}")
+    private int quantumRows;
+
+    @Value("${app.generation.scheduler.small-job-rows:200}")
+    private int smallJobRows;
+
+    /** {@code userId:weight} pairs, comma separated; users not listed weigh 1. */
+    @Value("${app.generation.scheduler.weights:}")
+    private String weightList;
+
+    private final Map<Long, Integer> weights = new HashMap<>();
+    private final Map<Long, UserQueue> users = new LinkedHashMap<>();
+    private final Deque<Long> jobRotation = new ArrayDeque<>();
+    private final Deque<Long> chunkRotation = new ArrayDeque<>();
+    private final Deque<Map<String, Object>> recent = new ArrayDeque<>();
+    private boolean credited;
+    private int activeJobs;
+    private int busySlots;
+    private long sequence;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        for (String pair : weightList.split(",")) {
+            String[] parts = pair.trim().split(":");
+            if (parts.length == 2) weights.put(Long.valueOf(parts[0].trim()), Math.max(1, Integer.parseInt(parts[1].trim())));
+        }
+        AtomicInteger counter = new AtomicInteger();
+        int threads = Math.max(1, maxActiveJobs);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "generation-job-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    /** Queues a job; it starts once the global and per-user job limits allow. */
+    public synchronized void submit(Long jobId, Long userId, Runnable job) {
+        UserQueue queue = users.computeIfAbsent(userId, UserQueue::new);
+        queue.pendingJobs.addLast(new PendingJob(jobId, job));
+        if (!jobRotation.contains(userId)) jobRotation.addLast(userId);
+        dispatchJobs();
+    }
+
+    /**
+     * Blocks until the job may render its next chunk.
+     *
+     * @param rows      rows in the chunk
+     * @param remaining rows the job has left, including this chunk
+     */
+    public Turn acquire(Long jobId, Long userId, int rows, int remaining) {
+        Turn turn;
+        synchronized (this) {
+            turn = new Turn(jobId, userId, Math.max(1, rows), remaining, sequence++);
+            UserQueue queue = users.computeIfAbsent(userId, UserQueue::new);
+            queue.waitingChunks.addLast(turn);
+            if (!chunkRotation.contains(userId)) chunkRotation.addLast(userId);
+            grantChunks();
+            try {
+                while (!turn.granted) wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (turn.granted) {
+                    release(turn);
+                } else {
+                    queue.waitingChunks.remove(turn);
+                    if (queue.waitingChunks.isEmpty()) chunkRotation.remove(userId);
+                }
+                throw new IllegalStateException("Interrupted while waiting for a render slot", e);
+            }
+        }
+        return turn;
+    }
+
+    /** Gives the slot of a finished chunk back. */
+    public synchronized void release(Turn turn) {
+        if (turn == null || turn.released) return;
+        turn.released = true;
+        busySlots--;
+        users.get(turn.userId).busySlots--;
+        grantChunks();
+    }
+
+    /** Current limits, per-user counters and the latest decisions. */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("policy", policy);
+        result.put("slots", slots);
+        result.put("busySlots", busySlots);
+        result.put("maxActiveJobs", maxActiveJobs);
+        result.put("activeJobs", activeJobs);
+        List<Map<String, Object>> perUser = new ArrayList<>();
+        for (UserQueue queue : users.values()) {
+            Map<String, Object> user = new LinkedHashMap<>();
+            user.put("userId", queue.userId);
+            user.put("weight", weight(queue.userId));
+            user.put("activeJobs", queue.activeJobs);
+            user.put("pendingJobs", queue.pendingJobs.stream().map(PendingJob::jobId).toList());
+            user.put("busySlots", queue.busySlots);
+            user.put("waitingChunks", queue.waitingChunks.size());
+            user.put("deficitRows", queue.deficit);
+            user.put("grantedChunks", queue.grantedChunks);
+            user.put("grantedRows", queue.grantedRows);
+            perUser.add(user);
+        }
+        result.put("users", perUser);
+        result.put("recentDecisions", new ArrayList<>(recent));
+        return result;
+    }
+
+    private void dispatchJobs() {
+        int visits = jobRotation.size();
+        while (activeJobs < maxActiveJobs && visits-- > 0 && !jobRotation.isEmpty()) {
+            Long userId = jobRotation.pollFirst();
+            UserQueue queue = users.get(userId);
+            if (queue.activeJobs >= perUserJobs) {
+                jobRotation.addLast(userId);
+                continue;
+            }
+            PendingJob next = queue.pendingJobs.pollFirst();
+            if (!queue.pendingJobs.isEmpty()) jobRotation.addLast(userId);
+            queue.activeJobs++;
+            activeJobs++;
+            visits = jobRotation.size();
+            executor.execute(() -> {
+                try {
+                    next.job.run();
+                } finally {
+                    jobFinished(userId);
+                }
+            });
+        }
+    }
+
+    private synchronized void jobFinished(Long userId) {
+        UserQueue queue = users.get(userId);
+        queue.activeJobs--;
+        activeJobs--;
+        if (!queue.pendingJobs.isEmpty() && !jobRotation.contains(userId)) jobRotation.addLast(userId);
+        dispatchJobs();
+        if (queue.activeJobs == 0 && queue.busySlots == 0 && queue.pendingJobs.isEmpty() && queue.waitingChunks.isEmpty()) {
+            users.remove(userId);
+        }
+    }
+
+    private void grantChunks() {
+        boolean granted = false;
+        while (busySlots < slots) {
+            Turn turn = nextChunk();
+            if (turn == null) break;
+            turn.granted = true;
+            busySlots++;
+            UserQueue queue = users.get(turn.userId);
+            queue.busySlots++;
+            queue.grantedChunks++;
+            queue.grantedRows += turn.rows;
+            granted = true;
+        }
+        if (granted) notifyAll();
+    }
+
+    private Turn nextChunk() {
+        Turn small = null;
+        Turn first = null;
+        boolean eligible = false;
+        for (Long userId : chunkRotation) {
+            UserQueue queue = users.get(userId);
+            if (capped(queue)) continue;
+            eligible = true;
+            for (Turn turn : queue.waitingChunks) {
+                if (first == null || turn.sequence < first.sequence) first = turn;
+                if (turn.remaining <= smallJobRows && (small == null || turn.sequence < small.sequence)) small = turn;
+            }
+        }
+        if (!eligible) return null;
+        if (small != null) return take(small, "small-job");
+        if ("fifo".equalsIgnoreCase(policy)) return take(first, "fifo");
+
+        while (true) {
+            Long userId = chunkRotation.peekFirst();
+            UserQueue queue = users.get(userId);
+            if (capped(queue)) {
+                chunkRotation.addLast(chunkRotation.pollFirst());
+                credited = false;
+                continue;
+            }
+            if (!credited) {
+                queue.deficit += (long) Math.max(1, quantumRows) * weight(userId);
+                credited = true;
+            }
+            Turn head = queue.waitingChunks.peekFirst();
+            if (queue.deficit >= head.rows) {
+                queue.deficit -= head.rows;
+                return take(head, "drr");
+            }
+            chunkRotation.addLast(chunkRotation.pollFirst());
+            credited = false;
+        }
+    }
+
+    private Turn take(Turn turn, String reason) {
+        UserQueue queue = users.get(turn.userId);
+        queue.waitingChunks.remove(turn);
+        if (queue.waitingChunks.isEmpty()) {
+            if (Objects.equals(chunkRotation.peekFirst(), turn.userId)) credited = false;
+            chunkRotation.remove(turn.userId);
+            queue.deficit = 0;
+        }
+        Map<String, Object> decision = new LinkedHashMap<>();
+        decision.put("at", LocalDateTime.now().toString());
+        decision.put("jobId", turn.jobId);
+        decision.put("userId", turn.userId);
+        decision.put("rows", turn.rows);
+        decision.put("remainingRows", turn.remaining);
+        decision.put("reason", reason);
+        decision.put("waitedMillis", (System.nanoTime() - turn.requestedAt) / 1_000_000);
+        if (recent.size() >= RECENT_DECISIONS) recent.pollFirst();
+        recent.addLast(decision);
+        logger.debug("Granted {} rows of job {} (user {}) by {}", turn.rows, turn.jobId, turn.userId, reason);
+        return turn;
+    }
+
+    private boolean capped(UserQueue queue) {
+        return perUserSlots > 0 && queue.busySlots >= perUserSlots;
+    }
+
+    private int weight(Long userId) {
+        return weights.getOrDefault(userId, 1);
+    }
+
+    /** A chunk request; granted once a slot is assigned to it. */
+    public static final class Turn {
+        private final Long jobId;
+        private final Long userId;
+        private final int rows;
+        private final int remaining;
+        private final long sequence;
+        private final long requestedAt = System.nanoTime();
+        private boolean granted;
+        private boolean released;
+
+        private Turn(Long jobId, Long userId, int rows, int remaining, long sequence) {
+            this.jobId = jobId;
+            this.userId = userId;
+            this.rows = rows;
+            this.remaining = remaining;
+            this.sequence = sequence;
+        }
+    }
+
+    private record PendingJob(Long jobId, Runnable job) {
+    }
+
+    private static final class UserQueue {
+        private final Long userId;
+        private final Deque<PendingJob> pendingJobs = new ArrayDeque<>();
+        private final Deque<Turn> waitingChunks = new ArrayDeque<>();
+        private int activeJobs;
+        private int busySlots;
+        private long deficit;
+        private long grantedChunks;
+        private long grantedRows;
+
+        private UserQueue(Long userId) {
+            this.userId = userId;
+        }
+    }
+}
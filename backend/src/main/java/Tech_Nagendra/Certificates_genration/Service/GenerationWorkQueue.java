@@ -0,0 +1,152 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Repository.GenerationChunkStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker side of distributed generation (app.generation.mode=distributed). Every node polls generation_chunks for
+ * as many chunks as it has free worker threads, renders them into the shared job directory and records the result.
+ * While a chunk renders its lease is renewed every {@code heartbeat-ms}; if the node dies the lease runs out after
+ * {@code lease-seconds} and another node claims the chunk again. A chunk failing {@code max-attempts} times fails
+ * its job, whether it failed here or its lease ran out on the last attempt. When a renewal finds a chunk is no longer
+ * this node's, its render is cancelled. In local mode this bean does nothing.
+ */
+@Service
+public class GenerationWorkQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationWorkQueue.class);
+
+    @Autowired
+    private GenerationJobService jobService;
+
+    @Autowired
+    private GenerationChunkStore chunkStore;
+
+    @Value("${app.generation.queue.node-id:}")
+    private String nodeId;
+
+    @Value("${app.generation.queue.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${app.generation.queue.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${app.generation.queue.max-attempts:3}")
+    private int maxAttempts;
+
+    private final Map<Long, Task> running = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    /** A claimed chunk and its render. */
+    private final class Task {
+        private final GenerationChunkStore.Claim claim;
+        private final FutureTask<Void> future;
+        private volatile boolean lost;
+
+        private Task(GenerationChunkStore.Claim claim) {
+            this.claim = claim;
+            this.future = new FutureTask<>(() -> process(this), null);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (nodeId == null || nodeId.isBlank()) nodeId = defaultNodeId();
+        int threads = Math.max(1, workerThreads);
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "generation-chunk-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${app.generation.queue.poll-ms:2000}")
+    public void poll() {
+        if (!jobService.isDistributed() || executor.isShutdown()) return;
+        int free = Math.max(1, workerThreads) - running.size();
+        if (free <= 0) return;
+        try {
+            for (GenerationChunkStore.Claim claim : jobService.claimChunks(nodeId, free, leaseSeconds, maxAttempts)) {
+                Task task = new Task(claim);
+                running.put(claim.id(), task);
+                logger.info("Node {} claimed rows {}-{} of generation job {} (attempt {})", nodeId, claim.startRow(),
+                        claim.endRow(), claim.jobId(), claim.attempts());
+                executor.execute(task.future);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not claim generation chunks: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.generation.queue.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (running.isEmpty()) return;
+        try {
+            List<GenerationChunkStore.Claim> claims = running.values().stream().map(task -> task.claim).toList();
+            for (GenerationChunkStore.Claim claim : chunkStore.heartbeat(nodeId, claims, LocalDateTime.now().plusSeconds(leaseSeconds))) {
+                Task task = running.get(claim.id());
+                if (task == null || task.claim != claim) continue;
+                logger.warn("Chunk {} of generation job {} is no longer held by node {}; cancelling it", claim.id(), claim.jobId(), nodeId);
+                task.lost = true;
+                task.future.cancel(true);
+                running.remove(claim.id(), task);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not renew generation chunk leases: {}", e.getMessage());
+        }
+    }
+
+    private void process(Task task) {
+        GenerationChunkStore.Claim claim = task.claim;
+        try {
+            jobService.completeChunk(claim, nodeId, jobService.renderChunk(claim));
+        } catch (Exception e) {
+            if (task.lost) {
+                logger.info("Chunk {} of generation job {} stopped after its lease was lost", claim.id(), claim.jobId());
+                return;
+            }
+            if (executor.isShutdown()) {
+                logger.info("Chunk {} of generation job {} interrupted by shutdown; its lease will expire", claim.id(), claim.jobId());
+                return;
+            }
+            logger.error("Chunk {} of generation job {} failed on attempt {}", claim.id(), claim.jobId(), claim.attempts(), e);
+            jobService.failChunk(claim, nodeId, e.getMessage(), maxAttempts);
+        } finally {
+            running.remove(claim.id(), task);
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
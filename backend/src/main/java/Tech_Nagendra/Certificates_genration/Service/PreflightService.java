@@ -0,0 +1,163 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Dto.PreflightReport;
+import Tech_Nagendra.Certificates_genration.Entity.Template;
+import Tech_Nagendra.Certificates_genration.Ingest.CandidateColumnMapping;
+import Tech_Nagendra.Certificates_genration.Ingest.CandidateFileReader;
+import Tech_Nagendra.Certificates_genration.Ingest.PhotoIndex;
+import Tech_Nagendra.Certificates_genration.Repository.TemplateRepository;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Dry run of a generation request: checks the template and streams the candidate file without rendering anything.
+ * Errors mean generation would fail or produce wrong certificates; warnings mean rows will be skipped or overwritten,
+ * or certificates rendered without a photo.
+ */
+@Service
+public class PreflightService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreflightService.class);
+
+    @Autowired
+    private TemplateRepository templateRepository;
+
+    public PreflightReport validate(Long templateId, File candidateFile, Map<String, File> uploadedFiles) {
+        Template template = templateRepository.findById(templateId)
+                .orElseThrow(() -> new RuntimeException("Template not found with id: " + templateId));
+        return validate(template, candidateFile, uploadedFiles);
+    }
+
+    public PreflightReport validate(Template template, File candidateFile, Map<String, File> uploadedFiles) {
+        long start = System.nanoTime();
+        PreflightReport report = new PreflightReport();
+        report.setTemplateId(template.getId());
+        report.setTemplateName(template.getTemplateName());
+        report.setFormat(candidateFile == null ? null : CandidateFileReader.formatOf(candidateFile.getName()).name());
+
+        Set<String> templateFields = checkTemplate(template, report);
+        PhotoIndex photos = indexPhotos(template, uploadedFiles, report);
+        checkRows(template, candidateFile, templateFields, photos, report);
+
+        report.setDurationMs((System.nanoTime() - start) / 1_000_000);
+        logger.info("Pre-flight for template {}: {} rows, {} errors, {} warnings in {} ms", template.getId(),
+                report.getRowsScanned(), report.getErrorCount(), report.getWarningCount(), report.getDurationMs());
+        return report;
+    }
+
+    /**
+     * Field names declared in the template's JRXML, or null when the design cannot be loaded.
+     */
+    public Set<String> templateFields(Template template) {
+        if (template.getJrxmlPath() == null || template.getJrxmlPath().trim().isEmpty()) return null;
+        try {
+            return loadFields(template);
+        } catch (Exception e) {
+            logger.debug("Could not load JasperDesign for field introspection: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Set<String> checkTemplate(Template template, PreflightReport report) {
+        String path = template.getJrxmlPath();
+        if (path == null || path.trim().isEmpty()) {
+            report.error(null, null, "JRXML_MISSING", "Template has no JRXML path");
+            return null;
+        }
+        if (!new File(path).isFile()) {
+            report.error(null, null, "JRXML_NOT_FOUND", "JRXML file does not exist: " + path);
+            return null;
+        }
+        try {
+            return loadFields(template);
+        } catch (Exception e) {
+            report.error(null, null, "JRXML_INVALID", "JRXML could not be parsed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Set<String> loadFields(Template template) throws Exception {
+        JasperDesign design = JRXmlLoader.load(new File(template.getJrxmlPath()));
+        Set<String> fields = new LinkedHashSet<>();
+        if (design.getFieldsList() != null) {
+            design.getFieldsList().forEach(f -> fields.add(f.getName()));
+        }
+        fields.removeIf(Objects::isNull);
+        return fields;
+    }
+
+    /** Photos are only placed on image types 1-3; returns null when the template does not use them. */
+    private PhotoIndex indexPhotos(Template template, Map<String, File> uploadedFiles, PreflightReport report) {
+        int imageType = template.getImageType() == null ? 0 : template.getImageType();
+        if (imageType < 1 || imageType > 3) return null;
+        File zip = uploadedFiles == null ? null : uploadedFiles.get(CertificateService.PHOTO_ARCHIVE);
+        if (zip == null) {
+            report.warning(null, null, "PHOTO_ARCHIVE_MISSING",
+                    "Template type " + imageType + " places candidate photos but no photo zip was uploaded; certificates will have none");
+            return null;
+        }
+        try {
+            PhotoIndex photos = PhotoIndex.ofZip(zip);
+            report.setPhotosIndexed(photos.size());
+            if (photos.isEmpty()) report.warning(null, null, "PHOTO_ARCHIVE_EMPTY", "Photo zip contains no images; certificates will have no photo");
+            return photos;
+        } catch (Exception e) {
+            report.error(null, null, "PHOTO_ARCHIVE_INVALID", "Photo zip could not be read: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void checkRows(Template template, File candidateFile, Set<String> templateFields, PhotoIndex photos,
+                           PreflightReport report) {
+        Map<String, Integer> firstRowBySid = new HashMap<>();
+        boolean checkPhotos = photos != null && !photos.isEmpty();
+        CandidateColumnMapping mapping;
+        try {
+            mapping = CandidateFileReader.read(candidateFile, templateFields, (c, rowNumber) -> {
+                report.setRowsScanned(report.getRowsScanned() + 1);
+                String sid = c.getSid() == null ? "" : c.getSid().trim();
+                if (sid.isEmpty()) {
+                    report.warning(rowNumber, null, "BLANK_SID", "Row has no SID and will be skipped");
+                    return;
+                }
+                if (c.getCandidateName() == null || c.getCandidateName().trim().isEmpty()) {
+                    report.warning(rowNumber, sid, "BLANK_NAME", "Row has no candidate name and will be skipped");
+                    return;
+                }
+                report.setValidRows(report.getValidRows() + 1);
+                Integer first = firstRowBySid.putIfAbsent(sid, rowNumber);
+                if (first != null) {
+                    report.warning(rowNumber, sid, "DUPLICATE_SID", "SID already appears on row " + first + "; this row replaces it");
+                    return;
+                }
+                if (checkPhotos && photos.find(sid) == null) {
+                    report.warning(rowNumber, sid, "PHOTO_MISSING", "No photo in the zip matches this SID; the certificate will have none");
+                }
+            });
+        } catch (Exception e) {
+            report.error(null, null, "FILE_UNREADABLE", "Candidate file could not be read: " + e.getMessage());
+            return;
+        }
+        report.setUniqueSids(firstRowBySid.size());
+
+        if (!mapping.isHeaderDriven()) {
+            report.warning(null, null, "LEGACY_LAYOUT", "Header row not recognised; the fixed column layout is assumed");
+        }
+        for (String field : mapping.getUnknownTemplateFields()) {
+            report.error(null, null, "UNKNOWN_TEMPLATE_FIELD", "Template field '" + field + "' has no candidate attribute");
+        }
+        for (String field : mapping.getMissingTemplateFields()) {
+            report.warning(null, null, "MISSING_COLUMN", "Upload has no column for template field '" + field + "'; it will be blank");
+        }
+        if (report.getValidRows() == 0) {
+            report.error(null, null, "NO_CANDIDATES", "No row has both a SID and a candidate name");
+        }
+    }
+}
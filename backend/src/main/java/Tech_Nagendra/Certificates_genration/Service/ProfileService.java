@@ -6,7 +6,9 @@ import Tech_Nagendra.Certificates_genration.Dto.UpdatePasswordDto;
 import Tech_Nagendra.Certificates_genration.Entity.Report;
 import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
 import Tech_Nagendra.Certificates_genration.Repository.ProfileRepository;
+import Tech_Nagendra.Certificates_genration.Repository.ReportDailyRollupRepository;
 import Tech_Nagendra.Certificates_genration.Repository.ReportRepository;
+import Tech_Nagendra.Certificates_genration.Security.JwtClaims;
 import Tech_Nagendra.Certificates_genration.Utility.JwtUtil;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
@@ -28,8 +30,11 @@ public class ProfileService {
 
     private final ProfileRepository profileRepository;
     private final ReportRepository reportRepository;
+    private final ReportDailyRollupRepository rollupRepository;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final UserProfileCacheService userProfileCache;
+    private final SessionStoreService sessionStore;
 
     public ProfileDto registerUser(ProfileDto profileDto, String rawPassword) {
         if (profileDto.getEmail() == null || profileDto.getUsername() == null || rawPassword == null) {
@@ -84,6 +89,7 @@ public class ProfileService {
         targetUser.setModifiedAt(LocalDateTime.now());
 
         UserProfile updated = profileRepository.save(targetUser);
+        userProfileCache.evict(currentUserId);
         return mapToDto(updated);
     }
 
@@ -99,15 +105,16 @@ public class ProfileService {
         user.setModifiedBy(user);
         user.setModifiedAt(LocalDateTime.now());
         profileRepository.save(user);
+        userProfileCache.evict(currentUserId);
         return true;
     }
 
     public ProfileStatsDto getStats(String token) {
         Long currentUserId = extractAndValidateToken(token);
-        findById(currentUserId);
+        userProfileCache.getRequired(currentUserId);
 
-        long totalCertificates = reportRepository.countByGeneratedBy_Id(currentUserId);
-        long activeCertificates = reportRepository.countByGeneratedBy_IdAndStatus(currentUserId, "ACTIVE");
+        long totalCertificates = rollupRepository.sumByUser(currentUserId);
+        long activeCertificates = rollupRepository.sumByUserAndStatus(currentUserId, "ACTIVE");
         Optional<Report> lastReport = reportRepository.findTopByGeneratedBy_IdOrderByGeneratedOnDesc(currentUserId);
         String lastGenerated = lastReport.map(r -> r.getGeneratedOn().toString()).orElse("N/A");
 
@@ -137,26 +144,19 @@ public class ProfileService {
         }
     }
 
-    public void saveLoginToken(Long userId, String token) {
-        UserProfile user = findById(userId);
-        user.setLoginToken(token);
-        profileRepository.save(user);
-    }
-
-
     private Long extractAndValidateToken(String token) {
         if (token == null || token.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authorization token required");
         }
 
         try {
-            Long userId = jwtUtil.extractUserId(token);
-            UserProfile user = findById(userId);
-
-            if (user.getLoginToken() == null || !user.getLoginToken().equals(token)) {
+            JwtClaims claims = jwtUtil.parseClaims(token);
+            if (!sessionStore.isActive(claims)) {
                 throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired token");
             }
-            return userId;
+            return claims.getUserId();
+        } catch (ResponseStatusException e) {
+            throw e;
         } catch (ExpiredJwtException e) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token expired");
         } catch (MalformedJwtException e) {
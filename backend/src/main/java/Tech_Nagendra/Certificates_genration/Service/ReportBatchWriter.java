@@ -0,0 +1,166 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Entity.Report;
+import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
+import Tech_Nagendra.Certificates_genration.Repository.ReportRepository;
+import Tech_Nagendra.Certificates_genration.Security.UserPrincipal;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Writes the reports of a generation run in fixed-size chunks, each in its own transaction.
+ * A chunk looks up its existing (sid, template) rows with one query, updates or inserts every report, applies the
+ * summed rollup and certificate reference changes, flushes and then clears the persistence context, so the cost
+ * per report stays the same however long the run is. The update rules are those of {@link ReportService#saveOrUpdateBySid}.
+ */
+@Service
+public class ReportBatchWriter {
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ReportRollupService rollupService;
+
+    @Autowired
+    private CertificateStore certificateStore;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserProfileCacheService userProfileCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Self reference so chunks written from a {@link Batch} go through the transactional proxy. */
+    @Autowired
+    @Lazy
+    private ReportBatchWriter self;
+
+    @Value("${app.reports.batch-size:500}")
+    private int batchSize;
+
+    /** Starts a batch for one run; reports are written every {@code app.reports.batch-size} SIDs and on flush. */
+    public Batch open(UserPrincipal currentUser) {
+        return new Batch(currentUser);
+    }
+
+    /** Inserts or updates one chunk of reports and returns their ids. */
+    @Transactional
+    public List<Long> writeChunk(Collection<Report> reports, UserPrincipal currentUser) {
+        Map<String, Report> existing = findExisting(reports);
+        Map<ReportRollupService.Key, Long> deltas = new HashMap<>();
+        Map<String, Long> blobDeltas = new HashMap<>();
+        List<Report> written = new ArrayList<>(reports.size());
+        Date now = new Date();
+        UserProfile owner = userProfileCache.load(currentUser.getId());
+
+        for (Report report : reports) {
+            Long templateId = report.getTemplate() != null ? report.getTemplate().getId() : null;
+            Report target = templateId != null ? existing.get(key(templateId, report.getSid())) : null;
+            if (target != null) {
+                ReportRollupService.Key before = ReportRollupService.keyOf(target);
+                target.setCandidateName(report.getCandidateName());
+                target.setGrade(report.getGrade());
+                target.setJobrole(report.getJobrole());
+                target.setLevel(report.getLevel());
+                target.setBatchId(report.getBatchId());
+                target.setTrainingPartner(report.getTrainingPartner());
+                target.setTemplateName(report.getTemplateName());
+                target.setSid(report.getSid());
+                target.setGeneratedOn(now);
+                target.setGeneratedBy(owner);
+                target.setStatus(report.getStatus() != null ? report.getStatus() : "GENERATED");
+                target.setActive(true);
+                target.setTemplate(report.getTemplate());
+                target.setFingerprint(report.getFingerprint());
+                CertificateStore.collect(blobDeltas, target.getPdfHash(), report.getPdfHash());
+                target.setPdfHash(report.getPdfHash());
+                ReportRollupService.collect(deltas, before, ReportRollupService.keyOf(target));
+            } else {
+                target = report;
+                if (target.getUserProfile() == null) target.setUserProfile(owner);
+                target.setGeneratedBy(owner);
+                target.setGeneratedOn(now);
+                target.setStatus(target.getStatus() != null ? target.getStatus() : "GENERATED");
+                target.setActive(true);
+                entityManager.persist(target);
+                if (templateId != null) existing.put(key(templateId, target.getSid()), target);
+                ReportRollupService.collect(deltas, null, ReportRollupService.keyOf(target));
+                CertificateStore.collect(blobDeltas, null, target.getPdfHash());
+            }
+            written.add(target);
+        }
+
+        entityManager.flush();
+        rollupService.apply(deltas);
+        certificateStore.applyReferences(blobDeltas);
+        List<Long> ids = new ArrayList<>(written.size());
+        for (Report report : written) ids.add(report.getId());
+        entityManager.clear();
+        eventPublisher.publishEvent(new ReportsWrittenEvent(ids));
+        return ids;
+    }
+
+    /** Existing reports of the chunk by (template id, sid); the oldest row wins when there are duplicates. */
+    private Map<String, Report> findExisting(Collection<Report> reports) {
+        Map<Long, Set<String>> sidsByTemplate = new HashMap<>();
+        for (Report report : reports) {
+            if (report.getTemplate() == null || report.getTemplate().getId() == null || report.getSid() == null) continue;
+            sidsByTemplate.computeIfAbsent(report.getTemplate().getId(), k -> new HashSet<>()).add(report.getSid());
+        }
+        Map<String, Report> existing = new HashMap<>();
+        sidsByTemplate.forEach((templateId, sids) -> {
+            for (Report report : reportRepository.findAllByTemplateIdAndSidIn(templateId, sids)) {
+                existing.putIfAbsent(key(templateId, report.getSid()), report);
+            }
+        });
+        return existing;
+    }
+
+    private static String key(Long templateId, String sid) {
+        return templateId + "\u0000" + sid;
+    }
+
+    /**
+     * Collects the reports of one run, keeping the last report per SID and template, and hands them to
+     * {@link #writeChunk} whenever a chunk is full. Call {@link #flush} at the end of the run.
+     */
+    public class Batch {
+
+        private final UserPrincipal currentUser;
+        private final Map<String, Report> pending = new LinkedHashMap<>();
+        private long written;
+
+        private Batch(UserPrincipal currentUser) {
+            this.currentUser = currentUser;
+        }
+
+        public void add(Report report) {
+            Long templateId = report.getTemplate() != null ? report.getTemplate().getId() : null;
+            String key = templateId != null ? key(templateId, report.getSid()) : "#" + pending.size();
+            pending.put(key, report);
+            if (pending.size() >= batchSize) flush();
+        }
+
+        public void flush() {
+            if (pending.isEmpty()) return;
+            written += self.writeChunk(new ArrayList<>(pending.values()), currentUser).size();
+            pending.clear();
+        }
+
+        public long getWritten() {
+            return written;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Dto.ReportDTO;
+import Tech_Nagendra.Certificates_genration.Entity.Report;
+import Tech_Nagendra.Certificates_genration.Repository.ReportRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes filtered reports as CSV or XLSX while they are read from a forward-only cursor, so an export of any size
+ * holds only the current row (CSV) or the last {@code xlsx-window} rows (XLSX; older rows go to a temp file).
+ * CSV values that a spreadsheet would run as a formula are prefixed with an apostrophe.
+ */
+@Service
+public class ReportExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportExportService.class);
+
+    public enum Format {
+        CSV("text/csv; charset=UTF-8", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final String[] HEADERS = {"ID", "SID", "Candidate Name", "Grade", "Template", "Job Role", "Level",
+            "Batch ID", "Training Partner", "Status", "Generated On"};
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("generatedOn"), Sort.Order.desc("id"));
+
+    /** Data rows per sheet; Excel allows 1,048,576 rows including the header. */
+    private static final int XLSX_SHEET_ROWS = 1_048_575;
+
+    /** Fetch size when none is configured and the database is not MySQL. */
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /** 0 picks one for the database: row-by-row streaming on MySQL, {@link #DEFAULT_FETCH_SIZE} elsewhere. */
+    @Value("${app.reports.export.fetch-size:0}")
+    private int fetchSize;
+
+    @Value("${app.reports.export.xlsx-window:100}")
+    private int xlsxWindow;
+
+    @PostConstruct
+    void init() {
+        if (fetchSize != 0) return;
+        fetchSize = DEFAULT_FETCH_SIZE;
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            // Connector/J only streams with MIN_VALUE; other drivers reject a negative fetch size
+            if (product != null && product.toLowerCase().contains("mysql")) fetchSize = Integer.MIN_VALUE;
+        } catch (Exception e) {
+            logger.warn("Could not detect the database for the export fetch size, using {}: {}", fetchSize, e.getMessage());
+        }
+    }
+
+    /** Streams every report matching {@code spec}, newest first, to {@code out}. Returns the number of rows. */
+    @Transactional
+    public long export(Specification<Report> spec, Format format, OutputStream out) throws IOException {
+        try (Stream<ReportDTO> rows = reportRepository.streamReportDtos(spec, NEWEST_FIRST, fetchSize)) {
+            return format == Format.XLSX ? writeXlsx(rows.iterator(), out) : writeCsv(rows.iterator(), out);
+        }
+    }
+
+    private long writeCsv(Iterator<ReportDTO> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF');
+        writeCsvLine(writer, HEADERS);
+        long count = 0;
+        while (rows.hasNext()) {
+            writeCsvLine(writer, values(rows.next()));
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            String value = values[i];
+            if (value == null) continue;
+            if (isFormula(value)) value = "'" + value;
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+            } else {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /** Leading characters that make Excel, LibreOffice or Sheets evaluate a cell (OWASP CSV injection). */
+    private static boolean isFormula(String value) {
+        if (value.isEmpty()) return false;
+        char first = value.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+
+    private long writeXlsx(Iterator<ReportDTO> rows, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(xlsxWindow);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = null;
+            int rowIndex = XLSX_SHEET_ROWS;
+            long count = 0;
+            while (rows.hasNext()) {
+                if (rowIndex == XLSX_SHEET_ROWS) {
+                    sheet = workbook.createSheet("Reports " + (workbook.getNumberOfSheets() + 1));
+                    writeXlsxRow(sheet.createRow(0), HEADERS);
+                    rowIndex = 0;
+                }
+                writeXlsxRow(sheet.createRow(++rowIndex), values(rows.next()));
+                count++;
+            }
+            if (sheet == null) writeXlsxRow(workbook.createSheet("Reports 1").createRow(0), HEADERS);
+            workbook.write(out);
+            out.flush();
+            return count;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void writeXlsxRow(Row row, String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) row.createCell(i).setCellValue(values[i]);
+        }
+    }
+
+    private static String[] values(ReportDTO r) {
+        return new String[]{
+                r.getId() != null ? r.getId().toString() : null, r.getSid(), r.getCourseName(), r.getGrade(),
+                r.getTemplateName(), r.getJobrole(), r.getLevel(), r.getBatchId(), r.getTrainingPartner(),
+                r.getStatus(), r.getGeneratedOn()};
+    }
+}
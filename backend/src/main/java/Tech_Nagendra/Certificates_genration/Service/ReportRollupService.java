@@ -0,0 +1,177 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Entity.Report;
+import Tech_Nagendra.Certificates_genration.Repository.ReportDailyRollupRepository;
+import Tech_Nagendra.Certificates_genration.Repository.ReportRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps report_daily_rollup in step with the reports table.
+ * Report writes call {@link #record} in their own transaction, moving one count from the bucket the report was in
+ * to the bucket it is in now. {@link #rebuild} recounts everything from the reports table; it runs on startup when
+ * the rollup is empty, nightly to correct any drift, and on request from an administrator.
+ * Both paths bucket a report through {@link #keyOf}, so its day is always taken in the application's time zone.
+ * Writers lock one report_rollup_guard stripe before their first increment and a rebuild locks every stripe before
+ * it reads the reports table, so a rebuild waits for the report writes in flight and holds off new ones until it
+ * commits; an increment can never land between the recount and the replacement of the buckets.
+ */
+@Service
+public class ReportRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportRollupService.class);
+
+    /** Day bounds for counts that are not limited to a date range. */
+    public static final LocalDate FIRST_DAY = LocalDate.of(1970, 1, 1);
+    public static final LocalDate LAST_DAY = LocalDate.of(9000, 1, 1);
+
+    private static final int REBUILD_PAGE = 5000;
+
+    /** report_rollup_guard rows; a writer takes one, chosen by its thread, so writers rarely wait on each other. */
+    private static final int GUARD_STRIPES = 16;
+
+    @Autowired
+    private ReportDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    /** Self reference so the scheduled and startup rebuilds go through the transactional proxy. */
+    @Autowired
+    @Lazy
+    private ReportRollupService self;
+
+    @Autowired
+    private DashboardCacheService dashboardCache;
+
+    @Value("${app.reports.rollup.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /** The rollup bucket of a report, or null when it has no generation date. */
+    public record Key(LocalDate day, long userId, String templateName, String status) {
+    }
+
+    public static Key keyOf(Report report) {
+        if (report == null) return null;
+        return keyOf(report.getGeneratedOn(), report.getGeneratedBy() != null ? report.getGeneratedBy().getId() : null,
+                report.getTemplateName(), report.getStatus());
+    }
+
+    private static Key keyOf(Date generatedOn, Long userId, String templateName, String status) {
+        if (generatedOn == null) return null;
+        LocalDate day = generatedOn.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return new Key(day, userId != null ? userId : 0L,
+                templateName != null ? templateName : "",
+                status != null ? status : "");
+    }
+
+    /**
+     * Moves a written report from {@code before} (null for a new report) to its current bucket.
+     * Must be called after the save, so generated values such as the creation date are present.
+     */
+    @Transactional
+    public void record(Key before, Report saved) {
+        Key after = keyOf(saved);
+        if (before != null && before.equals(after)) return;
+        if (before == null && after == null) return;
+        lockStripe();
+        if (before != null) add(before, -1);
+        if (after != null) add(after, 1);
+    }
+
+    /** Applies summed per-bucket changes, e.g. from a batch of written reports; zero deltas are skipped. */
+    @Transactional
+    public void apply(Map<Key, Long> deltas) {
+        if (deltas.values().stream().allMatch(delta -> delta == 0)) return;
+        lockStripe();
+        deltas.forEach((key, delta) -> {
+            if (delta != 0) add(key, delta);
+        });
+    }
+
+    /** Adds the move of one report from {@code before} to {@code after} to {@code deltas}. */
+    public static void collect(Map<Key, Long> deltas, Key before, Key after) {
+        if (before != null && before.equals(after)) return;
+        if (before != null) deltas.merge(before, -1L, Long::sum);
+        if (after != null) deltas.merge(after, 1L, Long::sum);
+    }
+
+    /** Locks this writer's guard stripe; the same thread keeps the same stripe, so repeated calls do not deadlock. */
+    private void lockStripe() {
+        rollupRepository.lockGuard((int) (Thread.currentThread().getId() % GUARD_STRIPES));
+    }
+
+    private void add(Key key, long delta) {
+        rollupRepository.increment(key.day(), key.userId(), key.templateName(), key.status(), delta);
+    }
+
+    /** Recounts every bucket from the reports table; returns false when a rebuild is already running. */
+    @Transactional
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) return false;
+        try {
+            long start = System.currentTimeMillis();
+            // in ascending order, as a concurrent rebuild on another node does; before any read, so the
+            // recount sees every report write that committed while it waited
+            for (int stripe = 0; stripe < GUARD_STRIPES; stripe++) rollupRepository.lockGuard(stripe);
+            Map<Key, Long> counts = countReports();
+            rollupRepository.deleteAllBuckets();
+            counts.forEach(this::add);
+            logger.info("Report rollup rebuilt: {} buckets in {} ms", counts.size(), System.currentTimeMillis() - start);
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /** Report count per bucket, read in id order a page at a time. */
+    private Map<Key, Long> countReports() {
+        Map<Key, Long> counts = new HashMap<>();
+        long afterId = 0;
+        List<Object[]> page;
+        do {
+            page = reportRepository.findRollupRowsAfterId(afterId, PageRequest.of(0, REBUILD_PAGE));
+            for (Object[] row : page) {
+                Key key = keyOf((Date) row[1], (Long) row[2], (String) row[3], (String) row[4]);
+                counts.merge(key, 1L, Long::sum);
+                afterId = (Long) row[0];
+            }
+        } while (page.size() == REBUILD_PAGE);
+        return counts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (rebuildOnStartup && rollupRepository.count() == 0 && self.rebuild()) {
+            dashboardCache.invalidate(DashboardCacheService.REPORTS);
+        }
+    }
+
+    @Scheduled(cron = "${app.reports.rollup.rebuild-cron:0 30 2 * * *}")
+    public void nightlyRebuild() {
+        try {
+            if (self.rebuild()) dashboardCache.invalidate(DashboardCacheService.REPORTS);
+        } catch (Exception e) {
+            logger.error("Report rollup rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+}
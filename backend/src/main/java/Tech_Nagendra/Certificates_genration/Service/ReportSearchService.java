@@ -0,0 +1,432 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Dto.ReportDTO;
+import Tech_Nagendra.Certificates_genration.Repository.ReportRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.KeywordTokenizerFactory;
+import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
+import org.apache.lucene.analysis.custom.CustomAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local Lucene index of report rows for /reports/search.
+ * SID and batch id are indexed as whole lower-cased values (prefix search on codes); names, template and training
+ * partner go through the standard analyzer (word prefix and fuzzy search). Everything a ReportDTO needs is stored,
+ * so search results never touch the database.
+ * The index is kept sorted newest first, so a search stops after collecting the requested page instead of
+ * visiting every match; totals are exact up to {@link #EXACT_COUNT_LIMIT} and a lower bound beyond it.
+ * Writes arrive as {@link ReportsWrittenEvent}s and are applied on a single indexing thread, which also runs
+ * rebuilds, so the two never interleave. Searches see changes after the next refresh; commits are periodic.
+ * The index only sees reports written on this node, so it stays off with {@code app.generation.mode=distributed};
+ * {@link ReportService#searchReports} then searches the database instead.
+ */
+@Service
+public class ReportSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportSearchService.class);
+
+    public static final String F_ID = "id";
+    public static final String F_SID = "sid";
+    public static final String F_NAME = "name";
+    public static final String F_BATCH = "batch";
+    public static final String F_TEMPLATE = "template";
+    public static final String F_PARTNER = "partner";
+    public static final String F_STATUS = "status";
+    public static final String F_OWNER = "owner";
+    public static final String F_GENERATED_ON = "generatedOn";
+
+    private static final String[] SEARCH_FIELDS = {F_SID, F_NAME, F_BATCH, F_TEMPLATE, F_PARTNER};
+    private static final Set<String> CODE_FIELDS = Set.of(F_SID, F_BATCH);
+
+    /** Deepest result a page may reach (page * size). */
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    /** Matches are counted exactly up to this many; past it the search stops once the page is filled. */
+    public static final int EXACT_COUNT_LIMIT = 1000;
+
+    private static final int BATCH_SIZE = 2000;
+
+    private static final Sort NEWEST_FIRST = new Sort(new SortField(F_GENERATED_ON, SortField.Type.LONG, true));
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Value("${app.reports.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.reports.search.index-dir:report_index}")
+    private String indexDir;
+
+    @Value("${app.generation.mode:local}")
+    private String generationMode;
+
+    private Analyzer analyzer;
+    private Directory directory;
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "report-indexer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean uncommitted;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) return;
+        if ("distributed".equalsIgnoreCase(generationMode)) {
+            logger.info("Report search index disabled in distributed mode; /reports/search uses the database");
+            return;
+        }
+        try {
+            Analyzer codes = CustomAnalyzer.builder()
+                    .withTokenizer(KeywordTokenizerFactory.NAME)
+                    .addTokenFilter(LowerCaseFilterFactory.NAME)
+                    .build();
+            analyzer = new PerFieldAnalyzerWrapper(new StandardAnalyzer(), Map.of(F_SID, codes, F_BATCH, codes));
+            directory = FSDirectory.open(Paths.get(indexDir));
+            openWriter();
+        } catch (IOException e) {
+            logger.warn("Report search index at {} unavailable: {}", indexDir, e.getMessage());
+            writer = null;
+        }
+    }
+
+    private void openWriter() throws IOException {
+        IndexWriter opened = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setIndexSort(NEWEST_FIRST));
+        searcherManager = new SearcherManager(opened, null);
+        writer = opened;
+    }
+
+    public boolean isAvailable() {
+        return writer != null;
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfEmpty() {
+        if (isAvailable() && writer.getDocStats().numDocs == 0) rebuildAsync();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportsWritten(ReportsWrittenEvent event) {
+        if (!isAvailable() || event.getReportIds().isEmpty()) return;
+        indexer.execute(() -> index(event.getReportIds()));
+    }
+
+    /**
+     * Re-indexes every report from the database. Returns false when a rebuild is already queued or running.
+     * Searches keep seeing the previous index until the rebuild commits; a failed rebuild is rolled back to it.
+     */
+    public boolean rebuildAsync() {
+        if (!isAvailable() || !rebuilding.compareAndSet(false, true)) return false;
+        indexer.execute(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                // commit pending updates first, so a rollback only discards the rebuild
+                writer.commit();
+                uncommitted = false;
+                writer.deleteAll();
+                long afterId = 0;
+                int total = 0;
+                List<ReportDTO> batch;
+                do {
+                    batch = reportRepository.findReportDtosAfterId(afterId, PageRequest.of(0, BATCH_SIZE));
+                    for (ReportDTO dto : batch) {
+                        writer.addDocument(toDocument(dto));
+                        afterId = dto.getId();
+                    }
+                    total += batch.size();
+                } while (batch.size() == BATCH_SIZE);
+                writer.commit();
+                uncommitted = false;
+                searcherManager.maybeRefresh();
+                logger.info("Report search index rebuilt: {} reports in {} ms", total, System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                logger.error("Report search index rebuild failed; keeping the previous index: {}", e.getMessage(), e);
+                rollBack();
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    /** Drops everything since the last commit; rollback closes the writer, so a new one is opened on that commit. */
+    private void rollBack() {
+        SearcherManager previous = searcherManager;
+        try {
+            writer.rollback();
+            openWriter();
+        } catch (IOException e) {
+            logger.error("Could not reopen report search index after a failed rebuild: {}", e.getMessage());
+            writer = null;
+        }
+        try {
+            previous.close();
+        } catch (IOException e) {
+            logger.debug("Could not close searcher manager: {}", e.getMessage());
+        }
+    }
+
+    private void index(List<Long> ids) {
+        try {
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+                Set<Long> missing = new HashSet<>(chunk);
+                for (ReportDTO dto : reportRepository.findReportDtosByIdIn(chunk)) {
+                    writer.updateDocument(new Term(F_ID, String.valueOf(dto.getId())), toDocument(dto));
+                    missing.remove(dto.getId());
+                }
+                for (Long id : missing) writer.deleteDocuments(new Term(F_ID, String.valueOf(id)));
+            }
+            uncommitted = true;
+            searcherManager.maybeRefresh();
+        } catch (Exception e) {
+            logger.warn("Could not index {} reports: {}", ids.size(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reports.search.commit-interval-ms:30000}")
+    public void commitPending() {
+        if (!isAvailable() || !uncommitted) return;
+        indexer.execute(() -> {
+            try {
+                writer.commit();
+                uncommitted = false;
+            } catch (IOException e) {
+                logger.warn("Report search index commit failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Searches the index, newest first.
+     * Plain words match as prefixes across SID, candidate name, batch id, template name and training partner, and
+     * every word must match; when nothing matches, longer words are retried fuzzily. Queries using Lucene syntax
+     * are parsed as such, e.g. {@code sid:AB12*}, {@code name:rahul~1}, {@code batch:"B-2024-07"}.
+     *
+     * @param ownerId when not null, only reports generated by this user
+     */
+    public Page<ReportDTO> search(String text, Long ownerId, String status, Date from, Date to, Pageable pageable) {
+        if (!isAvailable()) throw new IllegalStateException("Report search index is not available");
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Result window too large; narrow the search (max " + MAX_RESULT_WINDOW + ")");
+        }
+
+        String trimmed = text != null ? text.trim() : "";
+        if (trimmed.isEmpty()) return search(new MatchAllDocsQuery(), ownerId, status, from, to, pageable);
+        if (isQuerySyntax(trimmed)) return search(parseSyntax(trimmed), ownerId, status, from, to, pageable);
+
+        Page<ReportDTO> page = search(plainQuery(trimmed, false), ownerId, status, from, to, pageable);
+        if (page.getTotalElements() == 0 && trimmed.length() >= 4) {
+            page = search(plainQuery(trimmed, true), ownerId, status, from, to, pageable);
+        }
+        return page;
+    }
+
+    private Page<ReportDTO> search(Query match, Long ownerId, String status, Date from, Date to, Pageable pageable) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(match, BooleanClause.Occur.MUST);
+        if (ownerId != null) builder.add(new TermQuery(new Term(F_OWNER, String.valueOf(ownerId))), BooleanClause.Occur.FILTER);
+        if (status != null && !status.isBlank()) {
+            builder.add(new TermQuery(new Term(F_STATUS, status.trim().toUpperCase(Locale.ROOT))), BooleanClause.Occur.FILTER);
+        }
+        if (from != null || to != null) {
+            builder.add(LongPoint.newRangeQuery(F_GENERATED_ON,
+                    from != null ? from.getTime() : Long.MIN_VALUE,
+                    to != null ? to.getTime() : Long.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+        Query query = builder.build();
+
+        SearcherManager manager = searcherManager;
+        IndexSearcher searcher = null;
+        try {
+            searcher = manager.acquire();
+            int window = (int) pageable.getOffset() + pageable.getPageSize();
+            TopDocs top = searcher.search(query, new TopFieldCollectorManager(NEWEST_FIRST, window, null, EXACT_COUNT_LIMIT));
+            long total = top.totalHits.value;
+
+            List<ReportDTO> content = new ArrayList<>();
+            StoredFields storedFields = searcher.storedFields();
+            for (int i = (int) pageable.getOffset(); i < top.scoreDocs.length; i++) {
+                content.add(toDto(storedFields.document(top.scoreDocs[i].doc)));
+            }
+            return new PageImpl<>(content, pageable, total);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (searcher != null) {
+                try {
+                    manager.release(searcher);
+                } catch (IOException e) {
+                    logger.debug("Could not release searcher: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static boolean isQuerySyntax(String text) {
+        return text.matches(".*[:*?~\"()\\[\\]{}^].*") || text.startsWith("+") || text.startsWith("-")
+                || text.contains(" AND ") || text.contains(" OR ") || text.contains(" NOT ");
+    }
+
+    private Query parseSyntax(String text) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(SEARCH_FIELDS, analyzer);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(text);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid search query: " + e.getMessage());
+        }
+    }
+
+    /** Every word must match some field: SID/batch id by prefix of the whole code, other fields by word prefix. */
+    private Query plainQuery(String text, boolean fuzzy) {
+        BooleanQuery.Builder all = new BooleanQuery.Builder();
+        for (String word : text.split("\\s+")) {
+            BooleanQuery.Builder any = new BooleanQuery.Builder();
+            String lower = word.toLowerCase(Locale.ROOT);
+            for (String field : CODE_FIELDS) {
+                any.add(fuzzy && lower.length() >= 4
+                        ? new FuzzyQuery(new Term(field, lower), 1)
+                        : new PrefixQuery(new Term(field, lower)), BooleanClause.Occur.SHOULD);
+            }
+            for (String field : List.of(F_NAME, F_TEMPLATE, F_PARTNER)) {
+                for (String token : analyze(field, word)) {
+                    any.add(fuzzy && token.length() >= 4
+                            ? new FuzzyQuery(new Term(field, token), token.length() >= 7 ? 2 : 1)
+                            : new PrefixQuery(new Term(field, token)), BooleanClause.Occur.SHOULD);
+                }
+            }
+            all.add(any.build(), BooleanClause.Occur.MUST);
+        }
+        return all.build();
+    }
+
+    private List<String> analyze(String field, String text) {
+        List<String> tokens = new ArrayList<>(2);
+        try (TokenStream stream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) tokens.add(term.toString());
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+
+    private static Document toDocument(ReportDTO dto) {
+        Document doc = new Document();
+        doc.add(new StringField(F_ID, String.valueOf(dto.getId()), Field.Store.YES));
+        addText(doc, F_SID, dto.getSid());
+        addText(doc, F_NAME, dto.getCourseName());
+        addText(doc, F_BATCH, dto.getBatchId());
+        addText(doc, F_TEMPLATE, dto.getTemplateName());
+        addText(doc, F_PARTNER, dto.getTrainingPartner());
+        if (dto.getStatus() != null) {
+            doc.add(new StringField(F_STATUS, dto.getStatus().toUpperCase(Locale.ROOT), Field.Store.YES));
+        }
+        if (dto.getGeneratedById() != null) {
+            doc.add(new StringField(F_OWNER, String.valueOf(dto.getGeneratedById()), Field.Store.YES));
+        }
+        long generatedOn = dto.getGeneratedAt() != null ? dto.getGeneratedAt().getTime() : 0L;
+        doc.add(new LongPoint(F_GENERATED_ON, generatedOn));
+        doc.add(new NumericDocValuesField(F_GENERATED_ON, generatedOn));
+        if (dto.getGeneratedAt() != null) doc.add(new StoredField(F_GENERATED_ON, generatedOn));
+        addStored(doc, "grade", dto.getGrade());
+        addStored(doc, "jobrole", dto.getJobrole());
+        addStored(doc, "level", dto.getLevel());
+        if (dto.getUserProfileId() != null) doc.add(new StoredField("userProfileId", dto.getUserProfileId()));
+        if (dto.getTemplateId() != null) doc.add(new StoredField("templateId", dto.getTemplateId()));
+        return doc;
+    }
+
+    private static ReportDTO toDto(Document doc) {
+        IndexableField generatedOn = doc.getField(F_GENERATED_ON);
+        String owner = doc.get(F_OWNER);
+        return new ReportDTO(
+                Long.valueOf(doc.get(F_ID)), doc.get(F_SID), doc.get(F_NAME), doc.get("grade"), doc.get(F_TEMPLATE),
+                doc.get("jobrole"), doc.get("level"), doc.get(F_BATCH), doc.get(F_PARTNER),
+                owner != null ? Long.valueOf(owner) : null, longOrNull(doc, "userProfileId"), longOrNull(doc, "templateId"),
+                doc.get(F_STATUS), generatedOn != null ? new Date(generatedOn.numericValue().longValue()) : null);
+    }
+
+    private static void addText(Document doc, String field, String value) {
+        if (value != null) doc.add(new TextField(field, value, Field.Store.YES));
+    }
+
+    private static void addStored(Document doc, String field, String value) {
+        if (value != null) doc.add(new StoredField(field, value));
+    }
+
+    private static Long longOrNull(Document doc, String field) {
+        IndexableField value = doc.getField(field);
+        return value != null ? value.numericValue().longValue() : null;
+    }
+
+    @PreDestroy
+    public void close() {
+        indexer.shutdown();
+        try {
+            indexer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!isAvailable()) return;
+        try {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } catch (IOException e) {
+            logger.warn("Could not close report search index: {}", e.getMessage());
+        }
+    }
+}
@@ -1,123 +1,259 @@
 package Tech_Nagendra.Certificates_genration.Service;
 
+import Tech_Nagendra.Certificates_genration.Config.ReportFullTextIndex;
+import Tech_Nagendra.Certificates_genration.Dto.ReportCursorPage;
 import Tech_Nagendra.Certificates_genration.Dto.ReportDTO;
 import Tech_Nagendra.Certificates_genration.Entity.Report;
 import Tech_Nagendra.Certificates_genration.Entity.Template;
 import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
-import Tech_Nagendra.Certificates_genration.Repository.ProfileRepository;
+import Tech_Nagendra.Certificates_genration.Repository.ReportDailyRollupRepository;
 import Tech_Nagendra.Certificates_genration.Repository.ReportRepository;
+import Tech_Nagendra.Certificates_genration.Repository.ReportSpecifications;
 import Tech_Nagendra.Certificates_genration.Repository.TemplateRepository;
 import Tech_Nagendra.Certificates_genration.Security.UserPrincipal;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /** Bounds used by the paged listings when no date range is given. */
+    private static final Date EARLIEST = new Date(0);
+    private static final Date LATEST = new GregorianCalendar(9000, Calendar.JANUARY, 1).getTime();
+
+    /** Sortable listing columns: request name -> Report property. */
+    private static final Map<String, String> SORTABLE = Map.of(
+            "generatedOn", "generatedOn",
+            "id", "id",
+            "sid", "sid",
+            "courseName", "candidateName",
+            "templateName", "templateName",
+            "batchId", "batchId",
+            "trainingPartner", "trainingPartner",
+            "status", "status");
+
     @Autowired
     private ReportRepository reportRepository;
 
     @Autowired
-    private ProfileRepository profileRepository;
+    private UserProfileCacheService userProfileCache;
 
     @Autowired
     private TemplateRepository templateRepository;
 
+    @Autowired
+    private ReportFullTextIndex fullTextIndex;
+
+    @Autowired
+    private ReportSearchService reportSearchService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReportRollupService rollupService;
+
+    @Autowired
+    private ReportDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private DashboardCacheService dashboardCache;
+
     private boolean isAdmin(UserPrincipal user) {
         return user != null && user.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equalsIgnoreCase("ADMIN") || a.getAuthority().equalsIgnoreCase("ROLE_ADMIN"));
     }
 
     private boolean hasRollId1(UserPrincipal user) {
-        return user != null && user.getUserProfile() != null && user.getUserProfile().getRollid() != null
-                && user.getUserProfile().getRollid() == 1;
+        return user != null && user.getRollid() != null && user.getRollid() == 1;
     }
 
-    public List<Report> getAllReports(UserPrincipal currentUser) {
+    public List<ReportDTO> getAllReportDTOs(UserPrincipal currentUser) {
         if (currentUser == null) return Collections.emptyList();
         if (isAdmin(currentUser) || hasRollId1(currentUser)) {
-            return reportRepository.findAll();
+            return reportRepository.findAllReportDtos();
         } else {
-            return reportRepository.findByGeneratedBy_Id(currentUser.getId());
+            return reportRepository.findReportDtosByGeneratedBy(currentUser.getId());
+        }
+    }
+
+    /**
+     * One offset page of reports, optionally limited to a date range. {@code sort} is "property[,asc|desc]"
+     * using the ReportDTO names; the default is newest first.
+     */
+    public Page<ReportDTO> getReportPage(Date startDate, Date endDate, int page, int size, String sort,
+                                         UserPrincipal currentUser) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize(size), parseSort(sort));
+        Date from = startDate != null ? adjustStartDate(startDate) : EARLIEST;
+        Date to = endDate != null ? adjustEndDate(endDate) : LATEST;
+        if (isAdmin(currentUser) || hasRollId1(currentUser)) {
+            return reportRepository.findReportDtoPage(from, to, pageable);
+        }
+        return reportRepository.findReportDtoPageByGeneratedBy(currentUser.getId(), from, to, pageable);
+    }
+
+    /**
+     * Keyset page of reports, newest first, continuing after {@code cursor} (null for the first page).
+     * Unlike offset pages the cost does not grow with the page number.
+     */
+    public ReportCursorPage getReportsAfter(Date startDate, Date endDate, String cursor, int size,
+                                            UserPrincipal currentUser) {
+        int limit = pageSize(size);
+        Date from = startDate != null ? adjustStartDate(startDate) : EARLIEST;
+        Date to = endDate != null ? adjustEndDate(endDate) : LATEST;
+        Date cursorOn = to;
+        long cursorId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            cursorOn = cursorDate(cursor);
+            cursorId = cursorId(cursor);
         }
+
+        Pageable pageable = PageRequest.of(0, limit);
+        List<ReportDTO> content = (isAdmin(currentUser) || hasRollId1(currentUser))
+                ? reportRepository.findReportDtosBefore(from, to, cursorOn, cursorId, pageable)
+                : reportRepository.findReportDtosByGeneratedByBefore(currentUser.getId(), from, to, cursorOn, cursorId, pageable);
+        return cursorPage(content, limit);
+    }
+
+    /**
+     * Full-text search over the local report index (see {@link ReportSearchService#search}). Dates are whole days.
+     * Without the index (disabled, or several nodes) the query is matched in the database like /reports/filter.
+     */
+    public Page<ReportDTO> searchReports(String query, String status, Date startDate, Date endDate, int page, int size,
+                                         UserPrincipal currentUser) {
+        Date from = startDate != null ? adjustStartDate(startDate) : null;
+        Date to = endDate != null ? adjustEndDate(endDate) : null;
+        if (!reportSearchService.isAvailable()) {
+            Specification<Report> spec = filterSpec(null, null, status, query, currentUser)
+                    .and(ReportSpecifications.generatedBetween(from, to));
+            return reportRepository.findReportDtos(spec, PageRequest.of(Math.max(page, 0), pageSize(size), parseSort(null)));
+        }
+        Long owner = (isAdmin(currentUser) || hasRollId1(currentUser)) ? null : currentUser.getId();
+        return reportSearchService.search(query, owner, status, from, to, PageRequest.of(Math.max(page, 0), pageSize(size)));
+    }
+
+    public boolean rebuildSearchIndex(UserPrincipal currentUser) {
+        if (!isAdmin(currentUser) && !hasRollId1(currentUser)) {
+            throw new IllegalStateException("Only administrators can rebuild the search index");
+        }
+        return reportSearchService.rebuildAsync();
+    }
+
+    /** Offset page of reports matching the /reports/filter criteria; see {@link #getReportPage} for sort. */
+    public Page<ReportDTO> getFilteredReportPage(Date startDate, Date endDate, String status, String searchTerm,
+                                                 int page, int size, String sort, UserPrincipal currentUser) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize(size), parseSort(sort));
+        return reportRepository.findReportDtos(filterSpec(startDate, endDate, status, searchTerm, currentUser), pageable);
+    }
+
+    /** Keyset page of reports matching the /reports/filter criteria, newest first. */
+    public ReportCursorPage getFilteredReportsAfter(Date startDate, Date endDate, String status, String searchTerm,
+                                                    String cursor, int size, UserPrincipal currentUser) {
+        int limit = pageSize(size);
+        Specification<Report> spec = filterSpec(startDate, endDate, status, searchTerm, currentUser);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(ReportSpecifications.before(cursorDate(cursor), cursorId(cursor)));
+        }
+        return cursorPage(reportRepository.findReportDtos(spec, parseSort(null), limit), limit);
     }
 
-    public List<Report> getReportsByDateRange(Date startDate, Date endDate, UserPrincipal currentUser) {
+    public List<ReportDTO> getReportDTOsByDateRange(Date startDate, Date endDate, UserPrincipal currentUser) {
         if (currentUser == null) return Collections.emptyList();
 
         Date adjustedStartDate = adjustStartDate(startDate);
         Date adjustedEndDate = adjustEndDate(endDate);
 
         if (isAdmin(currentUser) || hasRollId1(currentUser)) {
-            return reportRepository.findByGeneratedOnBetween(adjustedStartDate, adjustedEndDate);
+            return reportRepository.findReportDtosByGeneratedOnBetween(adjustedStartDate, adjustedEndDate);
         } else {
-            return reportRepository.findByGeneratedBy_IdAndGeneratedOnBetween(
+            return reportRepository.findReportDtosByGeneratedByAndGeneratedOnBetween(
                     currentUser.getId(), adjustedStartDate, adjustedEndDate);
         }
     }
 
-    public List<ReportDTO> getReportDTOsByDateRange(Date startDate, Date endDate, UserPrincipal currentUser) {
-        List<Report> reports = getReportsByDateRange(startDate, endDate, currentUser);
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-        return reports.stream()
-                .map(r -> convertToReportDTO(r, sdf))
-                .collect(Collectors.toList());
-    }
-
     public List<ReportDTO> getReportsByMultipleFilters(Date startDate, Date endDate, String status,
                                                        String searchTerm, UserPrincipal currentUser) {
-        List<Report> reports;
-
-        if (startDate != null && endDate != null) {
-            reports = getReportsByDateRange(startDate, endDate, currentUser);
-        } else {
-            reports = getAllReports(currentUser);
-        }
-
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        if (currentUser == null) return Collections.emptyList();
+        return reportRepository.findReportDtos(
+                filterSpec(startDate, endDate, status, searchTerm, currentUser), parseSort(null), 0);
+    }
 
-        return reports.stream()
-                .filter(r -> status == null || (r.getStatus() != null && r.getStatus().equalsIgnoreCase(status)))
-                .filter(r -> searchTerm == null ||
-                        (r.getSid() != null && r.getSid().toLowerCase().contains(searchTerm.toLowerCase())) ||
-                        (r.getCandidateName() != null && r.getCandidateName().toLowerCase().contains(searchTerm.toLowerCase())) ||
-                        (r.getTemplateName() != null && r.getTemplateName().toLowerCase().contains(searchTerm.toLowerCase())) ||
-                        (r.getBatchId() != null && r.getBatchId().toLowerCase().contains(searchTerm.toLowerCase())) ||
-                        (r.getTrainingPartner() != null && r.getTrainingPartner().toLowerCase().contains(searchTerm.toLowerCase())))
-                .map(r -> convertToReportDTO(r, sdf))
-                .collect(Collectors.toList());
+    /**
+     * Status, date range (whole days; either end may be left open), search term and ownership as one query.
+     * Admins and roll id 1 see every report, other users only their own.
+     */
+    public Specification<Report> filterSpec(Date startDate, Date endDate, String status, String searchTerm,
+                                             UserPrincipal currentUser) {
+        Date from = startDate != null ? adjustStartDate(startDate) : null;
+        Date to = endDate != null ? adjustEndDate(endDate) : null;
+        Long owner = (isAdmin(currentUser) || hasRollId1(currentUser)) ? null : currentUser.getId();
+        boolean fullText = searchTerm != null && fullTextIndex.isAvailable()
+                && searchTerm.trim().length() >= fullTextIndex.getMinTermLength();
+        return Specification.where(ReportSpecifications.generatedBy(owner))
+                .and(ReportSpecifications.generatedBetween(from, to))
+                .and(ReportSpecifications.hasStatus(status))
+                .and(ReportSpecifications.matches(searchTerm, fullText));
     }
 
     public Map<String, Object> getCertificateStatsByDateRange(Date startDate, Date endDate, UserPrincipal currentUser) {
-        List<Report> reports = getReportsByDateRange(startDate, endDate, currentUser);
+        if (currentUser == null) return Collections.emptyMap();
+
+        LocalDate from = toDay(adjustStartDate(startDate));
+        LocalDate to = toDay(adjustEndDate(endDate));
+        boolean all = isAdmin(currentUser) || hasRollId1(currentUser);
+        Long userId = currentUser.getId();
+        return dashboardCache.get(DashboardCacheService.REPORTS + "range:" + from + ":" + to,
+                DashboardCacheService.scope(all, userId), () -> rangeStats(from, to, all, userId));
+    }
 
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalCertificates", reports.size());
-        stats.put("successfulCertificates", reports.stream().filter(r -> "GENERATED".equals(r.getStatus())).count());
-        stats.put("failedCertificates", reports.stream().filter(r -> "FAILED".equals(r.getStatus())).count());
+    private Map<String, Object> rangeStats(LocalDate from, LocalDate to, boolean all, Long userId) {
+        Map<String, Long> statusDistribution = countBuckets(all
+                ? rollupRepository.statusCounts(from, to)
+                : rollupRepository.statusCountsByUser(userId, from, to), "UNKNOWN");
+        long total = statusDistribution.values().stream().mapToLong(Long::longValue).sum();
 
-        Map<String, Long> templateDistribution = reports.stream()
-                .collect(Collectors.groupingBy(
-                        r -> r.getTemplateName() != null ? r.getTemplateName() : "Unknown",
-                        Collectors.counting()));
-        stats.put("templateDistribution", templateDistribution);
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalCertificates", total);
+        stats.put("successfulCertificates", statusDistribution.getOrDefault("GENERATED", 0L));
+        stats.put("failedCertificates", statusDistribution.getOrDefault("FAILED", 0L));
+        stats.put("statusDistribution", statusDistribution);
+        stats.put("templateDistribution", countBuckets(all
+                ? rollupRepository.templateCounts(from, to)
+                : rollupRepository.templateCountsByUser(userId, from, to), "Unknown"));
+        stats.put("dailyStats", countBuckets(all
+                ? rollupRepository.dailyCounts(from, to)
+                : rollupRepository.dailyCountsByUser(userId, from, to), "Unknown"));
+        return Collections.unmodifiableMap(stats);
+    }
 
-        Map<String, Long> dailyStats = reports.stream()
-                .filter(r -> r.getGeneratedOn() != null)
-                .collect(Collectors.groupingBy(
-                        r -> {
-                            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-                            return sdf.format(r.getGeneratedOn());
-                        }, Collectors.counting()));
-        stats.put("dailyStats", dailyStats);
+    /**
+     * Recounts the dashboard rollup from the reports table. Only administrators (or roll id 1) may trigger it.
+     */
+    public boolean rebuildRollup(UserPrincipal currentUser) {
+        if (!isAdmin(currentUser) && !hasRollId1(currentUser)) {
+            throw new IllegalStateException("Only administrators can rebuild the report statistics");
+        }
+        boolean rebuilt = rollupService.rebuild();
+        if (rebuilt) dashboardCache.invalidate(DashboardCacheService.REPORTS);
+        return rebuilt;
+    }
 
-        return stats;
+    private static LocalDate toDay(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
     }
 
     private Date adjustStartDate(Date startDate) {
@@ -150,29 +286,25 @@ public class ReportService {
         return cal.getTime();
     }
 
-    private ReportDTO convertToReportDTO(Report report, SimpleDateFormat sdf) {
-        ReportDTO dto = new ReportDTO();
-        dto.setId(report.getId());
-        dto.setSid(report.getSid());
-        dto.setCourseName(report.getCandidateName());
-        dto.setGrade(report.getGrade());
-        dto.setTemplateName(report.getTemplateName());
-        dto.setJobrole(report.getJobrole());
-        dto.setLevel(report.getLevel());
-        dto.setBatchId(report.getBatchId());
-        dto.setTrainingPartner(report.getTrainingPartner());
-        dto.setGeneratedById(report.getGeneratedBy() != null ? report.getGeneratedBy().getId() : null);
-        dto.setUserProfileId(report.getUserProfile() != null ? report.getUserProfile().getId() : null);
-        dto.setTemplateId(report.getTemplate() != null ? report.getTemplate().getId() : null);
-        dto.setStatus(report.getStatus());
-        dto.setGeneratedOn(report.getGeneratedOn() != null ? sdf.format(report.getGeneratedOn()) : null);
-        return dto;
-    }
-
     public Report getReportById(Long id) {
         return reportRepository.findById(id).orElse(null);
     }
 
+    /**
+     * The report behind a certificate download, or null when it does not exist.
+     * Administrators may fetch any certificate, other users only those they generated.
+     */
+    public Report getReportForDownload(Long reportId, UserPrincipal currentUser) {
+        if (currentUser == null) throw new IllegalStateException("Not allowed to download this certificate");
+        Report report = reportRepository.findById(reportId).orElse(null);
+        if (report == null || isAdmin(currentUser) || hasRollId1(currentUser)) return report;
+        UserProfile generatedBy = report.getGeneratedBy();
+        if (generatedBy == null || !Objects.equals(generatedBy.getId(), currentUser.getId())) {
+            throw new IllegalStateException("Not allowed to download this certificate");
+        }
+        return report;
+    }
+
     @Transactional
     public Report saveOrUpdateBySid(Report report, UserPrincipal currentUser) {
         if (currentUser == null) return null;
@@ -185,6 +317,7 @@ public class ReportService {
 
         if (!existingReports.isEmpty()) {
             Report existing = existingReports.get(0);
+            ReportRollupService.Key before = ReportRollupService.keyOf(existing);
             existing.setCandidateName(report.getCandidateName());
             existing.setGrade(report.getGrade());
             existing.setJobrole(report.getJobrole());
@@ -194,7 +327,7 @@ public class ReportService {
             existing.setTemplateName(report.getTemplateName());
             existing.setSid(report.getSid());
             existing.setGeneratedOn(new Date());
-            existing.setGeneratedBy(currentUser.getUserProfile());
+            existing.setGeneratedBy(userProfileCache.load(currentUser.getId()));
             existing.setStatus(report.getStatus() != null ? report.getStatus() : "GENERATED");
             existing.setActive(true);
 
@@ -208,12 +341,12 @@ public class ReportService {
                         " TemplateID=" + templateId);
             }
 
-            return reportRepository.save(existing);
+            return published(reportRepository.save(existing), before);
         } else {
             if (report.getUserProfile() == null) {
-                report.setUserProfile(currentUser.getUserProfile());
+                report.setUserProfile(userProfileCache.load(currentUser.getId()));
             }
-            report.setGeneratedBy(currentUser.getUserProfile());
+            report.setGeneratedBy(userProfileCache.load(currentUser.getId()));
             report.setGeneratedOn(new Date());
             report.setStatus(report.getStatus() != null ? report.getStatus() : "GENERATED");
             report.setActive(true);
@@ -223,7 +356,7 @@ public class ReportService {
                 report.setTemplate(template);
             }
 
-            return reportRepository.save(report);
+            return published(reportRepository.save(report), null);
         }
     }
 
@@ -257,7 +390,7 @@ public class ReportService {
                 report.setTemplateName("Template ID: " + templateId);
             }
             report.setSid(sid);
-            report.setUserProfile(currentUser.getUserProfile());
+            report.setUserProfile(userProfileCache.load(currentUser.getId()));
             reports.add(saveOrUpdateBySid(report, currentUser));
         }
         return reports;
@@ -266,7 +399,7 @@ public class ReportService {
     @Transactional
     public Report saveCandidateReport(Object candidateDTO, Long templateId, Long userId, UserPrincipal currentUser) {
         if (currentUser == null) return null;
-        UserProfile targetUserProfile = profileRepository.findById(userId)
+        UserProfile targetUserProfile = Optional.ofNullable(userProfileCache.load(userId))
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
 
         String sid = extractSidFromCandidateDTO(candidateDTO);
@@ -274,10 +407,11 @@ public class ReportService {
 
         if (!existingReports.isEmpty()) {
             Report existing = existingReports.get(0);
+            ReportRollupService.Key before = ReportRollupService.keyOf(existing);
             existing.setGeneratedOn(new Date());
-            existing.setGeneratedBy(currentUser.getUserProfile());
+            existing.setGeneratedBy(userProfileCache.load(currentUser.getId()));
             existing.setStatus("GENERATED");
-            return reportRepository.save(existing);
+            return published(reportRepository.save(existing), before);
         } else {
             Report report = new Report();
             Template template = templateRepository.findById(templateId).orElse(null);
@@ -288,13 +422,19 @@ public class ReportService {
                 report.setTemplateName("Template ID: " + templateId);
             }
             report.setUserProfile(targetUserProfile);
-            report.setGeneratedBy(currentUser.getUserProfile());
+            report.setGeneratedBy(userProfileCache.load(currentUser.getId()));
             report.setGeneratedOn(new Date());
             report.setStatus("GENERATED");
-            return reportRepository.save(report);
+            return published(reportRepository.save(report), null);
         }
     }
 
+    private Report published(Report saved, ReportRollupService.Key before) {
+        rollupService.record(before, saved);
+        eventPublisher.publishEvent(new ReportsWrittenEvent(List.of(saved.getId())));
+        return saved;
+    }
+
     private String extractSidFromCandidateDTO(Object candidateDTO) {
         if (candidateDTO == null) return null;
         try {
@@ -306,66 +446,70 @@ public class ReportService {
 
     public Long getTotalCertificatesCount(UserPrincipal currentUser) {
         if (currentUser == null) return 0L;
-        return (isAdmin(currentUser) || hasRollId1(currentUser))
-                ? reportRepository.count()
-                : reportRepository.countByGeneratedBy_Id(currentUser.getId());
+        boolean all = isAdmin(currentUser) || hasRollId1(currentUser);
+        Long userId = currentUser.getId();
+        return dashboardCache.get(DashboardCacheService.REPORTS + "total", DashboardCacheService.scope(all, userId),
+                () -> all ? rollupRepository.sumAll() : rollupRepository.sumByUser(userId));
     }
 
     public Long countCertificatesThisMonth() {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.DAY_OF_MONTH, 1);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        Date start = cal.getTime();
-        Date end = new Date();
-        return reportRepository.countByGeneratedOnBetween(start, end);
+        LocalDate today = LocalDate.now();
+        return dashboardCache.get(DashboardCacheService.REPORTS + "month:" + today.withDayOfMonth(1),
+                DashboardCacheService.scope(true, null),
+                () -> rollupRepository.sumBetween(today.withDayOfMonth(1), today));
     }
 
     public Long countCertificatesThisMonthByUser(Long userId) {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.DAY_OF_MONTH, 1);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        Date start = cal.getTime();
-        Date end = new Date();
-        return reportRepository.countByGeneratedBy_IdAndGeneratedOnBetween(userId, start, end);
+        LocalDate today = LocalDate.now();
+        return dashboardCache.get(DashboardCacheService.REPORTS + "month:" + today.withDayOfMonth(1),
+                DashboardCacheService.scope(false, userId),
+                () -> rollupRepository.sumByUserBetween(userId, today.withDayOfMonth(1), today));
     }
 
     public Map<String, Long> getMonthlyCertificateStats() {
-        List<Report> allReports = reportRepository.findAll();
-        return allReports.stream()
-                .filter(r -> r.getGeneratedOn() != null)
-                .collect(Collectors.groupingBy(
-                        r -> {
-                            Calendar c = Calendar.getInstance();
-                            c.setTime(r.getGeneratedOn());
-                            return c.get(Calendar.YEAR) + "-" + String.format("%02d", c.get(Calendar.MONTH) + 1);
-                        }, Collectors.counting()));
+        return dashboardCache.get(DashboardCacheService.REPORTS + "monthly", DashboardCacheService.scope(true, null),
+                () -> monthBuckets(rollupRepository.monthlyCounts()));
     }
 
     public Map<String, Long> getMonthlyCertificateStatsByUser(Long userId) {
-        List<Report> reports = reportRepository.findByGeneratedBy_Id(userId);
-        return reports.stream()
-                .filter(r -> r.getGeneratedOn() != null)
-                .collect(Collectors.groupingBy(
-                        r -> {
-                            Calendar c = Calendar.getInstance();
-                            c.setTime(r.getGeneratedOn());
-                            return c.get(Calendar.YEAR) + "-" + String.format("%02d", c.get(Calendar.MONTH) + 1);
-                        }, Collectors.counting()));
+        return dashboardCache.get(DashboardCacheService.REPORTS + "monthly", DashboardCacheService.scope(false, userId),
+                () -> monthBuckets(rollupRepository.monthlyCountsByUser(userId)));
     }
 
     public Map<String, Long> getCertificateTypesDistribution(UserPrincipal currentUser) {
-        List<Report> reports = (isAdmin(currentUser) || hasRollId1(currentUser))
-                ? reportRepository.findAll()
-                : reportRepository.findByGeneratedBy_Id(currentUser.getId());
-        return reports.stream().collect(Collectors.groupingBy(
-                r -> r.getTemplateName() != null ? r.getTemplateName() : "Unknown",
-                Collectors.counting()));
+        if (currentUser == null) return Collections.emptyMap();
+        boolean all = isAdmin(currentUser) || hasRollId1(currentUser);
+        Long userId = currentUser.getId();
+        LocalDate from = ReportRollupService.FIRST_DAY;
+        LocalDate to = ReportRollupService.LAST_DAY;
+        return dashboardCache.get(DashboardCacheService.REPORTS + "types", DashboardCacheService.scope(all, userId),
+                () -> countBuckets(all
+                        ? rollupRepository.templateCounts(from, to)
+                        : rollupRepository.templateCountsByUser(userId, from, to), "Unknown"));
+    }
+
+    /** (key, count) rows from a GROUP BY query in query order; an empty key is counted under {@code unknown}. */
+    private static Map<String, Long> countBuckets(List<Object[]> rows, String unknown) {
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            long count = ((Number) row[1]).longValue();
+            if (count == 0) continue;
+            String key = row[0] != null && !row[0].toString().isEmpty() ? row[0].toString() : unknown;
+            buckets.merge(key, count, Long::sum);
+        }
+        return Collections.unmodifiableMap(buckets);
+    }
+
+    /** (year, month, count) rows as "yyyy-MM" keys in date order. */
+    private static Map<String, Long> monthBuckets(List<Object[]> rows) {
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            long count = ((Number) row[2]).longValue();
+            if (row[0] == null || count == 0) continue;
+            int month = ((Number) row[1]).intValue();
+            buckets.put(((Number) row[0]).intValue() + (month < 10 ? "-0" : "-") + month, count);
+        }
+        return Collections.unmodifiableMap(buckets);
     }
 
     public Map<String, Long> getTotalTemplatesCount(UserPrincipal currentUser) {
@@ -373,25 +517,55 @@ public class ReportService {
     }
 
     public List<ReportDTO> getReportsByFilter(String status, String searchTerm, Date from, Date to, UserPrincipal currentUser) {
-        List<Report> reports;
+        return getReportsByMultipleFilters(from, to, status, searchTerm, currentUser);
+    }
 
-        if (from != null && to != null) {
-            reports = getReportsByDateRange(from, to, currentUser);
-        } else {
-            reports = getAllReports(currentUser);
+    private static ReportCursorPage cursorPage(List<ReportDTO> content, int limit) {
+        String nextCursor = null;
+        if (content.size() == limit) {
+            ReportDTO last = content.get(content.size() - 1);
+            nextCursor = last.getGeneratedAt().getTime() + "_" + last.getId();
+        }
+        return new ReportCursorPage(content, content.size(), nextCursor);
+    }
+
+    /** Cursor format: "&lt;generatedOn epoch millis&gt;_&lt;id&gt;". */
+    private static Date cursorDate(String cursor) {
+        return new Date(cursorPart(cursor, true));
+    }
+
+    private static long cursorId(String cursor) {
+        return cursorPart(cursor, false);
+    }
+
+    private static long cursorPart(String cursor, boolean first) {
+        int sep = cursor.indexOf('_');
+        if (sep <= 0) throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        try {
+            return Long.parseLong(first ? cursor.substring(0, sep) : cursor.substring(sep + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
         }
+    }
 
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-        return reports.stream()
-                .filter(r -> status == null || (r.getStatus() != null && r.getStatus().equalsIgnoreCase(status)))
-                .filter(r -> searchTerm == null ||
-                        (r.getSid() != null && r.getSid().toLowerCase().contains(searchTerm.toLowerCase())) ||
-                        (r.getCandidateName() != null && r.getCandidateName().toLowerCase().contains(searchTerm.toLowerCase())) ||
-                        (r.getTemplateName() != null && r.getTemplateName().toLowerCase().contains(searchTerm.toLowerCase())))
-                .filter(r -> from == null || (r.getGeneratedOn() != null && !r.getGeneratedOn().before(from)))
-                .filter(r -> to == null || (r.getGeneratedOn() != null && !r.getGeneratedOn().after(to)))
-                .map(r -> convertToReportDTO(r, sdf))
-                .collect(Collectors.toList());
+    private static int pageSize(int size) {
+        if (size <= 0) return DEFAULT_PAGE_SIZE;
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /** "property[,asc|desc]" -> Sort, restricted to SORTABLE; id is always the tie-breaker. */
+    private static Sort parseSort(String sort) {
+        Sort.Direction direction = Sort.Direction.DESC;
+        String property = "generatedOn";
+        if (sort != null && !sort.isBlank()) {
+            String[] parts = sort.split(",");
+            String mapped = SORTABLE.get(parts[0].trim());
+            if (mapped == null) throw new IllegalArgumentException("Unsupported sort property: " + parts[0].trim());
+            property = mapped;
+            if (parts.length > 1) direction = Sort.Direction.fromOptionalString(parts[1].trim()).orElse(Sort.Direction.ASC);
+            else direction = Sort.Direction.ASC;
+        }
+        Sort result = Sort.by(direction, property);
+        return "id".equals(property) ? result : result.and(Sort.by(direction, "id"));
     }
 }
\ No newline at end of file
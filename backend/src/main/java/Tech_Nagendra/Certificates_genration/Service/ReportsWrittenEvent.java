@@ -0,0 +1,18 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/** Published after reports are inserted or updated; listeners run once the surrounding transaction commits. */
+public class ReportsWrittenEvent {
+
+    private final List<Long> reportIds;
+
+    public ReportsWrittenEvent(Collection<Long> reportIds) {
+        this.reportIds = List.copyOf(reportIds);
+    }
+
+    public List<Long> getReportIds() {
+        return reportIds;
+    }
+}
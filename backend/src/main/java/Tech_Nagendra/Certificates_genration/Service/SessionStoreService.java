@@ -0,0 +1,197 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Entity.UserLoginSession;
+import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
+import Tech_Nagendra.Certificates_genration.Repository.ProfileRepository;
+import Tech_Nagendra.Certificates_genration.Repository.UserLoginSessionRepository;
+import Tech_Nagendra.Certificates_genration.Security.JwtClaims;
+import Tech_Nagendra.Certificates_genration.Utility.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Active login sessions, keyed by token hash. user_login_session is the source of truth: it is written on
+ * login/logout and read back on startup. {@link #isActive} answers from memory and looks a token up in the table
+ * again at most every {@code app.session.recheck-seconds}, so a logout or a single-session login on another node
+ * takes effect here within that time.
+ */
+@Service
+public class SessionStoreService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionStoreService.class);
+
+    @Autowired
+    private UserLoginSessionRepository sessionRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    /** When true a new login closes the user's other sessions, as the single login_token column used to. */
+    @Value("${app.session.single-per-user:true}")
+    private boolean singleSessionPerUser;
+
+    @Value("${app.session.max-size:100000}")
+    private long maxSize;
+
+    @Value("${app.session.recheck-seconds:30}")
+    private long recheckSeconds;
+
+    /** Token hash -> expiry (epoch millis); entries drop out when the token expires or after recheck-seconds. */
+    private Cache<String, Long> active;
+
+    /** Hashes known to be logged out or unknown, so replayed tokens are rejected without a query. */
+    private Cache<String, Boolean> inactive;
+
+    @PostConstruct
+    public void init() {
+        active = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String key, Long expiresAt, long currentTime) {
+                        long untilExpiry = Math.max(0, expiresAt - System.currentTimeMillis());
+                        return TimeUnit.MILLISECONDS.toNanos(Math.min(untilExpiry, TimeUnit.SECONDS.toMillis(recheckSeconds)));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Long expiresAt, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, expiresAt, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Long expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        inactive = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofHours(1))
+                .build();
+    }
+
+    public boolean isActive(JwtClaims claims) {
+        String hash = claims.getTokenHash();
+        if (active.getIfPresent(hash) != null) return true;
+        if (inactive.getIfPresent(hash) != null) return false;
+
+        Optional<UserLoginSession> session = sessionRepository.findByJwtToken(hash);
+        if (session.isPresent() && session.get().isActive() && !isExpired(session.get())) {
+            remember(hash, claims.getExpiration());
+            return true;
+        }
+        inactive.put(hash, Boolean.TRUE);
+        return false;
+    }
+
+    @Transactional
+    public void open(UserProfile user, JwtClaims claims, String deviceInfo) {
+        if (singleSessionPerUser) closeAll(user.getId());
+
+        UserLoginSession session = new UserLoginSession();
+        session.setUser(user);
+        session.setJwtToken(claims.getTokenHash());
+        session.setDeviceInfo(deviceInfo != null && deviceInfo.length() > 255 ? deviceInfo.substring(0, 255) : deviceInfo);
+        session.setExpiresAt(toLocal(claims.getExpiration()));
+        session.setActive(true);
+        sessionRepository.save(session);
+
+        inactive.invalidate(claims.getTokenHash());
+        remember(claims.getTokenHash(), claims.getExpiration());
+    }
+
+    @Transactional
+    public void revoke(JwtClaims claims) {
+        sessionRepository.findByJwtToken(claims.getTokenHash()).ifPresent(session -> {
+            session.setActive(false);
+            session.setLogoutTime(LocalDateTime.now());
+            sessionRepository.save(session);
+        });
+        forget(claims.getTokenHash());
+    }
+
+    @Transactional
+    public void closeAll(Long userId) {
+        List<UserLoginSession> sessions = sessionRepository.findByUser_IdAndActiveTrue(userId);
+        LocalDateTime now = LocalDateTime.now();
+        for (UserLoginSession session : sessions) {
+            session.setActive(false);
+            session.setLogoutTime(now);
+            forget(session.getJwtToken());
+        }
+        sessionRepository.saveAll(sessions);
+    }
+
+    /**
+     * Loads the active sessions into memory. Tokens still held in user_profile.login_token from before the
+     * session table was used are imported once, so users stay logged in across the upgrade.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            int imported = 0;
+            for (UserProfile user : profileRepository.findByLoginTokenIsNotNull()) {
+                try {
+                    JwtClaims claims = jwtUtil.parseClaims(user.getLoginToken());
+                    if (sessionRepository.findByJwtToken(claims.getTokenHash()).isPresent()) continue;
+                    UserLoginSession session = new UserLoginSession();
+                    session.setUser(user);
+                    session.setJwtToken(claims.getTokenHash());
+                    session.setExpiresAt(toLocal(claims.getExpiration()));
+                    session.setActive(true);
+                    sessionRepository.save(session);
+                    imported++;
+                } catch (Exception e) {
+                    logger.debug("Skipping stored login token of user {}: {}", user.getId(), e.getMessage());
+                }
+            }
+
+            List<UserLoginSession> sessions = sessionRepository.findByActiveTrueAndExpiresAtAfter(LocalDateTime.now());
+            for (UserLoginSession session : sessions) {
+                remember(session.getJwtToken(), Date.from(session.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant()));
+            }
+            logger.info("Session store loaded {} active sessions ({} imported from login_token)", sessions.size(), imported);
+        } catch (Exception e) {
+            logger.warn("Could not load login sessions: {}", e.getMessage());
+        }
+    }
+
+    private void remember(String hash, Date expiration) {
+        long expiresAt = expiration != null ? expiration.getTime() : System.currentTimeMillis() + Duration.ofDays(7).toMillis();
+        active.put(hash, expiresAt);
+    }
+
+    private void forget(String hash) {
+        active.invalidate(hash);
+        inactive.put(hash, Boolean.TRUE);
+    }
+
+    private static boolean isExpired(UserLoginSession session) {
+        return session.getExpiresAt() != null && session.getExpiresAt().isBefore(LocalDateTime.now());
+    }
+
+    private static LocalDateTime toLocal(Date date) {
+        return date == null ? null : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
@@ -163,6 +163,11 @@ import Tech_Nagendra.Certificates_genration.Repository.ProfileRepository;
 import Tech_Nagendra.Certificates_genration.Repository.TemplateImageRepository;
 import Tech_Nagendra.Certificates_genration.Repository.TemplateRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -170,7 +175,9 @@ import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -180,6 +187,11 @@ public class TemplateService {
     private final TemplateRepository templateRepository;
     private final TemplateImageRepository templateImageRepository;
     private final ProfileRepository profileRepository;
+    private final DashboardCacheService dashboardCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
 
     private static final String TEMPLATE_BASE_PATH = System.getProperty("user.dir") + "/templates/";
 
@@ -250,11 +262,12 @@ public class TemplateService {
                 .map(TemplateImage::getImagePath)
                 .collect(Collectors.toList());
 
+        eventPublisher.publishEvent(new TemplatesChangedEvent(savedTemplate.getId()));
         return mapToDto(savedTemplate, imagePaths);
     }
 
     public TemplateDto getTemplateByIdForUser(Long templateId, Long userId, String role) throws Exception {
-        Template template = templateRepository.findById(templateId)
+        Template template = templateRepository.findWithImagesById(templateId)
                 .orElseThrow(() -> new RuntimeException("Template not found"));
 
         if (!"ADMIN".equalsIgnoreCase(role) && !template.getCreatedBy().getId().equals(userId)) {
@@ -269,22 +282,38 @@ public class TemplateService {
     }
 
     public List<TemplateDto> getAllTemplates(Long userId, String role) {
-        List<Template> templates = "ADMIN".equalsIgnoreCase(role)
-                ? templateRepository.findAll()
-                : templateRepository.findByCreatedBy_Id(userId);
+        List<TemplateDto> templates = "ADMIN".equalsIgnoreCase(role)
+                ? templateRepository.findAllTemplateDtos()
+                : templateRepository.findTemplateDtosByCreatedBy(userId);
+        return withImagePaths(templates);
+    }
 
-        return templates.stream()
-                .map(template -> mapToDto(template,
-                        template.getImages().stream()
-                                .map(TemplateImage::getImagePath)
-                                .collect(Collectors.toList())))
-                .collect(Collectors.toList());
+    /** One page of templates ordered by id; two queries however many templates or images there are. */
+    public Page<TemplateDto> getTemplatePage(Long userId, String role, int page, int size) {
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize, Sort.by("id"));
+        Page<TemplateDto> templates = "ADMIN".equalsIgnoreCase(role)
+                ? templateRepository.findTemplateDtoPage(pageable)
+                : templateRepository.findTemplateDtoPageByCreatedBy(userId, pageable);
+        withImagePaths(templates.getContent());
+        return templates;
+    }
+
+    /** Loads the image paths of all given templates with a single query. */
+    private List<TemplateDto> withImagePaths(List<TemplateDto> templates) {
+        if (templates.isEmpty()) return templates;
+        Map<Long, TemplateDto> byId = new HashMap<>();
+        for (TemplateDto template : templates) byId.put(template.getId(), template);
+        for (Object[] row : templateImageRepository.findImagePathsByTemplateIds(byId.keySet())) {
+            byId.get((Long) row[0]).getImagePaths().add((String) row[1]);
+        }
+        return templates;
     }
 
     public Long getTotalTemplates(Long userId, String role) {
-        return "ADMIN".equalsIgnoreCase(role)
-                ? templateRepository.count()
-                : templateRepository.countByCreatedBy_Id(userId);
+        boolean all = "ADMIN".equalsIgnoreCase(role);
+        return dashboardCache.get(DashboardCacheService.TEMPLATES + "total", DashboardCacheService.scope(all, userId),
+                () -> all ? templateRepository.count() : templateRepository.countByCreatedBy_Id(userId));
     }
 
     private TemplateDto mapToDto(Template template, List<String> imagePaths) {
@@ -0,0 +1,15 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+/** Published after a template is created or changed; listeners run once the surrounding transaction commits. */
+public class TemplatesChangedEvent {
+
+    private final Long templateId;
+
+    public TemplatesChangedEvent(Long templateId) {
+        this.templateId = templateId;
+    }
+
+    public Long getTemplateId() {
+        return templateId;
+    }
+}
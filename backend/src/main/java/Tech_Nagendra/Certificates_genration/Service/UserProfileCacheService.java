@@ -0,0 +1,92 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Entity.UserProfile;
+import Tech_Nagendra.Certificates_genration.Repository.ProfileRepository;
+import Tech_Nagendra.Certificates_genration.Security.UserSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Read-only user lookups for authentication, auditing and report ownership.
+ * A profile is loaded at most once per request (request attribute) and shared between requests for a short TTL as
+ * an immutable {@link UserSnapshot}; no entity is kept. Associations take the entity from {@link #load}, which
+ * only works inside the caller's transaction, so no UserProfile outlives the persistence context it belongs to.
+ * Code that changes a profile loads it from {@link ProfileRepository} and calls {@link #evict} after saving.
+ */
+@Service
+public class UserProfileCacheService {
+
+    private static final String REQUEST_ATTRIBUTE_PREFIX = UserProfileCacheService.class.getName() + ".";
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Value("${app.user-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.user-cache.max-size:1000}")
+    private long maxSize;
+
+    private Cache<Long, UserSnapshot> profiles;
+
+    @PostConstruct
+    public void init() {
+        profiles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public Optional<UserSnapshot> find(Long userId) {
+        if (userId == null) return Optional.empty();
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        String key = REQUEST_ATTRIBUTE_PREFIX + userId;
+        if (request != null) {
+            Object cached = request.getAttribute(key, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof UserSnapshot user) return Optional.of(user);
+        }
+
+        UserSnapshot user = profiles.getIfPresent(userId);
+        if (user == null) {
+            user = profileRepository.findById(userId).map(UserSnapshot::of).orElse(null);
+            if (user == null) return Optional.empty();
+            profiles.put(userId, user);
+        }
+        if (request != null) request.setAttribute(key, user, RequestAttributes.SCOPE_REQUEST);
+        return Optional.of(user);
+    }
+
+    public UserSnapshot getRequired(Long userId) {
+        return find(userId).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found with ID: " + userId));
+    }
+
+    /**
+     * The user as an entity of the caller's transaction, for setting an association; null for a null or unknown id.
+     * Repeated calls in one transaction are answered from its persistence context.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public UserProfile load(Long userId) {
+        return userId != null ? profileRepository.findById(userId).orElse(null) : null;
+    }
+
+    /** Drops the shared copy and the one cached on the current request. */
+    public void evict(Long userId) {
+        if (userId == null) return;
+        profiles.invalidate(userId);
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) request.removeAttribute(REQUEST_ATTRIBUTE_PREFIX + userId, RequestAttributes.SCOPE_REQUEST);
+    }
+}
@@ -1,23 +1,54 @@
 package Tech_Nagendra.Certificates_genration.Utility;
 
+import Tech_Nagendra.Certificates_genration.Security.JwtClaims;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
+import java.util.HexFormat;
 
 @Component
 public class JwtUtil {
 
+    private static final HexFormat HEX = HexFormat.of();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
     @Value("${app.jwt.secret}")
     private String jwtSecretBase64;
 
+    @Value("${app.jwt.claims-cache-size:10000}")
+    private long claimsCacheSize;
+
+    @Value("${app.jwt.claims-cache-ttl-minutes:30}")
+    private long claimsCacheTtlMinutes;
+
     private SecretKey signingKey;
 
+    /** Immutable and thread-safe; built once instead of per parse. */
+    private JwtParser jwtParser;
+
+    /** Verified tokens by SHA-256, so repeat requests skip the signature check. Expiry is re-checked on every hit. */
+    private Cache<String, JwtClaims> verifiedTokens;
+
     @PostConstruct
     public void init() {
         try {
@@ -26,6 +57,11 @@ public class JwtUtil {
         } catch (Exception e) {
             throw new IllegalStateException("Invalid JWT secret key", e);
         }
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfterWrite(Duration.ofMinutes(claimsCacheTtlMinutes))
+                .build();
     }
 
     public String generateToken(Long userId, String username, String email, String role) {
@@ -48,49 +84,104 @@ public class JwtUtil {
         token = cleanToken(token);
         if (token.isEmpty()) throw new IllegalArgumentException("JWT token is missing");
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(signingKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return jwtParser.parseClaimsJws(token).getBody();
         } catch (JwtException e) {
             throw new IllegalArgumentException("Invalid JWT token: " + e.getMessage());
         }
     }
 
+    /**
+     * Verifies the token once and returns its claims; later calls with the same token are served from the cache.
+     * jjwt exceptions (expired, malformed, bad signature) are passed through unchanged.
+     */
+    public JwtClaims parseClaims(String token) {
+        token = cleanToken(token);
+        if (token.isEmpty()) throw new IllegalArgumentException("JWT token is missing");
+        String hash = hashToken(token);
+        JwtClaims cached = verifiedTokens.getIfPresent(hash);
+        if (cached != null) {
+            if (!cached.isExpired(System.currentTimeMillis())) return cached;
+            verifiedTokens.invalidate(hash);
+            throw new ExpiredJwtException(null, null, "JWT expired at " + cached.getExpiration());
+        }
+        JwtClaims claims = JwtClaims.from(jwtParser.parseClaimsJws(token).getBody(), hash);
+        verifiedTokens.put(hash, claims);
+        return claims;
+    }
+
+    /**
+     * Claims for the current request: the ones JwtFilter already verified, or parsed from the Authorization header.
+     */
+    public JwtClaims resolveClaims(HttpServletRequest request) {
+        Object attribute = request.getAttribute(JwtClaims.REQUEST_ATTRIBUTE);
+        if (attribute instanceof JwtClaims claims) return claims;
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new IllegalArgumentException("Missing or invalid Authorization header");
+        }
+        JwtClaims claims = claims(authHeader);
+        request.setAttribute(JwtClaims.REQUEST_ATTRIBUTE, claims);
+        return claims;
+    }
+
+    public static String hashToken(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return HEX.formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private JwtClaims claims(String token) {
+        try {
+            return parseClaims(token);
+        } catch (JwtException e) {
+            throw new IllegalArgumentException("Invalid JWT token: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Strips an optional "Bearer " prefix, surrounding whitespace, non-printable characters and stray angle
+     * brackets. A well-formed token is returned without copying.
+     */
     public String cleanToken(String token) {
         if (token == null) return "";
         token = token.trim();
-        if (token.startsWith("Bearer ")) token = token.substring(7);
-        return token.replaceAll("[^\\x20-\\x7E]", "");
+        if (token.startsWith("Bearer ")) token = token.substring(7).trim();
+        int len = token.length();
+        int i = 0;
+        while (i < len && isTokenChar(token.charAt(i))) i++;
+        if (i == len) return token;
+
+        StringBuilder sb = new StringBuilder(len);
+        sb.append(token, 0, i);
+        for (; i < len; i++) {
+            char ch = token.charAt(i);
+            if (isTokenChar(ch)) sb.append(ch);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isTokenChar(char ch) {
+        return ch >= 0x20 && ch <= 0x7E && ch != '<' && ch != '>';
     }
 
     public Long extractUserId(String token) {
-        Object userIdObj = extractAllClaims(token).get("userId");
-        if (userIdObj == null) throw new IllegalArgumentException("JWT token missing 'userId' claim");
-        if (userIdObj instanceof Integer) return ((Integer) userIdObj).longValue();
-        if (userIdObj instanceof Long) return (Long) userIdObj;
-        return Long.parseLong(userIdObj.toString());
+        return claims(token).getUserId();
     }
 
     public String extractUsername(String token) {
-        String username = extractAllClaims(token).getSubject();
-        if (username == null) throw new IllegalArgumentException("JWT token missing 'username' (subject)");
-        return username;
+        return claims(token).getUsername();
     }
 
     public String extractEmail(String token) {
-        Object email = extractAllClaims(token).get("email");
-        return email != null ? email.toString() : "";
+        return claims(token).getEmail();
     }
 
     public String extractRole(String token) {
-        Object role = extractAllClaims(token).get("role");
-        return role != null ? role.toString() : "";
+        return claims(token).getRole();
     }
 
     public boolean isTokenExpired(String token) {
-        Date expiration = extractAllClaims(token).getExpiration();
+        Date expiration = claims(token).getExpiration();
         return expiration.before(new Date());
     }
 
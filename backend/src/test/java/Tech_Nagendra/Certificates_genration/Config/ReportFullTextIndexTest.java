@@ -0,0 +1,75 @@
+package Tech_Nagendra.Certificates_genration.Config;
+
+import com.mysql.cj.jdbc.MysqlDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set-up of the report search index. The MySQL case needs a scratch schema it may create and drop a reports table in:
+ * {@code mvn test -Dtest=ReportFullTextIndexTest -Dtest.mysql.url=jdbc:mysql://localhost:3306/scratch
+ * -Dtest.mysql.user=root -Dtest.mysql.password=...}
+ */
+class ReportFullTextIndexTest {
+
+    private static final String MATCH = "SELECT sid FROM reports WHERE MATCH(sid, candidate_name, template_name, " +
+            "batch_id, training_partner) AGAINST (? IN BOOLEAN MODE) ORDER BY id";
+    private static final String LIKE = "SELECT sid FROM reports WHERE LOWER(sid) LIKE ? OR LOWER(candidate_name) LIKE ? " +
+            "OR LOWER(template_name) LIKE ? OR LOWER(batch_id) LIKE ? OR LOWER(training_partner) LIKE ? ORDER BY id";
+
+    @Test
+    void otherDatabasesFallBackToLike() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:fulltext;MODE=MySQL");
+        ReportFullTextIndex index = index(dataSource);
+        index.ensureIndex();
+        assertFalse(index.isAvailable());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "test.mysql.url", matches = ".+")
+    void termsContainingStopwordLettersMatchLikeContains() {
+        MysqlDataSource dataSource = new MysqlDataSource();
+        dataSource.setURL(System.getProperty("test.mysql.url"));
+        dataSource.setUser(System.getProperty("test.mysql.user", "root"));
+        dataSource.setPassword(System.getProperty("test.mysql.password", ""));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS reports");
+        jdbcTemplate.execute("CREATE TABLE reports (id BIGINT AUTO_INCREMENT PRIMARY KEY, sid VARCHAR(255), " +
+                "candidate_name VARCHAR(255), template_name VARCHAR(255), batch_id VARCHAR(255), " +
+                "training_partner VARCHAR(255)) ENGINE=InnoDB");
+        try {
+            jdbcTemplate.update("INSERT INTO reports (sid, candidate_name, template_name, batch_id, training_partner) VALUES " +
+                    "('SID-AI01', 'Ravi Kumar', 'Domestic', 'B1', 'Skill India'), " +
+                    "('SID-0002', 'Priya Das', 'Retail', 'B2', 'Vikas Trust'), " +
+                    "('SID-0003', 'John Doe', 'Welding', 'B3', 'North Hub')");
+
+            ReportFullTextIndex index = index(dataSource);
+            index.ensureIndex();
+            assertTrue(index.isAvailable());
+
+            for (String term : List.of("ra", "vi", "ai", "ia", "ravi", "skill india", "priya")) {
+                String pattern = "%" + term + "%";
+                List<String> expected = jdbcTemplate.queryForList(LIKE, String.class,
+                        pattern, pattern, pattern, pattern, pattern);
+                assertFalse(expected.isEmpty(), term);
+                assertEquals(expected, jdbcTemplate.queryForList(MATCH, String.class, "\"" + term + "\""), term);
+            }
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS reports");
+        }
+    }
+
+    private static ReportFullTextIndex index(DataSource dataSource) {
+        ReportFullTextIndex index = new ReportFullTextIndex(dataSource);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        return index;
+    }
+}
@@ -0,0 +1,126 @@
+package Tech_Nagendra.Certificates_genration.Controller;
+
+import Tech_Nagendra.Certificates_genration.Security.JwtClaims;
+import Tech_Nagendra.Certificates_genration.Security.UserSnapshot;
+import Tech_Nagendra.Certificates_genration.Service.*;
+import Tech_Nagendra.Certificates_genration.Utility.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** How /certificates/generate-zip answers when admission control turns a request away. */
+@SuppressWarnings("try")
+class CertificateControllerAdmissionTest {
+
+    private static final byte[] TWO_ROWS = "sid,candidateName\nX1,Alpha\nX2,Beta\n".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path tempDir;
+
+    private final CertificateService certificateService = mock(CertificateService.class);
+    private final PreflightService preflightService = mock(PreflightService.class);
+    private GenerationAdmission admission;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        JwtUtil jwtUtil = mock(JwtUtil.class);
+        JwtClaims claims = mock(JwtClaims.class);
+        when(claims.getUserId()).thenReturn(1L);
+        when(jwtUtil.resolveClaims(any())).thenReturn(claims);
+        UserProfileCacheService userProfileCache = mock(UserProfileCacheService.class);
+        when(userProfileCache.find(1L)).thenReturn(Optional.of(new UserSnapshot(1L, "user", "USER", null)));
+
+        admission = new GenerationAdmission();
+        ReflectionTestUtils.setField(admission, "enabled", true);
+        ReflectionTestUtils.setField(admission, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(admission, "maxRows", 100L);
+        ReflectionTestUtils.setField(admission, "memoryBudgetMb", 256L);
+        ReflectionTestUtils.setField(admission, "baseKb", 8192L);
+        ReflectionTestUtils.setField(admission, "rowKb", 64L);
+        ReflectionTestUtils.setField(admission, "uploadFactor", 3d);
+        ReflectionTestUtils.setField(admission, "maxQueue", 4);
+        ReflectionTestUtils.setField(admission, "queueTimeoutMs", 50L);
+        ReflectionTestUtils.invokeMethod(admission, "init");
+
+        CertificateController controller = new CertificateController(certificateService, mock(ReportService.class),
+                userProfileCache, jwtUtil, mock(DynamicFontService.class), preflightService,
+                mock(CertificateStore.class), mock(GenerationJobService.class), admission);
+        ReflectionTestUtils.setField(controller, "tempPath", tempDir.toString());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void busyServerAnswers429WithBoundedRetryAfter() throws Exception {
+        try (GenerationAdmission.Permit ignored = admission.admit(10, 0)) {
+            MvcResult result = mockMvc.perform(generate(TWO_ROWS))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(jsonPath("$.retryAfterSeconds").isNumber())
+                    .andReturn();
+            long retryAfter = Long.parseLong(result.getResponse().getHeader("Retry-After"));
+            assertTrue(retryAfter >= 1 && retryAfter <= 600, "Retry-After " + retryAfter);
+        }
+        verifyNoInteractions(certificateService);
+    }
+
+    @Test
+    void busyServerDoesNotParseTheUpload() throws Exception {
+        try (GenerationAdmission.Permit ignored = admission.admit(10, 0)) {
+            mockMvc.perform(generate(TWO_ROWS, true)).andExpect(status().isTooManyRequests());
+        }
+        verifyNoInteractions(preflightService, certificateService);
+    }
+
+    @Test
+    void oversizeUploadAnswers413() throws Exception {
+        StringBuilder csv = new StringBuilder("sid,candidateName\n");
+        for (int i = 0; i < 101; i++) csv.append("S").append(i).append(",Name ").append(i).append('\n');
+
+        mockMvc.perform(generate(csv.toString().getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.hint").value("Submit it as a background job: POST /certificates/jobs/1"));
+        verifyNoInteractions(certificateService);
+    }
+
+    @Test
+    void failedRunReleasesItsPermit() throws Exception {
+        when(certificateService.generateCertificatesAndReports(anyLong(), any(), any(), anyString(), any()))
+                .thenThrow(new IllegalStateException("render failed"));
+
+        mockMvc.perform(generate(TWO_ROWS)).andExpect(status().isInternalServerError());
+        mockMvc.perform(generate(TWO_ROWS)).andExpect(status().isInternalServerError());
+
+        assertEquals(0, admission.stats().get("running"));
+        assertEquals(2L, admission.stats().get("admitted"));
+        assertEquals(0L, admission.stats().get("timedOut"));
+    }
+
+    private static RequestBuilder generate(byte[] candidates) {
+        return generate(candidates, false);
+    }
+
+    private static RequestBuilder generate(byte[] candidates, boolean preflight) {
+        return multipart("/certificates/generate-zip/1")
+                .file(new MockMultipartFile("excel", "candidates.csv", "text/csv", candidates))
+                .param("preflight", String.valueOf(preflight))
+                .accept(MediaType.APPLICATION_JSON);
+    }
+}
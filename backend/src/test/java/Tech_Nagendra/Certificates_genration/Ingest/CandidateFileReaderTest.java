@@ -0,0 +1,49 @@
+package Tech_Nagendra.Certificates_genration.Ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandidateFileReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void headerLongerThanTheReadBufferIsParsedOnce() throws Exception {
+        StringBuilder csv = new StringBuilder("\uFEFFsid;candidateName");
+        for (int i = 0; i < 10_000; i++) csv.append(";extra_column_").append(i);
+        csv.append("\nS1;Alpha\n\"S2\";\"Beta; Jr\"\n");
+        File file = write("candidates.csv", csv.toString());
+
+        List<String> rows = new ArrayList<>();
+        CandidateFileReader.read(file, Set.of(), (c, rowNumber) -> rows.add(rowNumber + ":" + c.getSid() + "/" + c.getCandidateName()));
+
+        assertTrue(Files.size(file.toPath()) > 1 << 16);
+        assertEquals(List.of("2:S1/Alpha", "3:S2/Beta; Jr"), rows);
+    }
+
+    @Test
+    void tabDelimitedTextIsReadAsCsv() throws Exception {
+        File file = write("candidates.txt", "sid\tcandidateName\nS1\tAlpha\n");
+
+        List<String> rows = new ArrayList<>();
+        CandidateFileReader.read(file, Set.of(), (c, rowNumber) -> rows.add(c.getSid() + "/" + c.getCandidateName()));
+
+        assertEquals(CandidateFileReader.Format.CSV, CandidateFileReader.formatOf(file.getName()));
+        assertEquals(List.of("S1/Alpha"), rows);
+    }
+
+    private File write(String name, String content) throws Exception {
+        return Files.writeString(tempDir.resolve(name), content, StandardCharsets.UTF_8).toFile();
+    }
+}
@@ -0,0 +1,123 @@
+package Tech_Nagendra.Certificates_genration.Ingest;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a synthetic 50k-row, 29-column candidate sheet.
+ * Scores are rows/second; run through {@link #main} to get the allocation rate from the GC profiler
+ * ("gc.alloc.rate.norm" is bytes per row).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ExcelCellDecoderBenchmark.ROWS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ExcelCellDecoderBenchmark {
+
+    static final int ROWS = 50_000;
+    static final int COLUMNS = 29;
+
+    private Workbook workbook;
+    private Sheet sheet;
+
+    @Setup(Level.Trial)
+    public void createSheet() {
+        workbook = new XSSFWorkbook();
+        sheet = workbook.createSheet("candidates");
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd-mm-yyyy"));
+        LocalDate issued = LocalDate.of(2024, 1, 1);
+
+        Row header = sheet.createRow(0);
+        for (int c = 0; c < COLUMNS; c++) header.createCell(c).setCellValue("col" + c);
+
+        for (int r = 1; r <= ROWS; r++) {
+            Row row = sheet.createRow(r);
+            for (int c = 0; c < COLUMNS; c++) {
+                Cell cell = row.createCell(c);
+                if (c == 7 || c == 12 || c == 13) {
+                    cell.setCellValue(issued.plusDays(r % 365));
+                    cell.setCellStyle(dateStyle);
+                } else if (c == 14) {
+                    cell.setCellFormula("SUM(P" + (r + 1) + ":Y" + (r + 1) + ")");
+                } else if (c > 14 && c <= 24) {
+                    cell.setCellValue((r + c) % 100);
+                } else if (c == 2) {
+                    cell.setCellValue("SID" + r);
+                } else {
+                    cell.setCellValue("value-" + c + "-" + (r % 1000));
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeWorkbook() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public void sharedDecoder(Blackhole bh) {
+        ExcelCellDecoder decoder = new ExcelCellDecoder(workbook);
+        for (int r = 1; r <= ROWS; r++) {
+            Row row = sheet.getRow(r);
+            if (decoder.isRowEmpty(row)) continue;
+            for (int c = 0; c < COLUMNS; c++) bh.consume(decoder.decode(row.getCell(c)));
+        }
+    }
+
+    @Benchmark
+    public void perCellAllocation(Blackhole bh) {
+        for (int r = 1; r <= ROWS; r++) {
+            Row row = sheet.getRow(r);
+            for (int c = 0; c < COLUMNS; c++) bh.consume(legacyDecode(row.getCell(c)));
+        }
+    }
+
+    /** The decoding previously done by CertificateService.getSafeCellValue, kept as the baseline. */
+    private static String legacyDecode(Cell cell) {
+        if (cell == null) return "";
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue().trim();
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return new SimpleDateFormat("dd-MM-yyyy").format(cell.getDateCellValue());
+                }
+                double val = cell.getNumericCellValue();
+                if (val == Math.floor(val)) return String.valueOf((long) val);
+                return String.valueOf(val);
+            case FORMULA:
+                FormulaEvaluator evaluator = cell.getSheet().getWorkbook()
+                        .getCreationHelper().createFormulaEvaluator();
+                CellValue cv = evaluator.evaluate(cell);
+                double fv = cv.getNumberValue();
+                if (fv == Math.floor(fv)) return String.valueOf((long) fv);
+                return String.valueOf(fv);
+            default:
+                return cell.toString().trim();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(ExcelCellDecoderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
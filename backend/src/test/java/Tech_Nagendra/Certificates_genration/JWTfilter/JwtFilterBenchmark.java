@@ -0,0 +1,99 @@
+package Tech_Nagendra.Certificates_genration.JWTfilter;
+
+import Tech_Nagendra.Certificates_genration.Security.JwtClaims;
+import Tech_Nagendra.Certificates_genration.Service.SessionStoreService;
+import Tech_Nagendra.Certificates_genration.Utility.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of JwtFilter for an authenticated call with a token that has been seen before.
+ * Run through {@link #main} for "gc.alloc.rate.norm" (bytes per request).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "TXlTdXBlclNlY3JldEtleUZvckp3dEdlbmVyYXRpb24xMjM0";
+
+    private JwtFilter filter;
+    private SecretKey key;
+    private String header;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecretBase64", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheSize", 10_000L);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheTtlMinutes", 30L);
+        jwtUtil.init();
+
+        SessionStoreService sessionStore = new SessionStoreService();
+        ReflectionTestUtils.setField(sessionStore, "maxSize", 10_000L);
+        sessionStore.init();
+
+        String token = jwtUtil.generateToken(42L, "bench", "bench@example.com", "USER");
+        JwtClaims claims = jwtUtil.parseClaims(token);
+        ReflectionTestUtils.invokeMethod(sessionStore, "remember", claims.getTokenHash(), claims.getExpiration());
+
+        filter = new JwtFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "sessionStore", sessionStore);
+
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        header = "Bearer " + token;
+        request = new MockHttpServletRequest("GET", "/templates");
+        request.addHeader("Authorization", header);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object filter() throws Exception {
+        SecurityContextHolder.clearContext();
+        request.removeAttribute(JwtClaims.REQUEST_ATTRIBUTE);
+        filter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    /** What the filter used to do per request: regex clean-ups and three full parses with a fresh parser each. */
+    @Benchmark
+    public void previousFilter(Blackhole bh) {
+        String jwt = header.substring(7).trim().replaceAll("[<>]", "");
+        jwt = jwt.trim().replaceAll("[^\\x20-\\x7E]", "");
+        for (int i = 0; i < 3; i++) {
+            Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(jwt).getBody();
+            bh.consume(claims);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
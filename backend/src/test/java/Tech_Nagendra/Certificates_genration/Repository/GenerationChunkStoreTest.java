@@ -0,0 +1,136 @@
+package Tech_Nagendra.Certificates_genration.Repository;
+
+import Tech_Nagendra.Certificates_genration.Entity.GenerationChunk;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Claims and fencing of the generation work queue on H2 in MySQL mode. Every claim runs in its own transaction,
+ * as it does in {@code GenerationJobService.claimChunks}, so row locks behave as between two nodes.
+ */
+class GenerationChunkStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private JdbcTemplate jdbcTemplate;
+    private GenerationChunkStore store;
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:chunks;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // same columns as the GenerationChunk entity
+        jdbcTemplate.execute("CREATE TABLE generation_chunks (id BIGINT AUTO_INCREMENT PRIMARY KEY, job_id BIGINT NOT NULL,"
+                + " start_row INT NOT NULL, end_row INT NOT NULL, status VARCHAR(16) NOT NULL, owner VARCHAR(128),"
+                + " lease_until TIMESTAMP(6), attempts INT NOT NULL, error VARCHAR(1000))");
+        store = new GenerationChunkStore(dataSource);
+        tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        store.createChunks(1L, 400, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE generation_chunks");
+    }
+
+    @Test
+    void concurrentClaimersGetDisjointChunks() throws Exception {
+        CountDownLatch aClaimed = new CountDownLatch(1);
+        CountDownLatch bDone = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<GenerationChunkStore.Claim>> a = pool.submit(() -> tx.execute(status -> {
+                List<GenerationChunkStore.Claim> claims = store.claim("nodeA", 2, NOW, NOW.plusSeconds(60), MAX_ATTEMPTS);
+                aClaimed.countDown();
+                await(bDone);
+                return claims;
+            }));
+            assertTrue(aClaimed.await(10, TimeUnit.SECONDS));
+            // nodeA still holds its row locks here; nodeB must skip them instead of waiting
+            List<GenerationChunkStore.Claim> b = tx.execute(status -> store.claim("nodeB", 2, NOW, NOW.plusSeconds(60), MAX_ATTEMPTS));
+            bDone.countDown();
+
+            assertEquals(List.of(0, 100), a.get(10, TimeUnit.SECONDS).stream().map(GenerationChunkStore.Claim::startRow).toList());
+            assertEquals(List.of(200, 300), b.stream().map(GenerationChunkStore.Claim::startRow).toList());
+            assertTrue(tx.execute(status -> store.claim("nodeC", 4, NOW, NOW.plusSeconds(60), MAX_ATTEMPTS)).isEmpty());
+        } finally {
+            bDone.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void expiredLeaseIsClaimedAgainAndStaleOwnerIsFenced() {
+        GenerationChunkStore.Claim first = tx.execute(status -> store.claim("nodeA", 1, NOW, NOW.plusSeconds(30), MAX_ATTEMPTS)).get(0);
+        assertEquals(1, first.attempts());
+
+        // before the lease runs out the chunk stays with nodeA
+        List<GenerationChunkStore.Claim> early = tx.execute(status -> store.claim("nodeB", 1, NOW.plusSeconds(10), NOW.plusSeconds(40), MAX_ATTEMPTS));
+        assertNotEquals(first.id(), early.get(0).id());
+
+        GenerationChunkStore.Claim second = tx.execute(status -> store.claim("nodeB", 1, NOW.plusSeconds(31), NOW.plusSeconds(61), MAX_ATTEMPTS)).get(0);
+        assertEquals(first.id(), second.id());
+        assertEquals(2, second.attempts());
+
+        assertEquals(List.of(first), store.heartbeat("nodeA", List.of(first), NOW.plusSeconds(90)));
+        assertTrue(store.heartbeat("nodeB", List.of(second), NOW.plusSeconds(90)).isEmpty());
+        assertFalse(store.finish(first, "nodeA", GenerationChunk.DONE, null));
+        assertTrue(store.finish(second, "nodeB", GenerationChunk.DONE, null));
+        assertFalse(store.finish(second, "nodeB", GenerationChunk.DONE, null));
+    }
+
+    @Test
+    void releasedChunkIsPendingAgain() {
+        GenerationChunkStore.Claim claim = tx.execute(status -> store.claim("nodeA", 1, NOW, NOW.plusSeconds(30), MAX_ATTEMPTS)).get(0);
+        assertTrue(store.finish(claim, "nodeA", GenerationChunk.PENDING, "boom"));
+        assertEquals(4, store.countOpen(1L));
+
+        GenerationChunkStore.Claim retry = tx.execute(status -> store.claim("nodeB", 1, NOW, NOW.plusSeconds(30), MAX_ATTEMPTS)).get(0);
+        assertEquals(claim.id(), retry.id());
+        assertEquals(2, retry.attempts());
+    }
+
+    @Test
+    void chunkAbandonedOnItsLastAttemptIsFailedInsteadOfClaimed() {
+        // every node claiming the first chunk dies; each claim comes after the previous lease ran out
+        GenerationChunkStore.Claim claim = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            LocalDateTime at = NOW.plusSeconds(31L * (attempt - 1));
+            claim = tx.execute(status -> store.claim("nodeA", 1, at, at.plusSeconds(30), MAX_ATTEMPTS)).get(0);
+            assertEquals(attempt, claim.attempts());
+        }
+        Long abandoned = claim.id();
+        LocalDateTime expired = NOW.plusSeconds(31L * MAX_ATTEMPTS);
+
+        // the other three chunks are still pending; the abandoned one is not among them
+        List<GenerationChunkStore.Claim> next = tx.execute(status -> store.claim("nodeZ", 4, expired, expired.plusSeconds(30), MAX_ATTEMPTS));
+        assertEquals(3, next.size());
+        assertTrue(next.stream().noneMatch(c -> c.id().equals(abandoned)));
+
+        assertEquals(List.of(1L), store.findExhaustedJobs(expired, MAX_ATTEMPTS));
+        assertEquals(1, store.failExhausted(1L, expired, MAX_ATTEMPTS, "abandoned"));
+        assertTrue(store.findExhaustedJobs(expired, MAX_ATTEMPTS).isEmpty());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
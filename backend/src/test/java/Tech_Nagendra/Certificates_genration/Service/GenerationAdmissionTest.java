@@ -0,0 +1,106 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("try")
+class GenerationAdmissionTest {
+
+    @Test
+    void queuedRequestTimesOutAsBusy() {
+        GenerationAdmission admission = admission(1, 20_000, 100);
+        try (GenerationAdmission.Permit ignored = admission.admit(10, 0)) {
+            long start = System.currentTimeMillis();
+            GenerationAdmission.RejectedException e = assertThrows(GenerationAdmission.RejectedException.class,
+                    () -> admission.admit(10, 0));
+            assertTrue(System.currentTimeMillis() - start >= 100);
+            assertFalse(e.isTooLarge());
+            assertEquals(5, e.getRetryAfterSeconds());
+        }
+        assertEquals(1L, admission.stats().get("timedOut"));
+        assertEquals(0, admission.stats().get("queued"));
+    }
+
+    @Test
+    void retryAfterIsCappedAtTenMinutes() throws Exception {
+        GenerationAdmission admission = admission(1, 20_000, 50);
+        ReflectionTestUtils.setField(admission, "memoryBudgetMb", 4096L);
+        admission.init();
+        try (GenerationAdmission.Permit ignored = admission.admit(1, 0)) {
+            Thread.sleep(50);
+        }
+        // about 50 ms per row observed, so 20000 rows ahead would be ~1000 s
+        try (GenerationAdmission.Permit ignored = admission.admit(20_000, 0)) {
+            GenerationAdmission.RejectedException e = assertThrows(GenerationAdmission.RejectedException.class,
+                    () -> admission.admit(1, 0));
+            assertEquals(600, e.getRetryAfterSeconds());
+        }
+    }
+
+    @Test
+    void oversizeRunIsRejectedWithoutWaiting() {
+        GenerationAdmission admission = admission(1, 100, 10_000);
+        GenerationAdmission.RejectedException rows = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> assertThrows(GenerationAdmission.RejectedException.class, () -> admission.admit(101, 0)));
+        assertTrue(rows.isTooLarge());
+
+        GenerationAdmission.RejectedException bytes = assertThrows(GenerationAdmission.RejectedException.class,
+                () -> admission.admit(1, 1L << 30));
+        assertTrue(bytes.isTooLarge());
+        assertEquals(2L, admission.stats().get("rejectedTooLarge"));
+        assertEquals(0, admission.stats().get("running"));
+    }
+
+    @Test
+    void permitIsReleasedWhenTheRunThrows() {
+        GenerationAdmission admission = admission(1, 20_000, 100);
+        assertThrows(IllegalStateException.class, () -> {
+            try (GenerationAdmission.Permit ignored = admission.admit(10, 0)) {
+                throw new IllegalStateException("render failed");
+            }
+        });
+        assertEquals(0, admission.stats().get("running"));
+        assertEquals(0L, admission.stats().get("runningRows"));
+
+        try (GenerationAdmission.Permit ignored = assertTimeoutPreemptively(Duration.ofSeconds(1), () -> admission.admit(10, 0))) {
+            assertEquals(1, admission.stats().get("running"));
+        }
+    }
+
+    @Test
+    void resizedPermitGrowsInPlaceOrIsRejectedAsTooLarge() {
+        GenerationAdmission admission = admission(1, 100, 50);
+        try (GenerationAdmission.Permit permit = admission.admit(0, 1024)) {
+            admission.resize(permit, 50, 1024);
+            assertEquals(1, admission.stats().get("running"));
+            assertEquals(50L, admission.stats().get("runningRows"));
+
+            GenerationAdmission.RejectedException e = assertThrows(GenerationAdmission.RejectedException.class,
+                    () -> admission.resize(permit, 101, 1024));
+            assertTrue(e.isTooLarge());
+            assertEquals(0, admission.stats().get("running"));
+        }
+        assertEquals(0, admission.stats().get("running"));
+        assertEquals(1L, admission.stats().get("admitted"));
+    }
+
+    /** 64 MB budget: 8 MB base and 64 KB per row, so up to ~900 rows fit on memory alone. */
+    private static GenerationAdmission admission(int maxConcurrent, long maxRows, long queueTimeoutMs) {
+        GenerationAdmission admission = new GenerationAdmission();
+        ReflectionTestUtils.setField(admission, "enabled", true);
+        ReflectionTestUtils.setField(admission, "maxConcurrent", maxConcurrent);
+        ReflectionTestUtils.setField(admission, "maxRows", maxRows);
+        ReflectionTestUtils.setField(admission, "memoryBudgetMb", 64L);
+        ReflectionTestUtils.setField(admission, "baseKb", 8192L);
+        ReflectionTestUtils.setField(admission, "rowKb", 64L);
+        ReflectionTestUtils.setField(admission, "uploadFactor", 3d);
+        ReflectionTestUtils.setField(admission, "maxQueue", 16);
+        ReflectionTestUtils.setField(admission, "queueTimeoutMs", queueTimeoutMs);
+        admission.init();
+        return admission;
+    }
+}
@@ -0,0 +1,140 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Slot decisions of the render scheduler. The competing chunks queue up while the test holds a slot, so the order in
+ * which they are granted after the release comes from the policy alone, not from thread timing.
+ */
+class GenerationSchedulerTest {
+
+    private final List<Thread> threads = new ArrayList<>();
+    private GenerationScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        threads.forEach(Thread::interrupt);
+        if (scheduler != null) scheduler.stop();
+    }
+
+    @Test
+    void smallJobJumpsAheadOfLargeJob() throws Exception {
+        scheduler = scheduler(1, 0, 500, 200, "");
+        GenerationScheduler.Turn holder = scheduler.acquire(1L, 1L, 500, 50_000);
+        chunk(1L, 1L, 500, 49_500);
+        await(() -> waiting(1L) == 1);
+        chunk(2L, 2L, 20, 20);
+        await(() -> waiting(2L) == 1);
+
+        scheduler.release(holder);
+        joinAll();
+
+        List<Map<String, Object>> decisions = decisions();
+        assertEquals(List.of(1L, 2L, 1L), decisions.stream().map(d -> d.get("jobId")).toList());
+        assertEquals("small-job", decisions.get(1).get("reason"));
+    }
+
+    @Test
+    void weightsSetTheGrantRatio() throws Exception {
+        assertEquals(List.of(1L, 2L, 1L, 2L, 1L, 2L, 1L, 2L), grantOrder(""));
+        assertEquals(List.of(1L, 1L, 1L, 2L, 1L, 1L, 1L, 2L), grantOrder("1:3"));
+    }
+
+    @Test
+    void perUserSlotsLeaveTheOtherSlotToAnotherUser() throws Exception {
+        scheduler = scheduler(2, 1, 500, 0, "");
+        GenerationScheduler.Turn first = scheduler.acquire(1L, 1L, 100, 1000);
+        chunk(1L, 1L, 100, 900);
+        await(() -> waiting(1L) == 1);
+        Thread.sleep(100);
+        assertEquals(1, scheduler.stats().get("busySlots"));
+
+        GenerationScheduler.Turn other = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> scheduler.acquire(2L, 2L, 100, 1000));
+        assertEquals(2, scheduler.stats().get("busySlots"));
+        assertEquals(1L, waiting(1L));
+
+        scheduler.release(first);
+        joinAll();
+        scheduler.release(other);
+        assertEquals(0, scheduler.stats().get("busySlots"));
+    }
+
+    /** Users of the first eight grants after eight chunks each of users 1 and 2 queue behind a held slot. */
+    private List<Object> grantOrder(String weights) throws Exception {
+        scheduler = scheduler(1, 0, 100, 0, weights);
+        GenerationScheduler.Turn holder = scheduler.acquire(99L, 99L, 100, 10_000);
+        for (int i = 0; i < 8; i++) chunk(1L, 1L, 100, 10_000);
+        await(() -> waiting(1L) == 8);
+        for (int i = 0; i < 8; i++) chunk(2L, 2L, 100, 10_000);
+        await(() -> waiting(2L) == 8);
+
+        scheduler.release(holder);
+        joinAll();
+        List<Object> users = decisions().stream().skip(1).limit(8).map(d -> d.get("userId")).toList();
+        scheduler.stop();
+        threads.clear();
+        return users;
+    }
+
+    private static GenerationScheduler scheduler(int slots, int perUserSlots, int quantumRows, int smallJobRows,
+                                                 String weights) {
+        GenerationScheduler scheduler = new GenerationScheduler();
+        ReflectionTestUtils.setField(scheduler, "policy", "drr");
+        ReflectionTestUtils.setField(scheduler, "slots", slots);
+        ReflectionTestUtils.setField(scheduler, "maxActiveJobs", 4);
+        ReflectionTestUtils.setField(scheduler, "perUserJobs", 2);
+        ReflectionTestUtils.setField(scheduler, "perUserSlots", perUserSlots);
+        ReflectionTestUtils.setField(scheduler, "quantumRows", quantumRows);
+        ReflectionTestUtils.setField(scheduler, "smallJobRows", smallJobRows);
+        ReflectionTestUtils.setField(scheduler, "weightList", weights);
+        scheduler.start();
+        return scheduler;
+    }
+
+    /** Requests one chunk on its own thread and gives the slot back as soon as it is granted. */
+    private void chunk(Long jobId, Long userId, int rows, int remaining) {
+        Thread thread = new Thread(() -> scheduler.release(scheduler.acquire(jobId, userId, rows, remaining)));
+        thread.setDaemon(true);
+        thread.start();
+        threads.add(thread);
+    }
+
+    private void joinAll() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(5000);
+            assertFalse(thread.isAlive(), "chunk was never granted");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> decisions() {
+        return (List<Map<String, Object>>) scheduler.stats().get("recentDecisions");
+    }
+
+    @SuppressWarnings("unchecked")
+    private long waiting(Long userId) {
+        return ((List<Map<String, Object>>) scheduler.stats().get("users")).stream()
+                .filter(user -> userId.equals(user.get("userId")))
+                .mapToLong(user -> ((Number) user.get("waitingChunks")).longValue())
+                .sum();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("timed out waiting for queued chunks");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package Tech_Nagendra.Certificates_genration.Service;
+
+import Tech_Nagendra.Certificates_genration.Dto.ReportDTO;
+import Tech_Nagendra.Certificates_genration.Repository.ReportRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReportExportServiceTest {
+
+    private final ReportRepository reportRepository = mock(ReportRepository.class);
+
+    @Test
+    void csvValuesThatStartAFormulaAreQuoted() throws Exception {
+        ReportDTO report = new ReportDTO(7L, "=HYPERLINK(\"http://x\",\"y\")", "+Alpha", "-1", "@SUM(A1)", "Welder",
+                "L1", "B-1", "Skill India", null, null, null, "GENERATED", null);
+        when(reportRepository.streamReportDtos(any(), any(), anyInt())).thenReturn(Stream.of(report));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(1, service().export(null, ReportExportService.Format.CSV, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("7,\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\",'+Alpha,'-1,'@SUM(A1),Welder,L1,B-1,Skill India,GENERATED,",
+                lines[1]);
+    }
+
+    @Test
+    void fetchSizeIsPositiveOffMySql() {
+        ReportExportService service = service();
+        assertEquals(1000, ReflectionTestUtils.getField(service, "fetchSize"));
+    }
+
+    private ReportExportService service() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:export;MODE=MySQL");
+        ReportExportService service = new ReportExportService();
+        ReflectionTestUtils.setField(service, "reportRepository", reportRepository);
+        ReflectionTestUtils.setField(service, "dataSource", dataSource);
+        ReflectionTestUtils.setField(service, "xlsxWindow", 100);
+        service.init();
+        return service;
+    }
+}